@@ -1,6 +1,7 @@
 plugins {
     java
     id("io.quarkus")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -16,10 +17,17 @@ dependencies {
     implementation(enforcedPlatform("${quarkusPlatformGroupId}:${quarkusPlatformArtifactId}:${quarkusPlatformVersion}"))
     implementation("io.quarkus:quarkus-arc")
     implementation("io.quarkus:quarkus-rest")
+    implementation("io.quarkus:quarkus-rest-jackson")
     implementation("io.quarkus:quarkus-scheduler")
+    implementation("io.quarkus:quarkus-smallrye-health")
+    implementation("io.quarkus:quarkus-micrometer-registry-prometheus")
+    implementation("io.quarkus:quarkus-opentelemetry")
+    // Native transport Linux: SO_REUSEPORT для передачи порта при обновлении без простоя
+    implementation("io.netty:netty-transport-native-epoll::linux-x86_64")
     testImplementation("io.quarkus:quarkus-junit5")
     testImplementation("io.quarkus:quarkus-junit5-mockito")
     testImplementation("io.rest-assured:rest-assured")
+    testImplementation("io.opentelemetry:opentelemetry-sdk-testing")
 }
 
 group = "com.example"
@@ -38,3 +46,174 @@ tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
     options.compilerArgs.add("-parameters")
 }
+
+// Нагрузочный прогон: src/loadTest, заглушки backend в JVM генератора, прокси — собранным jar
+sourceSets {
+    create("loadTest")
+}
+
+val loadTestImplementation by configurations.getting
+
+dependencies {
+    loadTestImplementation("org.hdrhistogram:HdrHistogram:2.2.2")
+}
+
+// ./gradlew loadTest -Pload.scenario=cache-hit,failover,rate-limit -Pload.rate=2000 -Pload.duration=30s
+tasks.register<JavaExec>("loadTest") {
+    description = "Drives the built proxy with an open-model load generator against in-JVM stub backends"
+    group = "verification"
+    dependsOn("quarkusBuild")
+    classpath = sourceSets["loadTest"].runtimeClasspath
+    mainClass.set("com.example.loadtest.LoadTest")
+    workingDir = projectDir
+    args((project.findProperty("load.scenario") as String?) ?: "all")
+    systemProperty("load.jar", layout.buildDirectory.file("quarkus-app/quarkus-run.jar").get().asFile.path)
+    listOf("load.rate", "load.duration").forEach { name ->
+        (project.findProperty(name) as String?)?.let { systemProperty(name, it) }
+    }
+}
+
+// Старт и RSS в JVM и native: ./gradlew build -Dquarkus.native.enabled=true startupBenchmark
+tasks.register<JavaExec>("startupBenchmark") {
+    description = "Measures time to first proxied request and steady-state RSS of the JVM and native builds"
+    group = "verification"
+    dependsOn("quarkusBuild")
+    classpath = sourceSets["loadTest"].runtimeClasspath
+    mainClass.set("com.example.loadtest.StartupBenchmark")
+    workingDir = projectDir
+    systemProperty("load.jar", layout.buildDirectory.file("quarkus-app/quarkus-run.jar").get().asFile.path)
+    systemProperty("startup.native",
+            layout.buildDirectory.file("${project.name}-${project.version}-runner").get().asFile.path)
+    (project.findProperty("startup.runs") as String?)?.let { systemProperty("startup.runs", it) }
+}
+
+// Перезапуск под нагрузкой без ошибок: ./gradlew restartTest -Pload.rate=500
+tasks.register<JavaExec>("restartTest") {
+    description = "Replaces a running proxy with a new process on the same port under load and fails on any error"
+    group = "verification"
+    dependsOn("quarkusBuild")
+    classpath = sourceSets["loadTest"].runtimeClasspath
+    mainClass.set("com.example.loadtest.RestartTest")
+    workingDir = projectDir
+    systemProperty("load.jar", layout.buildDirectory.file("quarkus-app/quarkus-run.jar").get().asFile.path)
+    listOf("load.rate", "load.duration").forEach { name ->
+        (project.findProperty(name) as String?)?.let { systemProperty(name, it) }
+    }
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("src/jmh/baseline.json")
+
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(jmhResults)
+    // ./gradlew jmh -Pjmh.includes=HttpClientBenchmark
+    val jmhIncludes = project.findProperty("jmh.includes") as String?
+    jmhIncludes?.let { includes.set(listOf(it)) }
+    // Бенчмарки с внешним окружением (прокси на :8080, backend) по умолчанию не запускаются, в том числе
+    // в jmhBaseline: их включают явно через -Pjmh.includes, -Pjmh.excludes= снимает исключение
+    val jmhExcludes = project.findProperty("jmh.excludes") as String?
+        ?: if (jmhIncludes == null) "ProxyRoutingBenchmark" else ""
+    excludes.set(jmhExcludes.split(",").filter { it.isNotBlank() })
+    // ./gradlew jmh -Pjmh.profilers=gc
+    (project.findProperty("jmh.profilers") as String?)?.let { profilers.set(it.split(",")) }
+    // ./gradlew jmh -Pjmh.threads=16
+    (project.findProperty("jmh.threads") as String?)?.let { threads.set(it.toInt()) }
+}
+
+// Результаты последнего прогона становятся эталоном: ./gradlew jmh jmhBaseline (на эталонной машине)
+tasks.register<Copy>("jmhBaseline") {
+    description = "Stores the last JMH results as the baseline for jmhCompare"
+    group = "benchmark"
+    from(jmhResults)
+    into(jmhBaseline.asFile.parentFile)
+    rename { jmhBaseline.asFile.name }
+}
+
+// ./gradlew jmh jmhCompare -Pjmh.regressionThreshold=0.1
+// Opt-in: задача не входит в check/build, пока эталон не записан на эталонной машине и не закоммичен.
+// Регрессия: результат хуже эталона больше чем на порог и больше суммарной погрешности двух прогонов
+tasks.register("jmhCompare") {
+    description = "Fails when JMH results regress against src/jmh/baseline.json (opt-in, needs a committed baseline)"
+    group = "benchmark"
+    val threshold = (project.findProperty("jmh.regressionThreshold") as String?)?.toDouble() ?: 0.10
+    doLast {
+        val baselineFile = jmhBaseline.asFile
+        val resultsFile = jmhResults.get().asFile
+        if (!resultsFile.exists()) {
+            throw GradleException("No JMH results at $resultsFile, run ./gradlew jmh first")
+        }
+        // Без эталона сравнивать не с чем: пустой или отсутствующий baseline — ошибка, а не молчаливый успех
+        if (!baselineFile.exists()) {
+            throw GradleException("No JMH baseline at $baselineFile, record one with ./gradlew jmh jmhBaseline " +
+                    "on the reference machine and commit it")
+        }
+        val baseline = readJmhScores(baselineFile)
+        if (baseline.isEmpty()) {
+            throw GradleException("JMH baseline $baselineFile is empty, record one with ./gradlew jmh jmhBaseline")
+        }
+        val current = readJmhScores(resultsFile)
+        val regressions = mutableListOf<String>()
+        var compared = 0
+        for ((key, score) in current) {
+            val expected = baseline[key]
+            if (expected == null) {
+                logger.warn("NEW  $key: ${describe(score)} (not in baseline, not checked)")
+                continue
+            }
+            compared++
+            val change = if (expected.value == 0.0) "" else
+                " (%+.1f%%)".format((score.value - expected.value) / expected.value * 100)
+            val line = "$key: ${describe(expected)} -> ${describe(score)}$change"
+            if (isRegression(expected, score, threshold)) {
+                regressions.add(line)
+                logger.error("FAIL $line")
+            } else {
+                logger.lifecycle("OK   $line")
+            }
+        }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("${regressions.size} JMH regression(s) against $baselineFile")
+        }
+        if (compared == 0) {
+            throw GradleException("None of the ${current.size} JMH results is in $baselineFile: nothing was checked")
+        }
+    }
+}
+
+/**
+ * Оценка JMH: основная метрика бенчмарка или gc.alloc.rate.norm (байт на операцию, при -prof gc)
+ */
+data class JmhScore(val value: Double, val error: Double, val unit: String, val higherIsBetter: Boolean,
+                    val minDelta: Double)
+
+fun readJmhScores(file: File): Map<String, JmhScore> {
+    val scores = linkedMapOf<String, JmhScore>()
+    @Suppress("UNCHECKED_CAST")
+    val runs = groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>
+    for (run in runs) {
+        val params = (run["params"] as Map<*, *>?)?.entries?.joinToString(",", "[", "]") { "${it.key}=${it.value}" }
+        val key = "${run["benchmark"]}${params ?: ""} ${run["mode"]} t=${run["threads"]}"
+        val primary = run["primaryMetric"] as Map<*, *>
+        scores[key] = JmhScore(number(primary["score"]), number(primary["scoreError"]),
+                primary["scoreUnit"] as String, run["mode"] == "thrpt", 0.0)
+        val alloc = (run["secondaryMetrics"] as Map<*, *>?)?.get("gc.alloc.rate.norm") as Map<*, *>?
+        if (alloc != null) {
+            // Рост аллокаций меньше 8 байт на операцию — шум выравнивания, а не регрессия
+            scores["$key alloc"] = JmhScore(number(alloc["score"]), number(alloc["scoreError"]),
+                    alloc["scoreUnit"] as String, false, 8.0)
+        }
+    }
+    return scores
+}
+
+fun number(value: Any?): Double = (value as? Number)?.toDouble() ?: Double.NaN
+
+fun isRegression(expected: JmhScore, actual: JmhScore, threshold: Double): Boolean {
+    val worse = if (expected.higherIsBetter) expected.value - actual.value else actual.value - expected.value
+    val noise = listOf(expected.error, actual.error).filterNot { it.isNaN() }.sum()
+    return worse > maxOf(expected.value * threshold, expected.minDelta) && worse > noise
+}
+
+fun describe(score: JmhScore): String = "%.3f %s".format(score.value, score.unit)
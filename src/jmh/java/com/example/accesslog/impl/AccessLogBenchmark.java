@@ -0,0 +1,60 @@
+package com.example.accesslog.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость записи в access log для потока запроса под конкуренцией: захват слота кольцевого буфера.
+ * Фоновый поток форматирует в JSON и выбрасывает строки, так что при его отставании часть записей
+ * отбрасывается — это и есть поведение под нагрузкой. Ожидаемая аллокация на потоке запроса — 0 B/op.
+ * Запуск: ./gradlew jmh -Pjmh.includes=AccessLogBenchmark -Pjmh.profilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AccessLogBenchmark {
+
+    private RingBufferAccessLog accessLog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accessLog = new RingBufferAccessLog(8192, 256, 1.0, AccessLogFormat.JSON, new RingBufferAccessLog.Sink() {
+            @Override
+            public void write(CharSequence line) {
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+        accessLog.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        accessLog.stop();
+    }
+
+    @Benchmark
+    public void log() {
+        accessLog.log("10.0.0.1", "GET", "/api/items?page=2", 200, 1_250_000, "default", "http://backend-1:8080",
+                "MISS", 1, null);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.cache.impl;
+
+import com.example.cache.CachedResponse;
+import io.vertx.core.MultiMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабирование InMemoryResponseCache по потокам: смешанная нагрузка get/put по набору ключей
+ * вдвое больше max-size, поэтому put постоянно вытесняет. Один сегмент против сегментов по ядрам.
+ * Число потоков задаётся при запуске, например от 1 до 64:
+ * for t in 1 2 4 8 16 32 64; do ./gradlew jmh -Pjmh.includes=ResponseCacheBenchmark -Pjmh.threads=$t; done
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseCacheBenchmark {
+
+    private static final int MAX_SIZE = 10_000;
+    private static final int KEYS = MAX_SIZE * 2;
+
+    /**
+     * 1 — прежнее поведение с общей картой и вытеснением; 0 — по числу ядер
+     */
+    @Param({"1", "0"})
+    int segments;
+
+    /**
+     * Доля put в процентах
+     */
+    @Param({"10", "50"})
+    int writePercent;
+
+    private InMemoryResponseCache cache;
+    private String[] keys;
+    private CachedResponse[] responses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new InMemoryResponseCache(Duration.ofMinutes(10), MAX_SIZE, segments);
+        keys = new String[KEYS];
+        responses = new CachedResponse[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "/api/items/" + i + "?page=" + (i % 7);
+            CachedResponse response = new CachedResponse();
+            response.setStatusCode(200);
+            response.setBody("item " + i);
+            response.setHeaders(MultiMap.caseInsensitiveMultiMap().add("Content-Type", "text/plain"));
+            responses[i] = response;
+        }
+        for (int i = 0; i < MAX_SIZE; i++) {
+            cache.put(keys[i], responses[i]);
+        }
+    }
+
+    @Benchmark
+    public Object mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(KEYS);
+        if (random.nextInt(100) < writePercent) {
+            cache.put(keys[i], responses[i]);
+            return null;
+        }
+        return cache.get(keys[i]);
+    }
+}
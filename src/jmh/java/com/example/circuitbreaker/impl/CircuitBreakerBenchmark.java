@@ -0,0 +1,72 @@
+package com.example.circuitbreaker.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка circuit на каждой попытке к backend под конкуренцией:
+ * закрытый circuit с записью успеха (обычный путь) и открытый (каждая проверка сравнивает время отказа).
+ * Запуск: ./gradlew jmh -Pjmh.includes=CircuitBreakerBenchmark -Pjmh.profilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CircuitBreakerBenchmark {
+
+    /**
+     * Число backend в пуле
+     */
+    @Param({"1", "8"})
+    int servers;
+
+    private SimpleCircuitBreaker closed;
+    private SimpleCircuitBreaker open;
+    private String[] urls;
+
+    @Setup
+    public void setUp() {
+        closed = new SimpleCircuitBreaker(3, Duration.ofHours(1), Set.of(500, 502, 503, 504));
+        open = new SimpleCircuitBreaker(3, Duration.ofHours(1), Set.of(500, 502, 503, 504));
+        urls = new String[servers];
+        for (int i = 0; i < servers; i++) {
+            urls[i] = "http://backend-" + i + ":8080";
+            closed.isOpen(urls[i]);
+            open.isOpen(urls[i]);
+            for (int failure = 0; failure < 3; failure++) {
+                open.recordFailure(urls[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean closedWithSuccess() {
+        String url = urls[ThreadLocalRandom.current().nextInt(servers)];
+        boolean isOpen = closed.isOpen(url);
+        closed.recordSuccess(url);
+        return isOpen;
+    }
+
+    @Benchmark
+    public boolean open() {
+        return open.isOpen(urls[ThreadLocalRandom.current().nextInt(servers)]);
+    }
+}
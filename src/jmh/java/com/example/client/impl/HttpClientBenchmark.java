@@ -0,0 +1,111 @@
+package com.example.client.impl;
+
+import com.example.client.HttpClient;
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение SimpleHttpClient (java.net.http) и VertxHttpClient на локальном stub backend.
+ * Запуск: ./gradlew jmh -Pjmh.includes=HttpClientBenchmark (для аллокаций добавить -prof gc в jmh.profilers)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(16)
+public class HttpClientBenchmark {
+
+    private static final MultiMap HEADERS = MultiMap.caseInsensitiveMultiMap()
+            .add("Accept", "text/plain")
+            .add("X-Forwarded-For", "127.0.0.1");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Param({"jdk", "vertx"})
+    String clientType;
+
+    @Param({"1024"})
+    int payloadSize;
+
+    private HttpServer backend;
+    private Vertx vertx;
+    private HttpClient client;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) 'x');
+
+        backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        backend.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(payload);
+            }
+        });
+        backend.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        backend.start();
+        url = "http://127.0.0.1:" + backend.getAddress().getPort() + "/data";
+
+        if ("vertx".equals(clientType)) {
+            vertx = Vertx.vertx();
+            VertxHttpClient vertxClient = new VertxHttpClient();
+            vertxClient.vertx = vertx;
+            vertxClient.configure(Duration.ofSeconds(5), 32, Duration.ofSeconds(60));
+            client = vertxClient;
+        } else {
+            SimpleHttpClient jdkClient = new SimpleHttpClient();
+            jdkClient.configure(Duration.ofSeconds(5));
+            client = jdkClient;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (client instanceof VertxHttpClient vertxClient) {
+            vertxClient.close();
+        }
+        if (vertx != null) {
+            vertx.close();
+        }
+        backend.stop(0);
+    }
+
+    @Benchmark
+    public HttpResponse get() throws HttpClientException {
+        return client.get(url, HEADERS, TIMEOUT);
+    }
+
+    @Benchmark
+    public HttpResponse post() throws HttpClientException {
+        return client.send("POST", url, "{\"key\":\"value\"}", HEADERS, TIMEOUT);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.proxy;
+
+import com.example.client.ProxyHeaders;
+import io.vertx.core.MultiMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает аллокации конвейера заголовков на запрос: прежний (HashMap первых значений на входе,
+ * две копии ответа backend с регистрозависимым фильтром hop-by-hop и копия в ответ клиенту) против
+ * текущего пути copyEndToEnd → resultHeaders с теми же X-Cache и X-RateLimit-*.
+ * Запуск: ./gradlew jmh -Pjmh.includes=HeaderPipelineBenchmark, байты на операцию — с профилировщиком gc
+ * (gc.alloc.rate.norm)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class HeaderPipelineBenchmark {
+
+    /** Прежний HopByHopHeaders: сравнение с учётом регистра, без аллокаций */
+    private static final Set<String> LEGACY_HOP_BY_HOP = Set.of("Connection", "Keep-Alive", "Transfer-Encoding",
+            "Proxy-Authenticate", "Proxy-Authorization", "TE", "Trailer", "Upgrade");
+
+    private static final long RESET = 1_792_400_000L;
+
+    private final MultiMap clientHeaders = MultiMap.caseInsensitiveMultiMap()
+            .add("Host", "proxy:8080")
+            .add("Accept", "application/json")
+            .add("Accept-Encoding", "gzip, deflate")
+            .add("User-Agent", "bench/1.0")
+            .add("Connection", "keep-alive")
+            .add("Cookie", "session=abc")
+            .add("X-Request-Id", "4f1c2e");
+
+    private final Map<String, List<String>> backendHeaders = Map.of(
+            "content-type", List.of("application/json"),
+            "content-length", List.of("128"),
+            "connection", List.of("keep-alive"),
+            "cache-control", List.of("max-age=60"),
+            "set-cookie", List.of("a=1", "b=2"),
+            "date", List.of("Mon, 19 Oct 2026 10:00:00 GMT"));
+
+    @Benchmark
+    public Object legacy() {
+        // Вход: ProxyResource.createHeaders — первое значение каждого заголовка и X-Forwarded-For;
+        // клиент передавал эту карту в builder без копии
+        Map<String, String> request = new HashMap<>();
+        for (Map.Entry<String, String> header : clientHeaders) {
+            request.putIfAbsent(header.getKey(), header.getValue());
+        }
+        request.put("X-Forwarded-For", "127.0.0.1");
+
+        // Выход: SimpleHttpClient.createResponse (первые значения), затем filterHeaders в новую карту
+        Map<String, String> response = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : backendHeaders.entrySet()) {
+            response.put(header.getKey(), header.getValue().get(0));
+        }
+        Map<String, String> filtered = new HashMap<>();
+        for (Map.Entry<String, String> header : response.entrySet()) {
+            if (!LEGACY_HOP_BY_HOP.contains(header.getKey())) {
+                filtered.put(header.getKey(), header.getValue());
+            }
+        }
+
+        // Ответ клиенту: копия заголовков, X-Cache и rate limit
+        Map<String, String> outgoing = new HashMap<>(filtered);
+        outgoing.put("X-Cache", "MISS");
+        outgoing.put("X-RateLimit-Limit", String.valueOf(60));
+        outgoing.put("X-RateLimit-Remaining", String.valueOf(59L));
+        outgoing.put("X-RateLimit-Reset", String.valueOf(RESET));
+        return new Object[]{request, outgoing};
+    }
+
+    @Benchmark
+    public Object multiMap() {
+        MultiMap request = ProxyHeaders.copyEndToEnd(clientHeaders);
+        request.add(ProxyHeaders.X_FORWARDED_FOR, "127.0.0.1");
+        MultiMap response = ProxyHeaders.copyEndToEnd(backendHeaders);
+        MultiMap outgoing = ProxyService.resultHeaders(response, "MISS");
+        ProxyService.addRateLimitHeaders(outgoing, 60, 59L, RESET);
+        return new Object[]{request, outgoing};
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.proxy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Латентность прокси через catch-all route против прежнего /proxy?path=... на одном и том же backend.
+ * Нужен запущенный прокси с выключенными кешем и rate limit, например:
+ * <pre>
+ * python3 -m http.server 8081
+ * java -Dapp.backends.urls[0]=http://localhost:8081 -Dapp.cache.enabled=false -Dapp.rate-limit.enabled=false \
+ *      -jar build/quarkus-app/quarkus-run.jar
+ * ./gradlew jmh -Pjmh.includes=ProxyRoutingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(16)
+public class ProxyRoutingBenchmark {
+
+    @Param({"catchAll", "queryParam"})
+    String route;
+
+    @Param({"http://localhost:8080"})
+    String proxyUrl;
+
+    @Param({"/?page=1&sort=name"})
+    String path;
+
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        String url = "catchAll".equals(route)
+                ? proxyUrl + path
+                : proxyUrl + "/proxy?path=" + URLEncoder.encode(path, StandardCharsets.UTF_8);
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    @Benchmark
+    public int get() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ratelimiter.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * allowRequest под конкуренцией: все потоки на одном клиенте (общий bucket) против многих клиентов.
+ * Лимит высокий, чтобы измерялся путь пополнения и списания, а не отказ.
+ * Запуск: ./gradlew jmh -Pjmh.includes=RateLimiterBenchmark -Pjmh.profilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    /**
+     * Число различных IP клиентов
+     */
+    @Param({"1", "1024"})
+    int clients;
+
+    private TokenBucketRateLimiter rateLimiter;
+    private String[] clientIps;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new TokenBucketRateLimiter(Integer.MAX_VALUE);
+        clientIps = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientIps[i] = "10.0." + (i >> 8) + "." + (i & 0xFF);
+        }
+    }
+
+    @Benchmark
+    public boolean allowRequest() {
+        return rateLimiter.allowRequest(clientIps[ThreadLocalRandom.current().nextInt(clients)]);
+    }
+}
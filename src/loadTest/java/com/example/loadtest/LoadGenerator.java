@@ -0,0 +1,100 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор открытой модели: запросы уходят с постоянной частотой по расписанию, не дожидаясь ответов
+ * на предыдущие. Латентность считается от запланированного момента, поэтому отставание самого генератора
+ * или очередь перед прокси не прячутся (coordinated omission)
+ */
+final class LoadGenerator implements AutoCloseable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+
+    /**
+     * @param paths  пути запросов, выбираются случайно
+     * @param warmup начальный отрезок, который не попадает в результат
+     */
+    LoadResult run(String scenario, String baseUrl, List<String> paths, int rate, Duration duration,
+                   Duration warmup) throws InterruptedException {
+        URI[] uris = paths.stream().map(path -> URI.create(baseUrl + path)).toArray(URI[]::new);
+        Recorder corrected = new Recorder(MAX_TRACKABLE_MICROS, 3);
+        Recorder service = new Recorder(MAX_TRACKABLE_MICROS, 3);
+        Recorder admitted = new Recorder(MAX_TRACKABLE_MICROS, 3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        AtomicLong inFlight = new AtomicLong();
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long intended = start; intended < end; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            long scheduled = intended;
+            URI uri = uris[ThreadLocalRandom.current().nextInt(uris.length)];
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+            long sent = System.nanoTime();
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long now = System.nanoTime();
+                if (measured) {
+                    long latency = Math.min(MAX_TRACKABLE_MICROS, (now - scheduled) / 1_000);
+                    corrected.recordValue(latency);
+                    service.recordValue(Math.min(MAX_TRACKABLE_MICROS, (now - sent) / 1_000));
+                    int status = error == null ? response.statusCode() : -1;
+                    if (status != 503) {
+                        admitted.recordValue(latency);
+                    }
+                    statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+
+        // Ждём ответы на уже отправленные запросы, но не дольше таймаута запроса
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long timeouts = inFlight.get();
+
+        Map<Integer, Long> counts = new ConcurrentHashMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return new LoadResult(scenario, rate, duration, corrected.getIntervalHistogram(),
+                service.getIntervalHistogram(), admitted.getIntervalHistogram(), counts, timeouts);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
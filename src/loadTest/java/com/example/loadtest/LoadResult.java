@@ -0,0 +1,43 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Итог прогона: две гистограммы латентности в микросекундах и распределение статусов.
+ * corrected — от запланированного момента отправки (с поправкой на coordinated omission),
+ * service — от фактической отправки; расхождение между ними показывает очередь перед прокси;
+ * admitted — corrected без ответов 503: латентность запросов, которые прокси принял
+ */
+record LoadResult(String scenario, int rate, Duration duration, Histogram corrected, Histogram service,
+                  Histogram admitted, Map<Integer, Long> statuses, long timeouts) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    long completed() {
+        return corrected.getTotalCount();
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n=== %s: %d req/s for %ds ===%n", scenario, rate, duration.toSeconds());
+        out.printf("completed %d (%.0f req/s), not completed %d%n", completed(),
+                completed() / (double) duration.toSeconds(), timeouts);
+        out.printf("statuses  %s (-1 = connection error)%n", new TreeMap<>(statuses));
+        out.printf("%-10s %10s %10s %10s %10s %10s%n", "latency ms", "p50", "p90", "p99", "p99.9", "max");
+        row(out, "corrected", corrected);
+        row(out, "service", service);
+        row(out, "admitted", admitted);
+    }
+
+    private static void row(PrintStream out, String name, Histogram histogram) {
+        out.printf("%-10s", name);
+        for (double percentile : PERCENTILES) {
+            out.printf(" %10.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf(" %10.2f%n", histogram.getMaxValue() / 1000.0);
+    }
+}
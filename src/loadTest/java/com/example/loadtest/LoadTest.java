@@ -0,0 +1,64 @@
+package com.example.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный прогон прокси: backend-заглушки в этом JVM, прокси отдельным процессом, генератор открытой модели.
+ * <pre>
+ * ./gradlew loadTest                                   # все сценарии
+ * ./gradlew loadTest -Pload.scenario=failover -Pload.rate=1500 -Pload.duration=60s
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final Duration DEFAULT_DURATION = Duration.ofSeconds(30);
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(System.getProperty("load.jar", "build/quarkus-app/quarkus-run.jar"));
+        Duration duration = Duration.parse("PT" + System.getProperty("load.duration", DEFAULT_DURATION.toSeconds() + "s"));
+        String rate = System.getProperty("load.rate");
+        List<Scenario> scenarios = args.length == 0 || "all".equals(args[0])
+                ? Arrays.asList(Scenario.values())
+                : Arrays.stream(args[0].split(",")).map(Scenario::fromCli).toList();
+
+        List<LoadResult> results = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            results.add(run(scenario, jar, rate == null ? scenario.defaultRate() : Integer.parseInt(rate), duration));
+        }
+        results.forEach(result -> result.print(System.out));
+    }
+
+    private static LoadResult run(Scenario scenario, Path jar, int rate, Duration duration) throws Exception {
+        System.out.printf("Running %s at %d req/s for %ds...%n", scenario.cliName(), rate, duration.toSeconds());
+        List<StubBackend> backends = new ArrayList<>();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            for (StubBackend.Profile profile : scenario.backends()) {
+                backends.add(StubBackend.start(profile));
+            }
+            Path log = Path.of("build/loadtest/" + scenario.cliName() + "-proxy.log");
+            try (ProxyProcess proxy = ProxyProcess.start(ProxyProcess.Launcher.jvm(jar),
+                    scenario.proxyProperties(backends), log);
+                 LoadGenerator generator = new LoadGenerator()) {
+                // Отсчёт изменений backend — от начала измерения, после прогрева
+                scheduler.schedule(() -> scenario.during(backends, duration, scheduler),
+                        WARMUP.toMillis(), TimeUnit.MILLISECONDS);
+                return generator.run(scenario.cliName(), proxy.url(), scenario.paths(), rate, duration, WARMUP);
+            }
+        } finally {
+            scheduler.shutdownNow();
+            backends.forEach(StubBackend::close);
+        }
+    }
+}
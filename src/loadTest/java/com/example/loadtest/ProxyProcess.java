@@ -0,0 +1,202 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Собранный прокси в отдельном процессе — jar в JVM или native executable: нагрузка измеряет настоящий
+ * HTTP стек, а не вызовы в том же JVM. Конфигурация передаётся системными свойствами, вывод — в файл лога
+ */
+final class ProxyProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * Способ запуска прокси
+     */
+    record Launcher(String name, Path artifact, boolean nativeImage) {
+
+        static Launcher jvm(Path jar) {
+            return new Launcher("jvm", jar, false);
+        }
+
+        static Launcher nativeExecutable(Path runner) {
+            return new Launcher("native", runner, true);
+        }
+
+        List<String> command(Map<String, String> properties) {
+            List<String> command = new ArrayList<>();
+            command.add(nativeImage ? artifact.toString() : ProcessHandle.current().info().command().orElse("java"));
+            properties.forEach((name, value) -> command.add("-D" + name + "=" + value));
+            if (!nativeImage) {
+                command.add("-jar");
+                command.add(artifact.toString());
+            }
+            return command;
+        }
+    }
+
+    private final Process process;
+    private final int port;
+    private final long startedAt;
+    private final Path log;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private ProxyProcess(Process process, int port, long startedAt, Path log) {
+        this.process = process;
+        this.port = port;
+        this.startedAt = startedAt;
+        this.log = log;
+    }
+
+    /**
+     * Запускает прокси и ждёт готовности (/q/health/ready)
+     */
+    static ProxyProcess start(Launcher launcher, Map<String, String> properties, Path log)
+            throws IOException, InterruptedException {
+        return start(launcher, properties, log, freePort());
+    }
+
+    static ProxyProcess start(Launcher launcher, Map<String, String> properties, Path log, int port)
+            throws IOException, InterruptedException {
+        ProxyProcess proxy = launch(launcher, properties, log, port);
+        proxy.awaitStatus("/q/health/ready");
+        return proxy;
+    }
+
+    /**
+     * Запускает прокси, не дожидаясь готовности
+     */
+    static ProxyProcess launch(Launcher launcher, Map<String, String> properties, Path log) throws IOException {
+        return launch(launcher, properties, log, freePort());
+    }
+
+    /**
+     * @param port порт прокси; занятый порт допустим только при quarkus.http.so-reuse-port=true у обоих процессов
+     */
+    static ProxyProcess launch(Launcher launcher, Map<String, String> properties, Path log, int port)
+            throws IOException {
+        if (!Files.exists(launcher.artifact())) {
+            throw new IllegalStateException("Proxy artifact not found: " + launcher.artifact()
+                    + ", run ./gradlew quarkusBuild");
+        }
+        Map<String, String> withPort = new LinkedHashMap<>(properties);
+        withPort.put("quarkus.http.port", String.valueOf(port));
+
+        Files.createDirectories(log.getParent());
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(launcher.command(withPort))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new ProxyProcess(process, port, startedAt, log);
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    long pid() {
+        return process.pid();
+    }
+
+    /**
+     * Время от запуска процесса до первого ответа 200 на путь
+     */
+    Duration awaitStatus(String path) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url() + path)).build();
+        long deadline = startedAt + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Proxy exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - startedAt);
+                }
+            } catch (IOException ignored) {
+                // Ещё не слушает порт
+            }
+            Thread.sleep(Duration.ofNanos(POLL_NANOS));
+        }
+        close();
+        throw new IllegalStateException("No 200 from " + path + " after " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    /**
+     * Ждёт строку в логе процесса. Нужна, когда порт общий (SO_REUSEPORT): HTTP запрос на него
+     * может ответить другой процесс
+     */
+    void awaitLog(String marker) throws IOException, InterruptedException {
+        long deadline = startedAt + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Proxy exited with " + process.exitValue() + ", see " + log);
+            }
+            if (Files.exists(log) && Files.readString(log).contains(marker)) {
+                return;
+            }
+            Thread.sleep(Duration.ofNanos(POLL_NANOS));
+        }
+        close();
+        throw new IllegalStateException("No '" + marker + "' in " + log + " after " + STARTUP_TIMEOUT);
+    }
+
+    /**
+     * Останавливает процесс по SIGTERM, как оркестратор, и ждёт завершения дренажа
+     * @return время от сигнала до выхода процесса
+     */
+    Duration terminate(Duration timeout) throws InterruptedException {
+        long signalled = System.nanoTime();
+        process.destroy();
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Proxy did not stop within " + timeout + ", see " + log);
+        }
+        return Duration.ofNanos(System.nanoTime() - signalled);
+    }
+
+    /**
+     * Resident set size процесса в килобайтах (Linux /proc); пусто на других ОС
+     */
+    Optional<Long> rssKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid()), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Optional.of(Long.parseLong(line.replaceAll("\\D", "")));
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            // Нет /proc
+        }
+        return Optional.empty();
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Обновление без простоя под нагрузкой: второй процесс прокси поднимается на том же порту (SO_REUSEPORT),
+ * первый получает SIGTERM и дренирует. Любой ответ кроме 200, ошибка соединения или незавершённый запрос —
+ * провал (код выхода 1).
+ * <pre>
+ * ./gradlew restartTest -Pload.rate=500 -Pload.duration=30s
+ * </pre>
+ */
+public final class RestartTest {
+
+    private static final Duration DEFAULT_DURATION = Duration.ofSeconds(30);
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+    private static final int DEFAULT_RATE = 500;
+
+    private RestartTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ProxyProcess.Launcher launcher = ProxyProcess.Launcher.jvm(Path.of(System.getProperty("load.jar",
+                "build/quarkus-app/quarkus-run.jar")));
+        Duration duration = Duration.parse("PT" + System.getProperty("load.duration",
+                DEFAULT_DURATION.toSeconds() + "s"));
+        int rate = Integer.parseInt(System.getProperty("load.rate", String.valueOf(DEFAULT_RATE)));
+        List<String> paths = IntStream.range(0, 1000).mapToObj(i -> "/items/" + i).toList();
+
+        LoadResult result;
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try (StubBackend backend = StubBackend.start(
+                StubBackend.Profile.latency(Duration.ofMillis(5), Duration.ofMillis(20), 1024))) {
+            Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("app.backends.urls[0]", backend.url());
+            properties.put("app.rate-limit.enabled", "false");
+            properties.put("app.cache.enabled", "false");
+            properties.put("app.warmup.enabled", "false");
+            properties.put("app.access-log.enabled", "false");
+            properties.put("quarkus.otel.sdk.disabled", "true");
+            properties.put("quarkus.http.so-reuse-port", "true");
+
+            int port = ProxyProcess.freePort();
+            ProxyProcess old = ProxyProcess.start(launcher, properties, Path.of("build/loadtest/restart-old.log"), port);
+            // Замена — через треть измерения: до неё и после неё есть трафик на стабильном процессе
+            ScheduledFuture<ProxyProcess> replacement = scheduler.schedule(
+                    () -> replace(old, launcher, properties, port),
+                    WARMUP.toMillis() + duration.toMillis() / 3, TimeUnit.MILLISECONDS);
+            try (LoadGenerator generator = new LoadGenerator()) {
+                result = generator.run("restart", old.url(), paths, rate, duration, WARMUP);
+            } finally {
+                old.close();
+            }
+            replacement.get().close();
+        } finally {
+            scheduler.shutdownNow();
+        }
+
+        result.print(System.out);
+        long failed = result.timeouts();
+        for (Map.Entry<Integer, Long> status : result.statuses().entrySet()) {
+            if (status.getKey() != 200) {
+                failed += status.getValue();
+            }
+        }
+        System.out.printf("failed requests across restart: %d%n", failed);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Новый процесс начинает слушать порт, после чего старый получает SIGTERM
+     */
+    private static ProxyProcess replace(ProxyProcess old, ProxyProcess.Launcher launcher,
+                                        Map<String, String> properties, int port) throws Exception {
+        ProxyProcess next = ProxyProcess.launch(launcher, properties, Path.of("build/loadtest/restart-new.log"), port);
+        next.awaitLog("Listening on");
+        System.out.println("New proxy listening, sending SIGTERM to the old one");
+        Duration drain = old.terminate(DRAIN_TIMEOUT);
+        System.out.printf("Old proxy drained and exited in %d ms%n", drain.toMillis());
+        return next;
+    }
+}
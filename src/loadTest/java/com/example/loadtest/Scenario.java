@@ -0,0 +1,173 @@
+package com.example.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Сценарии нагрузки: backend-заглушки, конфигурация прокси, пути запросов и частота по умолчанию
+ */
+enum Scenario {
+
+    /**
+     * Горячий набор путей меньше кеша: почти все ответы из кеша, backend видит только промахи
+     */
+    CACHE_HIT(2000) {
+        @Override
+        List<StubBackend.Profile> backends() {
+            return List.of(StubBackend.Profile.latency(Duration.ofMillis(5), Duration.ofMillis(15), 2048),
+                    StubBackend.Profile.latency(Duration.ofMillis(5), Duration.ofMillis(15), 2048));
+        }
+
+        @Override
+        Map<String, String> properties() {
+            return Map.of("app.cache.enabled", "true",
+                    "app.cache.max-size", "1000",
+                    "app.cache.ttl", "60s",
+                    "app.rate-limit.enabled", "false");
+        }
+
+        @Override
+        List<String> paths() {
+            return paths(100);
+        }
+    },
+
+    /**
+     * Один из трёх backend падает через треть прогона: retry и circuit breaker уводят трафик на живые,
+     * затем проверка здоровья исключает упавший
+     */
+    FAILOVER(1000) {
+        @Override
+        List<StubBackend.Profile> backends() {
+            StubBackend.Profile profile = StubBackend.Profile.latency(Duration.ofMillis(5), Duration.ofMillis(20),
+                    1024);
+            return List.of(profile, profile, profile);
+        }
+
+        @Override
+        Map<String, String> properties() {
+            return Map.of("app.cache.enabled", "false",
+                    "app.rate-limit.enabled", "false",
+                    "app.health.interval", "2s");
+        }
+
+        @Override
+        List<String> paths() {
+            return paths(1000);
+        }
+
+        @Override
+        void during(List<StubBackend> backends, Duration duration, ScheduledExecutorService scheduler) {
+            StubBackend victim = backends.get(0);
+            scheduler.schedule(() -> victim.setProfile(backends().get(0).down()),
+                    duration.toMillis() / 3, TimeUnit.MILLISECONDS);
+        }
+    },
+
+    /**
+     * Один клиент шлёт в 5 раз больше лимита: большая часть ответов — 429, они должны быть дешёвыми
+     */
+    RATE_LIMIT(500) {
+        @Override
+        List<StubBackend.Profile> backends() {
+            return List.of(StubBackend.Profile.latency(Duration.ofMillis(2), Duration.ofMillis(2), 512));
+        }
+
+        @Override
+        Map<String, String> properties() {
+            return Map.of("app.cache.enabled", "false",
+                    "app.rate-limit.enabled", "true",
+                    "app.rate-limit.requests-per-minute", "6000");
+        }
+
+        @Override
+        List<String> paths() {
+            return paths(100);
+        }
+    },
+
+    /**
+     * Вдвое больше, чем прокси успевает: 32 запроса в обработке при 50ms backend — около 640 req/s.
+     * Четверть трафика NORMAL, остальное — маршрут /batch с приоритетом low. Admission control должен
+     * отбрасывать LOW, сохраняя латентность принятых запросов (строка admitted в отчёте)
+     */
+    OVERLOAD(1280) {
+        @Override
+        List<StubBackend.Profile> backends() {
+            return List.of(StubBackend.Profile.latency(Duration.ofMillis(50), Duration.ofMillis(50), 1024));
+        }
+
+        @Override
+        Map<String, String> properties() {
+            return Map.of("app.cache.enabled", "false",
+                    "app.rate-limit.enabled", "false",
+                    "quarkus.thread-pool.max-threads", "40",
+                    "app.admission.max-in-flight", "32",
+                    "app.routes[0].prefix", "/batch",
+                    "app.routes[0].pool", "default",
+                    "app.routes[0].priority", "low");
+        }
+
+        @Override
+        List<String> paths() {
+            return IntStream.range(0, 1000).mapToObj(i -> i % 4 == 0 ? "/items/" + i : "/batch/" + i).toList();
+        }
+    };
+
+    private final int defaultRate;
+
+    Scenario(int defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    int defaultRate() {
+        return defaultRate;
+    }
+
+    abstract List<StubBackend.Profile> backends();
+
+    /**
+     * Свойства прокси поверх application.properties; адреса backend добавляются отдельно
+     */
+    abstract Map<String, String> properties();
+
+    abstract List<String> paths();
+
+    /**
+     * Изменения backend по ходу прогона
+     */
+    void during(List<StubBackend> backends, Duration duration, ScheduledExecutorService scheduler) {
+    }
+
+    /**
+     * Полная конфигурация прокси для запущенных backend
+     */
+    Map<String, String> proxyProperties(List<StubBackend> backends) {
+        Map<String, String> properties = new HashMap<>(properties());
+        for (int i = 0; i < backends.size(); i++) {
+            properties.put("app.backends.urls[" + i + "]", backends.get(i).url());
+        }
+        // Прогон офлайн: без экспорта трасс и без прогрева, access log — в файл рядом с логом прокси
+        properties.put("quarkus.otel.sdk.disabled", "true");
+        properties.put("app.warmup.enabled", "false");
+        properties.put("app.access-log.path", "build/loadtest/" + cliName() + "-access.log");
+        return properties;
+    }
+
+    String cliName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    static Scenario fromCli(String name) {
+        return valueOf(name.toUpperCase().replace('-', '_'));
+    }
+
+    private static List<String> paths(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "/items/" + i).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Старт и память прокси в JVM и native: время от запуска процесса до первого проксированного ответа
+ * (медиана из нескольких запусков) и RSS под постоянной нагрузкой.
+ * <pre>
+ * ./gradlew build -Dquarkus.native.enabled=true   # native executable, иначе меряется только JVM
+ * ./gradlew startupBenchmark -Pstartup.runs=5
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final String FIRST_REQUEST = "/items/0";
+    private static final int STEADY_RATE = 500;
+    private static final Duration STEADY_DURATION = Duration.ofSeconds(30);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.parseInt(System.getProperty("startup.runs", "5"));
+        List<ProxyProcess.Launcher> launchers = new ArrayList<>();
+        launchers.add(ProxyProcess.Launcher.jvm(Path.of(System.getProperty("load.jar",
+                "build/quarkus-app/quarkus-run.jar"))));
+        String runner = System.getProperty("startup.native", "");
+        if (!runner.isEmpty() && Files.isExecutable(Path.of(runner))) {
+            launchers.add(ProxyProcess.Launcher.nativeExecutable(Path.of(runner)));
+        } else {
+            System.out.println("No native executable found, measuring JVM mode only "
+                    + "(build one with ./gradlew build -Dquarkus.native.enabled=true)");
+        }
+
+        List<String> report = new ArrayList<>();
+        try (StubBackend backend = StubBackend.start(
+                StubBackend.Profile.latency(Duration.ofMillis(1), Duration.ofMillis(1), 1024))) {
+            Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("app.backends.urls[0]", backend.url());
+            properties.put("app.rate-limit.enabled", "false");
+            properties.put("quarkus.otel.sdk.disabled", "true");
+            properties.put("app.access-log.enabled", "false");
+            for (ProxyProcess.Launcher launcher : launchers) {
+                report.add(measure(launcher, properties, runs));
+            }
+        }
+        System.out.printf("%n%-8s %22s %18s %18s%n", "mode", "first request ms (p50)", "steady RSS MB avg",
+                "steady RSS MB max");
+        report.forEach(System.out::println);
+    }
+
+    private static String measure(ProxyProcess.Launcher launcher, Map<String, String> properties, int runs)
+            throws Exception {
+        Path log = Path.of("build/loadtest/startup-" + launcher.name() + ".log");
+        List<Duration> firstRequest = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            try (ProxyProcess proxy = ProxyProcess.launch(launcher, properties, log)) {
+                firstRequest.add(proxy.awaitStatus(FIRST_REQUEST));
+            }
+        }
+        Collections.sort(firstRequest);
+        Duration median = firstRequest.get(firstRequest.size() / 2);
+        System.out.printf("%s: time to first request %s%n", launcher.name(), firstRequest);
+
+        // RSS снимается раз в секунду во второй половине прогона, когда кеш и пулы уже прогреты
+        LongAdder samples = new LongAdder();
+        LongAdder totalKb = new LongAdder();
+        AtomicLong maxKb = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        try (ProxyProcess proxy = ProxyProcess.start(launcher, properties, log);
+             LoadGenerator generator = new LoadGenerator()) {
+            sampler.scheduleAtFixedRate(() -> proxy.rssKb().ifPresent(kb -> {
+                samples.increment();
+                totalKb.add(kb);
+                maxKb.accumulateAndGet(kb, Math::max);
+            }), STEADY_DURATION.toSeconds() / 2, 1, TimeUnit.SECONDS);
+            List<String> paths = List.of(FIRST_REQUEST, "/items/1", "/items/2", "/items/3");
+            generator.run("steady-" + launcher.name(), proxy.url(), paths, STEADY_RATE, STEADY_DURATION,
+                    Duration.ZERO);
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        Optional<String> average = samples.sum() == 0 ? Optional.empty()
+                : Optional.of("%.1f".formatted(totalKb.sum() / (double) samples.sum() / 1024));
+        return "%-8s %22d %18s %18s".formatted(launcher.name(), median.toMillis(), average.orElse("n/a"),
+                samples.sum() == 0 ? "n/a" : "%.1f".formatted(maxKb.get() / 1024.0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backend-заглушка в том же JVM, что и генератор нагрузки: задержка в диапазоне, доля ошибок 503
+ * и размер ответа задаются профилем, профиль можно сменить на ходу (например, "уронить" backend)
+ */
+final class StubBackend implements AutoCloseable {
+
+    /**
+     * @param minLatency  нижняя граница задержки ответа
+     * @param maxLatency  верхняя граница; задержка равномерна в [min, max]
+     * @param errorRate   доля ответов 503; при 1.0 backend считается упавшим и не проходит проверку здоровья
+     * @param payloadSize размер тела ответа в байтах
+     */
+    record Profile(Duration minLatency, Duration maxLatency, double errorRate, int payloadSize) {
+
+        static Profile latency(Duration min, Duration max, int payloadSize) {
+            return new Profile(min, max, 0.0, payloadSize);
+        }
+
+        Profile down() {
+            return new Profile(minLatency, maxLatency, 1.0, payloadSize);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder requests = new LongAdder();
+    private volatile Profile profile;
+    private volatile byte[] payload;
+
+    private StubBackend(Profile profile) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        setProfile(profile);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    static StubBackend start(Profile profile) throws IOException {
+        return new StubBackend(profile);
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void setProfile(Profile profile) {
+        byte[] body = new byte[profile.payloadSize()];
+        Arrays.fill(body, (byte) 'x');
+        this.payload = body;
+        this.profile = profile;
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            Profile current = profile;
+            if ("/health".equals(exchange.getRequestURI().getPath())) {
+                respond(exchange, current.errorRate() >= 1.0 ? 503 : 200, new byte[0]);
+                return;
+            }
+            requests.increment();
+            sleep(current);
+            boolean error = current.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < current.errorRate();
+            respond(exchange, error ? 503 : 200, error ? new byte[0] : payload);
+        }
+    }
+
+    private static void sleep(Profile profile) {
+        long min = profile.minLatency().toNanos();
+        long max = profile.maxLatency().toNanos();
+        long nanos = max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
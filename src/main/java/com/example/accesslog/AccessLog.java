@@ -0,0 +1,22 @@
+package com.example.accesslog;
+
+public interface AccessLog {
+
+    /**
+     * Записывает одну запись о запросе. Не блокирует и не форматирует на потоке запроса:
+     * при переполнении буфера запись отбрасывается
+     * @param pool          upstream pool или null, если запрос не дошёл до маршрутизации
+     * @param backend       backend, вернувший ответ, или null
+     * @param cacheStatus   значение X-Cache или null
+     * @param durationNanos время обработки запроса прокси
+     * @param attempts      число попыток к backend (0, если запрос до backend не дошёл)
+     * @param reason        причина отказа, пропуска backend или отказа от повтора, null если её нет
+     */
+    void log(String clientIp, String method, String uri, int status, long durationNanos, String pool,
+             String backend, String cacheStatus, int attempts, String reason);
+
+    /**
+     * Число записей, отброшенных из-за переполнения буфера
+     */
+    long dropped();
+}
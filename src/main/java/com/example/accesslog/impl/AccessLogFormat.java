@@ -0,0 +1,106 @@
+package com.example.accesslog.impl;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Форматирование записи в строку: text (в духе combined log nginx) или json (одна запись на строку)
+ */
+enum AccessLogFormat {
+
+    TEXT {
+        @Override
+        void format(AccessLogRecord record, StringBuilder out) {
+            timestamp(record, out);
+            out.append(' ').append(orDash(record.clientIp))
+                    .append(" \"").append(record.method).append(' ').append(record.uri).append("\" ")
+                    .append(record.status).append(' ');
+            millis(record.durationNanos, out);
+            out.append("ms pool=").append(orDash(record.pool))
+                    .append(" backend=").append(orDash(record.backend))
+                    .append(" cache=").append(orDash(record.cacheStatus))
+                    .append(" attempts=").append(record.attempts)
+                    .append(" reason=").append(orDash(record.reason));
+        }
+    },
+
+    JSON {
+        @Override
+        void format(AccessLogRecord record, StringBuilder out) {
+            out.append("{\"ts\":\"");
+            timestamp(record, out);
+            out.append('"');
+            field("client", record.clientIp, out);
+            field("method", record.method, out);
+            field("uri", record.uri, out);
+            out.append(",\"status\":").append(record.status).append(",\"durationMs\":");
+            millis(record.durationNanos, out);
+            field("pool", record.pool, out);
+            field("backend", record.backend, out);
+            field("cache", record.cacheStatus, out);
+            out.append(",\"attempts\":").append(record.attempts);
+            field("reason", record.reason, out);
+            out.append('}');
+        }
+    };
+
+    abstract void format(AccessLogRecord record, StringBuilder out);
+
+    static AccessLogFormat of(String name) {
+        return switch (name.toLowerCase()) {
+            case "text" -> TEXT;
+            case "json" -> JSON;
+            default -> throw new IllegalArgumentException("Unknown access log format: " + name);
+        };
+    }
+
+    private static void timestamp(AccessLogRecord record, StringBuilder out) {
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(record.timestampMillis), out);
+    }
+
+    /**
+     * Миллисекунды с тремя знаками после точки, без double и String.format
+     */
+    private static void millis(long nanos, StringBuilder out) {
+        long micros = nanos / 1_000;
+        out.append(micros / 1_000).append('.');
+        long fraction = micros % 1_000;
+        if (fraction < 100) {
+            out.append('0');
+        }
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    private static String orDash(String value) {
+        return value == null ? "-" : value;
+    }
+
+    private static void field(String name, String value, StringBuilder out) {
+        if (value == null) {
+            return;
+        }
+        out.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00");
+                        out.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
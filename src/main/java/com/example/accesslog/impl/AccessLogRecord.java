@@ -0,0 +1,50 @@
+package com.example.accesslog.impl;
+
+/**
+ * Слот кольцевого буфера. Слоты создаются один раз и переиспользуются: запись в журнал не аллоцирует.
+ * sequence публикует заполненный слот читателю — поля пишутся до неё, читаются после
+ */
+final class AccessLogRecord {
+
+    volatile long sequence = -1;
+
+    long timestampMillis;
+    String clientIp;
+    String method;
+    String uri;
+    int status;
+    long durationNanos;
+    String pool;
+    String backend;
+    String cacheStatus;
+    int attempts;
+    String reason;
+
+    void set(long timestampMillis, String clientIp, String method, String uri, int status, long durationNanos,
+             String pool, String backend, String cacheStatus, int attempts, String reason) {
+        this.timestampMillis = timestampMillis;
+        this.clientIp = clientIp;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.durationNanos = durationNanos;
+        this.pool = pool;
+        this.backend = backend;
+        this.cacheStatus = cacheStatus;
+        this.attempts = attempts;
+        this.reason = reason;
+    }
+
+    /**
+     * Отпускает ссылки на строки запроса, чтобы слот не удерживал их до следующего круга
+     */
+    void clear() {
+        clientIp = null;
+        method = null;
+        uri = null;
+        pool = null;
+        backend = null;
+        cacheStatus = null;
+        reason = null;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.accesslog.impl;
+
+import com.example.accesslog.AccessLog;
+import com.example.config.AppConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Access log через кольцевой буфер без блокировок: потоки запросов только заполняют предсозданный слот,
+ * форматирование и запись пачками делает один фоновый поток. Если писатель не успевает и буфер полон,
+ * запись отбрасывается — запрос никогда не ждёт диск
+ */
+@ApplicationScoped
+public class RingBufferAccessLog implements AccessLog {
+
+    private static final Logger LOG = Logger.getLogger(RingBufferAccessLog.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry registry;
+
+    private boolean enabled;
+    private double sampleRate;
+    private int batchSize;
+    private AccessLogFormat format;
+    private Sink sink;
+
+    private AccessLogRecord[] records;
+    private int mask;
+
+    // head — следующий номер для писателей запросов, tail — следующий номер для фонового потока
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    private final StringBuilder line = new StringBuilder(256);
+    private volatile boolean running;
+    private Thread writer;
+
+    public RingBufferAccessLog() {
+    }
+
+    /**
+     * Журнал с заданным приёмником строк; фоновый поток запускает start()
+     */
+    RingBufferAccessLog(int bufferSize, int batchSize, double sampleRate, AccessLogFormat format, Sink sink) {
+        configure(true, bufferSize, batchSize, sampleRate, format, sink);
+    }
+
+    @PostConstruct
+    void init() {
+        AppConfig.AccessLog config = appConfig.accessLog();
+        Sink sink = config.path().map(RingBufferAccessLog::fileSink).orElseGet(RingBufferAccessLog::loggerSink);
+        configure(config.enabled(), config.bufferSize(), config.batchSize(), config.sampleRate(),
+                AccessLogFormat.of(config.format()), sink);
+        FunctionCounter.builder("proxy.access.log.dropped", dropped, LongAdder::doubleValue)
+                .description("Access log records dropped because the buffer was full")
+                .register(registry);
+        if (enabled) {
+            start();
+        }
+    }
+
+    private void configure(boolean enabled, int bufferSize, int batchSize, double sampleRate,
+                           AccessLogFormat format, Sink sink) {
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Access log buffer size must be a power of two: " + bufferSize);
+        }
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.sampleRate = sampleRate;
+        this.format = format;
+        this.sink = sink;
+        this.records = new AccessLogRecord[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            records[i] = new AccessLogRecord();
+        }
+        this.mask = bufferSize - 1;
+    }
+
+    void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("access-log-writer").daemon().start(this::run);
+    }
+
+    /**
+     * Останавливает фоновый поток, дописав всё, что уже в буфере
+     */
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            LOG.warnf("Failed to close access log: %s", e.getMessage());
+        }
+    }
+
+    @Override
+    public void log(String clientIp, String method, String uri, int status, long durationNanos, String pool,
+                    String backend, String cacheStatus, int attempts, String reason) {
+        if (!enabled) {
+            return;
+        }
+        if (status < 400 && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        // Занимаем номер слота; слот, который фоновый поток ещё не прочитал, не перезаписываем
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail.get() >= records.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        AccessLogRecord record = records[(int) sequence & mask];
+        record.set(System.currentTimeMillis(), clientIp, method, uri, status, durationNanos, pool, backend,
+                cacheStatus, attempts, reason);
+        record.sequence = sequence;
+    }
+
+    @Override
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private void run() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (drain() > 0) {
+            // Дописываем остаток буфера при остановке
+        }
+    }
+
+    /**
+     * Форматирует и пишет до batchSize опубликованных записей, затем сбрасывает приёмник один раз
+     * @return число записанных записей
+     */
+    int drain() {
+        long next = tail.get();
+        int count = 0;
+        try {
+            while (count < batchSize) {
+                AccessLogRecord record = records[(int) next & mask];
+                // Номер занят, но слот ещё заполняется — остальное подождёт следующего прохода
+                if (record.sequence != next) {
+                    break;
+                }
+                line.setLength(0);
+                format.format(record, line);
+                record.clear();
+                tail.lazySet(++next);
+                count++;
+                sink.write(line);
+            }
+            if (count > 0) {
+                sink.flush();
+            }
+        } catch (IOException e) {
+            LOG.warnf("Failed to write access log: %s", e.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * Приёмник отформатированных строк; вызывается только фоновым потоком
+     */
+    interface Sink {
+        void write(CharSequence line) throws IOException;
+
+        void flush() throws IOException;
+
+        default void close() throws IOException {
+        }
+    }
+
+    private static Sink loggerSink() {
+        Logger access = Logger.getLogger("access");
+        return new Sink() {
+            @Override
+            public void write(CharSequence line) {
+                access.info(line.toString());
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+    }
+
+    private static Sink fileSink(String path) {
+        try {
+            Path file = Path.of(path);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            return new Sink() {
+                @Override
+                public void write(CharSequence line) throws IOException {
+                    out.append(line).append('\n');
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.close();
+                }
+            };
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open access log " + path, e);
+        }
+    }
+}
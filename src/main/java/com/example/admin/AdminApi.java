@@ -0,0 +1,18 @@
+package com.example.admin;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ресурс admin API: запросы к нему проходят AdminAuthFilter. Привязка по аннотации, а не по пути —
+ * новый admin ресурс не останется открытым из-за другого написания пути
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface AdminApi {
+}
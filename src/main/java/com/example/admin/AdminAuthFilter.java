@@ -0,0 +1,67 @@
+package com.example.admin;
+
+import com.example.config.AppConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.logging.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Доступ к ресурсам @AdminApi (/admin/*) только с заголовком Authorization: Bearer {app.admin.token}. Admin API слушает тот же порт,
+ * что и проксируемый трафик, и умеет перенаправить его на любой адрес, поэтому без токена он закрыт целиком
+ */
+@Provider
+@AdminApi
+public class AdminAuthFilter implements ContainerRequestFilter {
+
+    private static final Logger LOG = Logger.getLogger(AdminAuthFilter.class);
+
+    private static final String BEARER = "Bearer ";
+
+    @Inject
+    AppConfig config;
+
+    private byte[] token;
+
+    @PostConstruct
+    void init() {
+        token = config.admin().token()
+                .filter(value -> !value.isBlank())
+                .map(value -> value.getBytes(StandardCharsets.UTF_8))
+                .orElse(null);
+        if (token == null) {
+            LOG.warn("app.admin.token is not set: /admin API is disabled");
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (!authorized(request.getHeaderString(HttpHeaders.AUTHORIZATION))) {
+            request.abortWith(Response.status(Response.Status.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(Map.of("error", "Admin token required"))
+                    .build());
+        }
+    }
+
+    /**
+     * Сравнение за постоянное время: по длительности отказа нельзя подобрать токен посимвольно
+     */
+    private boolean authorized(String header) {
+        if (token == null || header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return false;
+        }
+        byte[] presented = header.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(token, presented);
+    }
+}
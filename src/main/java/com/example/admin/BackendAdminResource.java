@@ -0,0 +1,153 @@
+package com.example.admin;
+
+import com.example.config.RuntimeConfigService;
+import com.example.config.RuntimeSettings;
+import com.example.health.impl.ScheduledHealthCheckService;
+import com.example.metrics.ProxyMetrics;
+import com.example.routing.UpstreamPool;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Backend во время работы: добавление и удаление (через RuntimeConfigService, как любая перезагрузка настроек)
+ * и дренаж. Порядок вывода backend из работы: drain, дождаться inFlight = 0, delete
+ */
+@AdminApi
+@Path("/admin/backends")
+@Produces(MediaType.APPLICATION_JSON)
+public class BackendAdminResource {
+
+    private static final Logger LOG = Logger.getLogger(BackendAdminResource.class);
+
+    @Inject
+    RuntimeConfigService runtimeConfig;
+
+    @Inject
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    @Inject
+    ProxyMetrics metrics;
+
+    /**
+     * Backend всех пулов
+     */
+    @GET
+    public List<BackendStatus> list() {
+        RuntimeSettings settings = runtimeConfig.current();
+        Map<String, List<String>> pools = new TreeMap<>();
+        pools.put(UpstreamPool.DEFAULT, settings.backends());
+        settings.pools().forEach((name, pool) -> pools.put(name, pool.urls()));
+
+        Set<String> draining = scheduledHealthCheckService.getDraining();
+        List<BackendStatus> backends = new ArrayList<>();
+        pools.forEach((pool, urls) -> urls.forEach(url -> backends.add(new BackendStatus(pool, url,
+                scheduledHealthCheckService.isHealthy(url), draining.contains(url), metrics.inFlight(url)))));
+        return backends;
+    }
+
+    /**
+     * Добавляет backend в пул; он начинает получать запросы после успешной проверки здоровья
+     */
+    @POST
+    public Response add(@QueryParam("pool") @DefaultValue(UpstreamPool.DEFAULT) String pool,
+                        @QueryParam("url") String url) {
+        return change(pool, url, true);
+    }
+
+    /**
+     * Удаляет backend из пула; начатые запросы к нему дорабатывают. Последний backend пула удалить нельзя
+     */
+    @DELETE
+    public Response remove(@QueryParam("pool") @DefaultValue(UpstreamPool.DEFAULT) String pool,
+                           @QueryParam("url") String url) {
+        return change(pool, url, false);
+    }
+
+    /**
+     * Выводит backend из балансировки во всех пулах, не прерывая начатые запросы
+     */
+    @POST
+    @Path("/drain")
+    public Response drain(@QueryParam("url") String url) {
+        if (!isKnown(url)) {
+            return unknown(url);
+        }
+        scheduledHealthCheckService.drain(url);
+        LOG.infof("Backend %s draining", url);
+        return Response.ok(status(url)).build();
+    }
+
+    /**
+     * Возвращает дренируемый backend в балансировку
+     */
+    @DELETE
+    @Path("/drain")
+    public Response undrain(@QueryParam("url") String url) {
+        if (!isKnown(url)) {
+            return unknown(url);
+        }
+        scheduledHealthCheckService.undrain(url);
+        LOG.infof("Backend %s back in rotation", url);
+        return Response.ok(status(url)).build();
+    }
+
+    private Response change(String pool, String url, boolean add) {
+        if (url == null) {
+            return error(Response.Status.BAD_REQUEST, "'url' is required");
+        }
+        List<String> urls = runtimeConfig.current().urls(pool);
+        if (urls == null) {
+            return error(Response.Status.NOT_FOUND, "Unknown pool " + pool);
+        }
+        if (!add && !urls.contains(url)) {
+            return unknown(url);
+        }
+        try {
+            runtimeConfig.update(settings -> {
+                // Пул мог исчезнуть после проверки выше: withUrls отклонит изменение
+                List<String> changed = new ArrayList<>(Objects.requireNonNullElse(settings.urls(pool), List.of()));
+                changed.remove(url);
+                if (add) {
+                    changed.add(url);
+                }
+                return settings.withUrls(pool, changed);
+            });
+        } catch (IllegalArgumentException e) {
+            return error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
+        LOG.infof("Backend %s %s pool %s", url, add ? "added to" : "removed from", pool);
+        return Response.ok(list()).build();
+    }
+
+    private boolean isKnown(String url) {
+        return url != null && list().stream().anyMatch(backend -> backend.url().equals(url));
+    }
+
+    private List<BackendStatus> status(String url) {
+        return list().stream().filter(backend -> backend.url().equals(url)).toList();
+    }
+
+    private static Response unknown(String url) {
+        return error(Response.Status.NOT_FOUND, "Unknown backend " + url);
+    }
+
+    private static Response error(Response.Status status, String message) {
+        return Response.status(status).entity(Map.of("error", message)).build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.admin;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Состояние backend в пуле
+ * @param inFlight попытки к backend, которые сейчас в полёте: 0 у дренируемого — его можно удалять
+ */
+@RegisterForReflection
+public record BackendStatus(String pool, String url, boolean healthy, boolean draining, int inFlight) {
+}
@@ -0,0 +1,94 @@
+package com.example.admin;
+
+import com.example.cache.CacheStats;
+import com.example.cache.ResponseCache;
+import com.example.routing.RouteRegistry;
+import com.example.routing.UpstreamPool;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Административное управление кешем. Префикс /admin исключён из catch-all проксирования;
+ * доступ — по токену app.admin.token (AdminAuthFilter)
+ */
+@AdminApi
+@Path("/admin/cache")
+@Produces(MediaType.APPLICATION_JSON)
+public class CacheAdminResource {
+
+    private static final Logger LOG = Logger.getLogger(CacheAdminResource.class);
+
+    @Inject
+    RouteRegistry routeRegistry;
+
+    /**
+     * Статистика кеша каждого upstream pool с включённым кешем
+     * @param top сколько самых запрашиваемых ключей вернуть
+     */
+    @GET
+    @Path("/stats")
+    public Map<String, CacheStats> stats(@QueryParam("top") @DefaultValue("10") int top) {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        for (UpstreamPool pool : routeRegistry.pools().values()) {
+            if (pool.cacheEnabled()) {
+                stats.put(pool.name(), pool.cache().stats(Math.max(0, top)));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Очищает записи по тегу (Surrogate-Key / Cache-Tag) или префиксу пути — ровно один из параметров
+     * @param pool имя upstream pool; без него очищаются все пулы
+     */
+    @POST
+    @Path("/purge")
+    public Response purge(@QueryParam("tag") String tag, @QueryParam("prefix") String prefix,
+                          @QueryParam("pool") String pool) {
+        if ((tag == null) == (prefix == null)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Exactly one of 'tag' or 'prefix' is required"))
+                    .build();
+        }
+        Collection<UpstreamPool> targets;
+        if (pool == null) {
+            targets = routeRegistry.pools().values();
+        } else if (routeRegistry.pools().containsKey(pool)) {
+            targets = List.of(routeRegistry.pools().get(pool));
+        } else {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(Map.of("error", "Unknown pool " + pool))
+                    .build();
+        }
+
+        ToIntFunction<ResponseCache> purge = tag != null
+                ? cache -> cache.evictTag(tag)
+                : cache -> cache.evictPrefix(prefix);
+        Map<String, Integer> purged = new TreeMap<>();
+        int total = 0;
+        for (UpstreamPool target : targets) {
+            if (!target.cacheEnabled()) {
+                continue;
+            }
+            int count = purge.applyAsInt(target.cache());
+            purged.put(target.name(), count);
+            total += count;
+        }
+        LOG.infof("Cache purge %s=%s: %d entries", tag != null ? "tag" : "prefix", tag != null ? tag : prefix, total);
+        return Response.ok(new PurgeResult(total, purged)).build();
+    }
+}
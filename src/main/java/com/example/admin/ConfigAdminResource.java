@@ -0,0 +1,53 @@
+package com.example.admin;
+
+import com.example.config.RuntimeConfigService;
+import com.example.config.RuntimeSettings;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.Map;
+
+/**
+ * Перезагрузка backend, пулов, маршрутов и политик без рестарта (см. RuntimeSettings)
+ */
+@AdminApi
+@Path("/admin/config")
+@Produces(MediaType.APPLICATION_JSON)
+public class ConfigAdminResource {
+
+    @Inject
+    RuntimeConfigService runtimeConfig;
+
+    /**
+     * Действующие настройки
+     */
+    @GET
+    public RuntimeSettings current() {
+        return runtimeConfig.current();
+    }
+
+    /**
+     * Применяет документ изменений поверх application.properties; пустой документ {} возвращает исходные настройки.
+     * Некорректный документ отклоняется целиком
+     */
+    @PUT
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response apply(RuntimeSettings changes) {
+        if (changes == null) {
+            changes = RuntimeSettings.EMPTY;
+        }
+        try {
+            return Response.ok(runtimeConfig.apply(changes)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", e.getMessage()))
+                    .build();
+        }
+    }
+}
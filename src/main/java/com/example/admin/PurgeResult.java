@@ -0,0 +1,12 @@
+package com.example.admin;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.util.Map;
+
+/**
+ * Результат очистки кеша: сколько записей удалено всего и в каждом upstream pool
+ */
+@RegisterForReflection
+public record PurgeResult(int purged, Map<String, Integer> pools) {
+}
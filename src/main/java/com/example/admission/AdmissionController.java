@@ -0,0 +1,37 @@
+package com.example.admission;
+
+/**
+ * Защита самого прокси от перегрузки: решает, принять ли запрос, по числу запросов в обработке
+ * и времени ожидания worker потока. Отказ дешёвый (503 без обращения к backend), поэтому принятые
+ * запросы обслуживаются с прежней латентностью, а служебные эндпоинты (/q, /admin) остаются отзывчивыми
+ */
+public interface AdmissionController {
+
+    /**
+     * Занимает место в обработке до постановки в очередь worker пула
+     * @return false — запрос нужно отклонить; release() в этом случае не вызывается
+     */
+    boolean tryAcquire(PriorityClass priority);
+
+    /**
+     * Запрос дождался worker потока
+     * @param queuedNanos сколько он ждал в очереди
+     * @return false — ожидание слишком долгое, запрос нужно отклонить (место всё равно освобождается release())
+     */
+    boolean onStart(PriorityClass priority, long queuedNanos);
+
+    /**
+     * Освобождает место, занятое tryAcquire
+     */
+    void release();
+
+    /**
+     * Запросов в обработке
+     */
+    int inFlight();
+
+    /**
+     * Сглаженное время ожидания worker потока в наносекундах
+     */
+    long queueDelayNanos();
+}
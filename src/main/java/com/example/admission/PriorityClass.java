@@ -0,0 +1,30 @@
+package com.example.admission;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+/**
+ * Класс приоритета запроса при перегрузке прокси: LOW отбрасывается первым, HIGH — последним
+ */
+public enum PriorityClass {
+    HIGH,
+    NORMAL,
+    LOW;
+
+    /**
+     * Значение маршрута или заголовка без учёта регистра
+     * @throws IllegalArgumentException если значение не high, normal или low
+     */
+    @JsonCreator
+    public static PriorityClass parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Более низкий из двух приоритетов
+     */
+    public PriorityClass lower(PriorityClass other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.admission.impl;
+
+import com.example.admission.AdmissionController;
+import com.example.admission.PriorityClass;
+import com.example.config.AppConfig;
+import com.example.metrics.ProxyMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control по двум сигналам. Число запросов в обработке ограничено по классам: LOW занимает
+ * не больше половины app.admission.max-in-flight, NORMAL — 90%, HIGH — всё; запас оставляет worker потоки
+ * для HIGH и служебных эндпоинтов. Время ожидания worker потока (EWMA) показывает нехватку CPU раньше,
+ * чем упрётся лимит: выше target-queue-delay отклоняется LOW, выше двух target — и NORMAL.
+ * Запрос, прождавший в очереди дольше max-queue-delay, отклоняется уже на worker потоке, кроме HIGH
+ */
+@ApplicationScoped
+public class QueueDelayAdmissionController implements AdmissionController {
+
+    private static final double LOW_SHARE = 0.5;
+    private static final double NORMAL_SHARE = 0.9;
+
+    // Вес нового замера в EWMA: 1/8
+    private static final int EWMA_SHIFT = 3;
+
+    // Замер старше этого не учитывается: если отклоняется всё, кроме HIGH, новых замеров может не быть,
+    // и без устаревания прокси так и отклонял бы LOW и NORMAL после окончания перегрузки
+    private static final long STALE_NANOS = Duration.ofSeconds(1).toNanos();
+
+    @Inject
+    AppConfig config;
+
+    @Inject
+    ProxyMetrics metrics;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private LongSupplier clock = System::nanoTime;
+    private boolean enabled;
+    private int[] limits;
+    private long targetQueueDelayNanos;
+    private long maxQueueDelayNanos;
+
+    // Гонки записи допустимы: потерянный замер лишь немного смещает оценку
+    private volatile long queueDelayNanos;
+    private volatile long sampledAt;
+
+    public QueueDelayAdmissionController() {
+    }
+
+    QueueDelayAdmissionController(int maxInFlight, Duration targetQueueDelay, Duration maxQueueDelay,
+                                  LongSupplier clock) {
+        this.clock = clock;
+        configure(true, maxInFlight, targetQueueDelay, maxQueueDelay);
+    }
+
+    @PostConstruct
+    void init() {
+        AppConfig.Admission admission = config.admission();
+        configure(admission.enabled(), admission.maxInFlight(), admission.targetQueueDelay(),
+                admission.maxQueueDelay());
+        metrics.admission(this::inFlight, this::queueDelayNanos);
+    }
+
+    private void configure(boolean enabled, int maxInFlight, Duration targetQueueDelay, Duration maxQueueDelay) {
+        this.enabled = enabled;
+        this.limits = new int[PriorityClass.values().length];
+        limits[PriorityClass.HIGH.ordinal()] = maxInFlight;
+        limits[PriorityClass.NORMAL.ordinal()] = Math.max(1, (int) (maxInFlight * NORMAL_SHARE));
+        limits[PriorityClass.LOW.ordinal()] = Math.max(1, (int) (maxInFlight * LOW_SHARE));
+        this.targetQueueDelayNanos = targetQueueDelay.toNanos();
+        this.maxQueueDelayNanos = maxQueueDelay.toNanos();
+        this.sampledAt = clock.getAsLong();
+    }
+
+    @Override
+    public boolean tryAcquire(PriorityClass priority) {
+        if (!enabled) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+        if (priority != PriorityClass.HIGH && queueDelayNanos() > delayThreshold(priority)) {
+            return false;
+        }
+        int limit = limits[priority.ordinal()];
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean onStart(PriorityClass priority, long queuedNanos) {
+        // Устаревшая оценка не смешивается с новым замером
+        long delay = queueDelayNanos();
+        queueDelayNanos = delay + ((queuedNanos - delay) >> EWMA_SHIFT);
+        sampledAt = clock.getAsLong();
+        return !enabled || priority == PriorityClass.HIGH || queuedNanos <= maxQueueDelayNanos;
+    }
+
+    @Override
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public long queueDelayNanos() {
+        return clock.getAsLong() - sampledAt > STALE_NANOS ? 0 : queueDelayNanos;
+    }
+
+    private long delayThreshold(PriorityClass priority) {
+        return priority == PriorityClass.LOW ? targetQueueDelayNanos : 2 * targetQueueDelayNanos;
+    }
+}
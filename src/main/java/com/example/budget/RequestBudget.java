@@ -0,0 +1,63 @@
+package com.example.budget;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бюджет дополнительной нагрузки на backend (хеджи, ретраи) в виде token bucket:
+ * каждый обычный запрос пополняет бюджет на ratio токена, каждый дополнительный запрос тратит один токен.
+ * Так доля дополнительных запросов не превышает ratio от общего потока
+ */
+public class RequestBudget {
+
+    // Токены храним в тысячных долях, чтобы обойтись одним AtomicLong без блокировок
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio    доля дополнительных запросов (например 0.05 = 5%)
+     * @param capacity максимальный запас токенов, он же стартовый
+     */
+    public RequestBudget(double ratio, int capacity) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.capacity = capacity * SCALE;
+        this.balance = new AtomicLong(this.capacity);
+    }
+
+    /**
+     * Пополняет бюджет за один обычный запрос
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + depositPerRequest)));
+    }
+
+    /**
+     * Пытается потратить один токен на дополнительный запрос
+     * @return true если бюджет позволяет
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Текущий запас целых токенов
+     */
+    public long available() {
+        return balance.get() / SCALE;
+    }
+}
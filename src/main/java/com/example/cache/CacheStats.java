@@ -0,0 +1,32 @@
+package com.example.cache;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.util.List;
+
+/**
+ * Снимок статистики кеша для подбора max-size и ttl
+ * @param entries      записей в памяти
+ * @param hits         попадания (включая поднятые с диска)
+ * @param misses       промахи
+ * @param hitRate      доля попаданий от всех обращений
+ * @param diskHits     попадания, поднятые с дискового уровня
+ * @param sizeEvictions вытеснения из-за размера (с переносом на диск, если он включён)
+ * @param invalidations удаления по запросу: unsafe методы, purge, clear
+ * @param expirations  удаления по TTL
+ * @param bytesStored  объём тел в памяти: сжатые — в байтах, несжатые — в символах
+ * @param loads        загрузки с backend после промаха
+ * @param averageLoadMillis среднее время загрузки
+ * @param hotKeys      самые запрашиваемые ключи по оценке count-min sketch
+ */
+@RegisterForReflection(targets = {CacheStats.class, CacheStats.HotKey.class})
+public record CacheStats(long entries, long hits, long misses, double hitRate, long diskHits,
+                         long sizeEvictions, long invalidations, long expirations, long bytesStored,
+                         long loads, double averageLoadMillis, List<HotKey> hotKeys) {
+
+    /**
+     * @param estimatedHits оценка числа обращений сверху (count-min, с выборкой и старением)
+     */
+    public record HotKey(String key, long estimatedHits) {
+    }
+}
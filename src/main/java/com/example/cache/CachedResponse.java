@@ -1,13 +1,17 @@
 package com.example.cache;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.vertx.core.MultiMap;
+
 import java.time.Instant;
-import java.util.Map;
 
+@RegisterForReflection
 public class CachedResponse {
 
     private String body;
+    private byte[] compressedBody;
     private int statusCode;
-    private Map<String, String> headers;
+    private MultiMap headers;
     private Instant cachedAt;
 
     public Instant getCachedAt() {
@@ -18,11 +22,11 @@ public class CachedResponse {
         this.cachedAt = cachedAt;
     }
 
-    public Map<String, String> getHeaders() {
+    public MultiMap getHeaders() {
         return headers;
     }
 
-    public void setHeaders(Map<String, String> headers) {
+    public void setHeaders(MultiMap headers) {
         this.headers = headers;
     }
 
@@ -41,4 +45,15 @@ public class CachedResponse {
     public void setBody(String body) {
         this.body = body;
     }
+
+    /**
+     * Тело в gzip, если ответ сжимаемый; тогда body не хранится, чтобы не держать в памяти обе копии
+     */
+    public byte[] getCompressedBody() {
+        return compressedBody;
+    }
+
+    public void setCompressedBody(byte[] compressedBody) {
+        this.compressedBody = compressedBody;
+    }
 }
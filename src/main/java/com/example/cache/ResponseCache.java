@@ -23,8 +23,46 @@ public interface ResponseCache {
      */
     void evict(String key);
 
+    /**
+     * Удалить все варианты пути: сам путь и его версии с любой query string
+     * @param path путь без query
+     * @return число удалённых записей
+     */
+    int evictPath(String path);
+
+    /**
+     * Удалить записи, путь которых начинается с префикса (по границе сегмента)
+     * @param prefix префикс пути, например /users
+     * @return число удалённых записей
+     */
+    int evictPrefix(String prefix);
+
+    /**
+     * Удалить записи с тегом из заголовков backend Surrogate-Key или Cache-Tag
+     * @param tag тег
+     * @return число удалённых записей
+     */
+    int evictTag(String tag);
+
     /**
      * Очистить весь кеш
      */
     void clear();
+
+    /**
+     * Удалить истёкшие записи, даже если их больше никто не читает; вызывается планировщиком раз в секунду
+     */
+    void expireEntries();
+
+    /**
+     * Учесть загрузку ответа с backend после промаха
+     * @param nanos длительность загрузки
+     */
+    void recordLoad(long nanos);
+
+    /**
+     * Снимок статистики
+     * @param topKeys сколько самых запрашиваемых ключей включить
+     */
+    CacheStats stats(int topKeys);
 }
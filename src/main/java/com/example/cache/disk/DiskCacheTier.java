@@ -0,0 +1,509 @@
+package com.example.cache.disk;
+
+import com.example.cache.CachedResponse;
+import com.example.config.AppConfig;
+import io.quarkus.runtime.Startup;
+import io.vertx.core.MultiMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Второй уровень кеша на локальном диске: append-only лог сегментов и memory-mapped хеш-индекс.
+ * Записи, вытесненные из памяти, дописываются в активный сегмент; закрытые сегменты читаются через mmap.
+ * Место ограничено: при превышении лимита удаляется самый старый сегмент целиком.
+ * Индекс переживает рестарт, поэтому прокси поднимается с тёплым кешем.
+ * Рядом с каждым сегментом лежит компактный keys-файл (ключ, смещение, теговые заголовки):
+ * по нему при старте восстанавливается индекс инвалидации, не читая тела ответов.
+ * <p>
+ * Блокировки: писатели выстраиваются в очередь на appendLock и дописывают активный сегмент без общей блокировки;
+ * write lock берётся только на короткое обновление индекса и списка сегментов. Читатели под read lock
+ * лишь находят запись и берут срез закрытого сегмента, а CRC и разбор выполняют уже без блокировки,
+ * поэтому чтения из закрытых сегментов не конкурируют ни друг с другом, ни с дозаписью
+ */
+@Startup
+@ApplicationScoped
+public class DiskCacheTier {
+
+    private static final Logger LOG = Logger.getLogger(DiskCacheTier.class);
+
+    private static final String INDEX_FILE = "index.bin";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String KEYS_PREFIX = "keys-";
+    private static final String KEYS_SUFFIX = ".bin";
+
+    /**
+     * Заголовки, из которых InvalidationIndex строит теги; только они попадают в keys-файл
+     */
+    private static final List<String> TAG_HEADERS = List.of("Surrogate-Key", "Cache-Tag");
+
+    @Inject
+    AppConfig appConfig;
+
+    private Path directory;
+    private long maxBytes;
+    private long segmentBytes;
+    private HashIndex index;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Segment active;
+    private volatile boolean open;
+    // Индекс заполнен: предупреждение пишется один раз до clear(). Под appendLock
+    private boolean indexFullReported;
+
+    @PostConstruct
+    void init() {
+        AppConfig.Cache.Disk disk = appConfig.cache().disk();
+        if (disk.enabled()) {
+            open(Path.of(disk.path()), disk.maxSize().asLongValue(), disk.segmentSize().asLongValue(),
+                    disk.indexSlots());
+        }
+    }
+
+    /**
+     * Открывает хранилище в каталоге, подхватывая индекс и сегменты предыдущего запуска
+     */
+    public void open(Path directory, long maxBytes, long segmentBytes, int indexSlots) {
+        appendLock.lock();
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            this.directory = directory;
+            this.maxBytes = maxBytes;
+            this.segmentBytes = segmentBytes;
+            this.index = HashIndex.open(directory.resolve(INDEX_FILE), indexSlots);
+
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Integer id = segmentId(file);
+                    if (id == null) {
+                        continue;
+                    }
+                    if (id < index.minSegment() || (Files.size(file) > 0 && !Files.exists(keysFile(id)))) {
+                        // Устаревший сегмент или сегмент без keys-файла, записи которого не найти по тегу
+                        Files.deleteIfExists(file);
+                        Files.deleteIfExists(keysFile(id));
+                    } else {
+                        segments.put(id, Segment.open(file, keysFile(id), id));
+                    }
+                }
+            }
+            if (segments.isEmpty()) {
+                active = createSegment(index.minSegment());
+            } else {
+                active = segments.lastEntry().getValue();
+                active.truncateKeys();
+                segments.headMap(active.id).values().forEach(Segment::seal);
+            }
+            open = true;
+            LOG.infof("Disk cache opened at %s: %d segments, %d bytes", directory, segments.size(), totalBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open disk cache at " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+            appendLock.unlock();
+        }
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * @param ttl время жизни записи; устаревшая запись удаляется из индекса
+     */
+    public Optional<CachedResponse> get(String key, Duration ttl) {
+        long hash = hash(key);
+        int segmentId;
+        int offset;
+        ByteBuffer record;
+        lock.readLock().lock();
+        try {
+            if (!open) {
+                return Optional.empty();
+            }
+            int slot = index.find(hash);
+            if (slot < 0) {
+                return Optional.empty();
+            }
+            segmentId = index.segment(slot);
+            offset = index.offset(slot);
+            Segment segment = segments.get(segmentId);
+            // Срез mmap остаётся валидным и после удаления сегмента, поэтому разбирается уже без блокировки
+            record = segment == null ? null : segment.read(offset, index.length(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+        CachedResponse response = record == null ? null : RecordCodec.decode(record, key);
+        if (response == null) {
+            // Сегмент удалён, запись повреждена или принадлежит другому ключу с тем же хешем
+            removeStale(hash, segmentId, offset);
+            return Optional.empty();
+        }
+        if (Duration.between(response.getCachedAt(), Instant.now()).compareTo(ttl) >= 0) {
+            removeStale(hash, segmentId, offset);
+            return Optional.empty();
+        }
+        return Optional.of(response);
+    }
+
+    /**
+     * Дописывает запись в активный сегмент
+     */
+    public void put(String key, CachedResponse response) {
+        if (!open) {
+            return;
+        }
+        ByteBuffer record = RecordCodec.encode(key, response);
+        appendLock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            if (active.size > 0 && active.size + record.remaining() > segmentBytes) {
+                active.seal();
+                lock.writeLock().lock();
+                try {
+                    active = createSegment(active.id + 1);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            // Слоты занимает только дописывающий поток, поэтому место, найденное до записи, никуда не денется
+            long hash = hash(key);
+            if (!hasRoom(hash)) {
+                if (!indexFullReported) {
+                    indexFullReported = true;
+                    LOG.warnf("Disk cache index is full (%d slots), new entries are not stored until slots free up",
+                            index.slots());
+                }
+                return;
+            }
+            int offset = (int) active.size;
+            int length = record.remaining();
+            // Дозапись идёт за пределами опубликованных в индексе записей, читателей она не задевает
+            active.append(record);
+            active.appendKey(RecordCodec.encodeKey(key, offset, tagHeaders(response)));
+            lock.writeLock().lock();
+            try {
+                index.put(hash, active.id, offset, length);
+                evictOldSegments();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            LOG.errorf(e, "Failed to write %s to disk cache", key);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private boolean hasRoom(long hash) {
+        lock.readLock().lock();
+        try {
+            return index.hasRoom(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Обходит ключи живых записей с их теговыми заголовками. Читаются только keys-файлы,
+     * поэтому стоимость пропорциональна числу записей, а не объёму тел на диске
+     */
+    public void forEachKey(BiConsumer<String, MultiMap> action) {
+        appendLock.lock();
+        lock.readLock().lock();
+        try {
+            if (!open) {
+                return;
+            }
+            for (Segment segment : segments.values()) {
+                RecordCodec.decodeKeys(segment.readKeys(), (key, offset, tagHeaders) -> {
+                    // Ключ мог быть перезаписан позже или удалён: живой считается только запись, на которую указывает индекс
+                    int slot = index.find(hash(key));
+                    if (slot >= 0 && index.segment(slot) == segment.id && index.offset(slot) == offset) {
+                        action.accept(key, tagHeaders);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+            appendLock.unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            if (open) {
+                index.remove(hash(key));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        appendLock.lock();
+        lock.writeLock().lock();
+        try {
+            if (!open) {
+                return;
+            }
+            // Все существующие сегменты становятся устаревшими разом
+            int next = active.id + 1;
+            index.clear();
+            index.setMinSegment(next);
+            indexFullReported = false;
+            active.seal();
+            active = createSegment(next);
+            evictOldSegments();
+        } catch (IOException e) {
+            LOG.errorf(e, "Failed to clear disk cache");
+        } finally {
+            lock.writeLock().unlock();
+            appendLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        appendLock.lock();
+        lock.writeLock().lock();
+        try {
+            if (!open) {
+                return;
+            }
+            open = false;
+            index.close();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            LOG.errorf(e, "Failed to close disk cache");
+        } finally {
+            segments.clear();
+            lock.writeLock().unlock();
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет запись из индекса, только если слот всё ещё указывает на прочитанную версию:
+     * между чтением без блокировки и удалением ключ мог быть перезаписан
+     */
+    private void removeStale(long hash, int segmentId, int offset) {
+        lock.writeLock().lock();
+        try {
+            if (!open) {
+                return;
+            }
+            int slot = index.find(hash);
+            if (slot >= 0 && index.segment(slot) == segmentId && index.offset(slot) == offset) {
+                index.remove(hash);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void evictOldSegments() throws IOException {
+        while (segments.size() > 1 && (totalBytes() > maxBytes || segments.firstKey() < index.minSegment())) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            index.setMinSegment(Math.max(index.minSegment(), oldest.id + 1));
+            oldest.close();
+            Files.deleteIfExists(oldest.file);
+            Files.deleteIfExists(oldest.keysFile);
+        }
+    }
+
+    private long totalBytes() {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.size + segment.keysSize;
+        }
+        return total;
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Segment segment = Segment.open(directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)),
+                keysFile(id), id);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Path keysFile(int id) {
+        return directory.resolve(String.format("%s%08d%s", KEYS_PREFIX, id, KEYS_SUFFIX));
+    }
+
+    private static MultiMap tagHeaders(CachedResponse response) {
+        MultiMap tagHeaders = MultiMap.caseInsensitiveMultiMap();
+        if (response.getHeaders() != null) {
+            for (String name : TAG_HEADERS) {
+                tagHeaders.add(name, response.getHeaders().getAll(name));
+            }
+        }
+        return tagHeaders;
+    }
+
+    private static Integer segmentId(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 64-битный FNV-1a по символам ключа
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Файл сегмента и его keys-файл. Активный читается позиционным read, закрытый — из read-only mmap без системных вызовов
+     */
+    private static final class Segment {
+        private final Path file;
+        private final Path keysFile;
+        private final int id;
+        private final FileChannel channel;
+        private final FileChannel keysChannel;
+        private volatile long size;
+        private volatile long keysSize;
+        private volatile MappedByteBuffer mapped;
+
+        private Segment(Path file, Path keysFile, int id, FileChannel channel, FileChannel keysChannel)
+                throws IOException {
+            this.file = file;
+            this.keysFile = keysFile;
+            this.id = id;
+            this.channel = channel;
+            this.keysChannel = keysChannel;
+            this.size = channel.size();
+            this.keysSize = keysChannel.size();
+        }
+
+        static Segment open(Path file, Path keysFile, int id) throws IOException {
+            return new Segment(file, keysFile, id, openChannel(file), openChannel(keysFile));
+        }
+
+        private static FileChannel openChannel(Path file) throws IOException {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        void append(ByteBuffer record) throws IOException {
+            long position = size;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            size = position;
+        }
+
+        void appendKey(ByteBuffer entry) throws IOException {
+            long position = keysSize;
+            while (entry.hasRemaining()) {
+                position += keysChannel.write(entry, position);
+            }
+            keysSize = position;
+        }
+
+        ByteBuffer readKeys() {
+            ByteBuffer buffer = ByteBuffer.allocate((int) keysSize);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (keysChannel.read(buffer, buffer.position()) < 0) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                LOG.warnf(e, "Failed to read disk cache keys %s", keysFile);
+            }
+            return buffer.flip();
+        }
+
+        /**
+         * Отрезает недописанный при аварийной остановке хвост, чтобы новые ключи не оказались за ним
+         */
+        void truncateKeys() throws IOException {
+            int valid = RecordCodec.decodeKeys(readKeys(), (key, offset, tagHeaders) -> {
+            });
+            if (valid < keysSize) {
+                keysChannel.truncate(valid);
+                keysSize = valid;
+            }
+        }
+
+        ByteBuffer read(int offset, int length) {
+            if ((long) offset + length > size) {
+                return ByteBuffer.allocate(0);
+            }
+            if (mapped != null) {
+                return mapped.slice(offset, length);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        return ByteBuffer.allocate(0);
+                    }
+                }
+            } catch (IOException e) {
+                return ByteBuffer.allocate(0);
+            }
+            return buffer.flip();
+        }
+
+        void seal() {
+            try {
+                channel.force(false);
+                keysChannel.force(false);
+                if (mapped == null && size > 0) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            } catch (IOException e) {
+                LOG.warnf(e, "Failed to map disk cache segment %s", file);
+            }
+        }
+
+        void close() throws IOException {
+            channel.force(false);
+            channel.close();
+            keysChannel.force(false);
+            keysChannel.close();
+        }
+    }
+}
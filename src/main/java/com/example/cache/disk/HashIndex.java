@@ -0,0 +1,183 @@
+package com.example.cache.disk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Хеш-индекс ключ -> (сегмент, смещение, длина) в memory-mapped файле с открытой адресацией.
+ * Файл не читается при старте целиком: после map индекс сразу готов, страницы подгружает ОС.
+ * Слоты сегментов младше minSegment считаются свободными — так удаление старого сегмента
+ * инвалидирует его записи без прохода по индексу
+ */
+final class HashIndex implements Closeable {
+
+    private static final int MAGIC = 0x53444758;  // "SDGX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;     // magic, version, slots, minSegment
+    private static final int SLOT_SIZE = 24;       // hash:long, segment+1:int, offset:int, length:int, reserved:int
+
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int slots;
+    private final int mask;
+
+    private HashIndex(FileChannel channel, MappedByteBuffer map, int slots) {
+        this.channel = channel;
+        this.map = map;
+        this.slots = slots;
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Открывает индекс; файл другого формата или размера пересоздаётся пустым
+     * @param slots число слотов, степень двойки
+     */
+    static HashIndex open(Path file, int slots) throws IOException {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Index slots must be a power of two: " + slots);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = HEADER_SIZE + (long) slots * SLOT_SIZE;
+        boolean reuse = channel.size() == size;
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        HashIndex index = new HashIndex(channel, map, slots);
+        if (!reuse || map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != slots) {
+            index.clear();
+        }
+        return index;
+    }
+
+    int minSegment() {
+        return map.getInt(12);
+    }
+
+    void setMinSegment(int segment) {
+        map.putInt(12, segment);
+    }
+
+    /**
+     * @return номер слота с этим хешем или -1
+     */
+    int find(long hash) {
+        int slot = (int) hash & mask;
+        for (int probe = 0; probe < slots; probe++) {
+            int segment = rawSegment(slot);
+            if (segment == EMPTY) {
+                return -1;
+            }
+            if (segment != TOMBSTONE && segment - 1 >= minSegment() && hashAt(slot) == hash) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    int slots() {
+        return slots;
+    }
+
+    /**
+     * @return true если слот указывает на запись в живом сегменте
+     */
+    boolean isLive(int slot) {
+        int segment = rawSegment(slot);
+        return segment != EMPTY && segment != TOMBSTONE && segment - 1 >= minSegment();
+    }
+
+    int segment(int slot) {
+        return rawSegment(slot) - 1;
+    }
+
+    int offset(int slot) {
+        return map.getInt(position(slot) + 12);
+    }
+
+    int length(int slot) {
+        return map.getInt(position(slot) + 16);
+    }
+
+    /**
+     * @return true если put этого хеша найдёт слот: хеш уже есть или есть свободный слот
+     */
+    boolean hasRoom(long hash) {
+        return find(hash) >= 0 || freeSlot(hash) >= 0;
+    }
+
+    /**
+     * @return false если свободных слотов нет
+     */
+    boolean put(long hash, int segment, int offset, int length) {
+        int existing = find(hash);
+        int slot = existing >= 0 ? existing : freeSlot(hash);
+        if (slot < 0) {
+            return false;
+        }
+        int position = position(slot);
+        map.putLong(position, hash);
+        map.putInt(position + 12, offset);
+        map.putInt(position + 16, length);
+        // Сегмент пишется последним: слот становится видимым уже заполненным
+        map.putInt(position + 8, segment + 1);
+        return true;
+    }
+
+    void remove(long hash) {
+        int slot = find(hash);
+        if (slot >= 0) {
+            map.putInt(position(slot) + 8, TOMBSTONE);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < slots; i++) {
+            map.putInt(position(i) + 8, EMPTY);
+        }
+        map.putInt(0, MAGIC);
+        map.putInt(4, VERSION);
+        map.putInt(8, slots);
+        map.putInt(12, 0);
+    }
+
+    void force() {
+        map.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    private int freeSlot(long hash) {
+        int slot = (int) hash & mask;
+        for (int probe = 0; probe < slots; probe++) {
+            int segment = rawSegment(slot);
+            if (segment == EMPTY || segment == TOMBSTONE || segment - 1 < minSegment()) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int rawSegment(int slot) {
+        return map.getInt(position(slot) + 8);
+    }
+
+    private long hashAt(int slot) {
+        return map.getLong(position(slot));
+    }
+
+    private static int position(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.cache.disk;
+
+import com.example.cache.CachedResponse;
+import io.vertx.core.MultiMap;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Формат записи в сегменте: [crc32:int][длина payload:int][payload].
+ * payload: статус, cachedAt, ключ, заголовки, флаг сжатия, тело. Строки — длина в байтах + UTF-8
+ */
+final class RecordCodec {
+
+    static final int PREFIX = Integer.BYTES * 2;
+
+    private static final byte PLAIN = 0;
+    private static final byte GZIP = 1;
+
+    private RecordCodec() {
+    }
+
+    static ByteBuffer encode(String key, CachedResponse response) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[][] headers = new byte[response.getHeaders() == null ? 0 : response.getHeaders().size() * 2][];
+        int size = Integer.BYTES + Long.BYTES + Integer.BYTES + keyBytes.length + Integer.BYTES;
+        if (response.getHeaders() != null) {
+            int i = 0;
+            for (Map.Entry<String, String> header : response.getHeaders()) {
+                headers[i++] = header.getKey().getBytes(StandardCharsets.UTF_8);
+                headers[i++] = header.getValue().getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        for (byte[] part : headers) {
+            size += Integer.BYTES + part.length;
+        }
+        byte flag = response.getCompressedBody() != null ? GZIP : PLAIN;
+        byte[] body = flag == GZIP ? response.getCompressedBody()
+                : response.getBody() == null ? new byte[0] : response.getBody().getBytes(StandardCharsets.UTF_8);
+        size += 1 + Integer.BYTES + body.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(PREFIX + size);
+        buffer.position(PREFIX);
+        buffer.putInt(response.getStatusCode());
+        buffer.putLong(response.getCachedAt() == null ? 0 : response.getCachedAt().toEpochMilli());
+        buffer.putInt(keyBytes.length).put(keyBytes);
+        buffer.putInt(headers.length / 2);
+        for (byte[] part : headers) {
+            buffer.putInt(part.length).put(part);
+        }
+        buffer.put(flag);
+        buffer.putInt(body.length).put(body);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), PREFIX, size);
+        buffer.putInt(0, (int) crc.getValue());
+        buffer.putInt(Integer.BYTES, size);
+        return buffer.flip();
+    }
+
+    /**
+     * @return запись или null, если контрольная сумма не сошлась либо ключ другой (коллизия хеша)
+     */
+    static CachedResponse decode(ByteBuffer record, String expectedKey) {
+        if (record.remaining() < PREFIX) {
+            return null;
+        }
+        int checksum = record.getInt(0);
+        int size = record.getInt(Integer.BYTES);
+        if (size != record.remaining() - PREFIX) {
+            return null;
+        }
+        ByteBuffer payload = record.slice(PREFIX, size);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+
+        CachedResponse response = new CachedResponse();
+        response.setStatusCode(payload.getInt());
+        response.setCachedAt(Instant.ofEpochMilli(payload.getLong()));
+        if (!expectedKey.equals(readString(payload))) {
+            return null;
+        }
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        int headerCount = payload.getInt();
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(readString(payload), readString(payload));
+        }
+        response.setHeaders(headers);
+        byte flag = payload.get();
+        byte[] body = new byte[payload.getInt()];
+        payload.get(body);
+        if (flag == GZIP) {
+            response.setCompressedBody(body);
+        } else {
+            response.setBody(new String(body, StandardCharsets.UTF_8));
+        }
+        return response;
+    }
+
+    /**
+     * Запись keys-файла сегмента: [длина:int][смещение записи в сегменте:int][ключ][число заголовков][имя, значение]...
+     * Хранит только то, что нужно для индекса инвалидации, поэтому читается при старте без тел ответов
+     */
+    static ByteBuffer encodeKey(String key, int offset, MultiMap tagHeaders) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[][] headers = new byte[tagHeaders.size() * 2][];
+        int size = Integer.BYTES + Integer.BYTES + keyBytes.length + Integer.BYTES;
+        int i = 0;
+        for (Map.Entry<String, String> header : tagHeaders) {
+            headers[i] = header.getKey().getBytes(StandardCharsets.UTF_8);
+            headers[i + 1] = header.getValue().getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES * 2 + headers[i].length + headers[i + 1].length;
+            i += 2;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + size);
+        buffer.putInt(size);
+        buffer.putInt(offset);
+        buffer.putInt(keyBytes.length).put(keyBytes);
+        buffer.putInt(headers.length / 2);
+        for (byte[] part : headers) {
+            buffer.putInt(part.length).put(part);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Разбирает keys-файл до первой неполной или повреждённой записи (обрыв при аварийной остановке)
+     * @return длина корректно разобранного префикса в байтах
+     */
+    static int decodeKeys(ByteBuffer keys, KeyVisitor visitor) {
+        int position = 0;
+        while (keys.remaining() - position >= Integer.BYTES) {
+            int size = keys.getInt(position);
+            if (size < Integer.BYTES * 3 || size > keys.remaining() - position - Integer.BYTES) {
+                break;
+            }
+            ByteBuffer entry = keys.slice(position + Integer.BYTES, size);
+            int offset;
+            String key;
+            MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+            try {
+                offset = entry.getInt();
+                key = readString(entry);
+                int headerCount = entry.getInt();
+                for (int i = 0; i < headerCount; i++) {
+                    headers.add(readString(entry), readString(entry));
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                break;
+            }
+            visitor.accept(key, offset, headers);
+            position += Integer.BYTES + size;
+        }
+        return position;
+    }
+
+    @FunctionalInterface
+    interface KeyVisitor {
+        void accept(String key, int offset, MultiMap tagHeaders);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
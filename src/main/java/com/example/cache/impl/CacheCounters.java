@@ -0,0 +1,48 @@
+package com.example.cache.impl;
+
+import com.example.cache.CacheStats;
+import com.example.cache.CachedResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики кеша на LongAdder: инкременты из разных потоков попадают в разные ячейки и не конкурируют,
+ * сумма считается только при снятии снимка
+ */
+final class CacheCounters {
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder diskHits = new LongAdder();
+    final LongAdder sizeEvictions = new LongAdder();
+    final LongAdder invalidations = new LongAdder();
+    final LongAdder expirations = new LongAdder();
+    final LongAdder bytesStored = new LongAdder();
+    final LongAdder loads = new LongAdder();
+    final LongAdder loadNanos = new LongAdder();
+
+    CacheStats snapshot(long entries, List<CacheStats.HotKey> hotKeys) {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        long loadCount = loads.sum();
+        return new CacheStats(entries, hitCount, missCount,
+                requests == 0 ? 0 : (double) hitCount / requests,
+                diskHits.sum(), sizeEvictions.sum(), invalidations.sum(), expirations.sum(),
+                bytesStored.sum(), loadCount,
+                loadCount == 0 ? 0 : (double) loadNanos.sum() / loadCount / TimeUnit.MILLISECONDS.toNanos(1),
+                hotKeys);
+    }
+
+    /**
+     * Объём тела записи: сжатое — в байтах, несжатое — в символах (без кодирования в UTF-8)
+     */
+    static long weight(CachedResponse response) {
+        if (response.getCompressedBody() != null) {
+            return response.getCompressedBody().length;
+        }
+        return response.getBody() == null ? 0 : response.getBody().length();
+    }
+}
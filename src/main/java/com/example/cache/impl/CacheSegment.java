@@ -0,0 +1,133 @@
+package com.example.cache.impl;
+
+import com.example.cache.CachedResponse;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Сегмент кеша со своей картой, счётчиком и бюджетом размера.
+ * Вытеснение — FIFO по порядку записи за O(1): очередь хранит пары ключ/запись,
+ * узел перезаписанной или удалённой записи пропускается при извлечении.
+ * Сегменты не делят ни счётчиков, ни очередей, поэтому запись в разные сегменты не конкурирует
+ */
+final class CacheSegment {
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Entry> map;
+    private final ConcurrentLinkedQueue<Node> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    // Длина очереди вместе с устаревшими узлами; при разрастании очередь чистится
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock compaction = new ReentrantLock();
+
+    CacheSegment(int capacity) {
+        this.capacity = capacity;
+        this.map = new ConcurrentHashMap<>(Math.max(16, capacity * 4 / 3 + 1));
+    }
+
+    Entry get(String key) {
+        return map.get(key);
+    }
+
+    /**
+     * @return прежняя запись ключа или null
+     */
+    Entry put(String key, Entry entry) {
+        Entry previous = map.put(key, entry);
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        order.add(new Node(key, entry));
+        if (queued.incrementAndGet() > capacity * 2 + 16) {
+            compact();
+        }
+        return previous;
+    }
+
+    Entry remove(String key) {
+        Entry removed = map.remove(key);
+        if (removed != null) {
+            size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    boolean remove(String key, Entry entry) {
+        if (map.remove(key, entry)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    boolean isFull() {
+        return size.get() >= capacity;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Извлекает и удаляет самую раннюю ещё актуальную запись
+     * @return пара ключ/запись или null, если сегмент пуст
+     */
+    Map.Entry<String, Entry> pollOldest() {
+        Node node;
+        while ((node = order.poll()) != null) {
+            queued.decrementAndGet();
+            if (remove(node.key(), node.entry())) {
+                return Map.entry(node.key(), node.entry());
+            }
+        }
+        return null;
+    }
+
+    void forEach(BiConsumer<String, Entry> action) {
+        map.forEach(action);
+    }
+
+    void clear() {
+        map.clear();
+        order.clear();
+        size.set(0);
+        queued.set(0);
+    }
+
+    /**
+     * Убирает из очереди узлы удалённых и перезаписанных записей; O(длина очереди),
+     * но запускается раз в ~capacity вставок, поэтому амортизированно O(1) на вставку
+     */
+    private void compact() {
+        if (!compaction.tryLock()) {
+            return;
+        }
+        try {
+            Iterator<Node> iterator = order.iterator();
+            while (iterator.hasNext()) {
+                Node node = iterator.next();
+                if (map.get(node.key()) != node.entry()) {
+                    iterator.remove();
+                    queued.decrementAndGet();
+                }
+            }
+        } finally {
+            compaction.unlock();
+        }
+    }
+
+    /**
+     * Запись кеша со сроком истечения по System.nanoTime()
+     */
+    record Entry(CachedResponse response, long expiresAt) {
+    }
+
+    private record Node(String key, Entry entry) {
+    }
+}
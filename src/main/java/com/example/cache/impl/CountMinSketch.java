@@ -0,0 +1,66 @@
+package com.example.cache.impl;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch: depth строк по width счётчиков, оценка — минимум по строкам (завышает, но не занижает).
+ * Счётчики атомарные без блокировок; конкурируют только обращения к одной ячейке.
+ * halve() делит все счётчики пополам, чтобы оценка отражала недавнюю популярность
+ */
+final class CountMinSketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+            0x27D4EB2F165667C5L};
+
+    private final AtomicIntegerArray counters;
+    private final int mask;
+
+    /**
+     * @param width счётчиков в строке, степень двойки
+     */
+    CountMinSketch(int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two: " + width);
+        }
+        this.counters = new AtomicIntegerArray(width * DEPTH);
+        this.mask = width - 1;
+    }
+
+    /**
+     * @return оценка частоты после увеличения
+     */
+    int increment(int hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            estimate = Math.min(estimate, counters.incrementAndGet(index));
+        }
+        return estimate;
+    }
+
+    int estimate(int hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    private int index(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        return row * (mask + 1) + ((int) (mixed >>> 32) & mask);
+    }
+}
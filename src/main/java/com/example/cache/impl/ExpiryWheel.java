@@ -0,0 +1,101 @@
+package com.example.cache.impl;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Хешированное колесо таймеров: срок истечения округляется вверх до тика и попадает в корзину tick % size.
+ * Постановка O(1); продвижение обходит только корзины прошедших тиков, поэтому каждая запись
+ * просматривается амортизированно O(1) раз (если срок дальше одного оборота — по разу за оборот).
+ * Время — монотонное System.nanoTime()
+ */
+final class ExpiryWheel<T> {
+
+    private static final int DEFAULT_SIZE = 256;
+    private static final long MIN_TICK_NANOS = 1_000_000L;
+
+    private final long origin;
+    private final long tickNanos;
+    private final Queue<Timeout<T>>[] buckets;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Последний обработанный тик; пишется под lock
+    private volatile long processedTick;
+
+    /**
+     * @param tickNanos точность истечения
+     * @param size      число корзин, степень двойки
+     */
+    @SuppressWarnings("unchecked")
+    ExpiryWheel(long tickNanos, int size, long nowNanos) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + size);
+        }
+        this.origin = nowNanos;
+        this.tickNanos = tickNanos;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Подбирает тик так, чтобы весь TTL укладывался в половину оборота
+     */
+    static <T> ExpiryWheel<T> forTtl(long ttlNanos, long nowNanos) {
+        long tick = Math.max(MIN_TICK_NANOS, Math.ceilDiv(ttlNanos, DEFAULT_SIZE / 2));
+        return new ExpiryWheel<>(tick, DEFAULT_SIZE, nowNanos);
+    }
+
+    void schedule(T item, long deadlineNanos) {
+        long tick = Math.ceilDiv(deadlineNanos - origin, tickNanos);
+        // Тик уже пройден — запись заберёт ближайшее продвижение
+        tick = Math.max(tick, processedTick + 1);
+        buckets[(int) (tick & mask)].add(new Timeout<>(item, tick));
+    }
+
+    /**
+     * Передаёт в expired все записи со сроком не позже nowNanos.
+     * Если продвижение уже выполняет другой поток, возвращается сразу
+     */
+    void advance(long nowNanos, Consumer<T> expired) {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            long current = Math.floorDiv(nowNanos - origin, tickNanos);
+            long from = processedTick + 1;
+            // После простоя дольше оборота достаточно одного прохода по всем корзинам
+            long to = Math.min(current, processedTick + buckets.length);
+            for (long tick = from; tick <= to; tick++) {
+                Iterator<Timeout<T>> iterator = buckets[(int) (tick & mask)].iterator();
+                while (iterator.hasNext()) {
+                    Timeout<T> timeout = iterator.next();
+                    if (timeout.tick() <= current) {
+                        iterator.remove();
+                        expired.accept(timeout.item());
+                    }
+                }
+            }
+            if (current > processedTick) {
+                processedTick = current;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        for (Queue<Timeout<T>> bucket : buckets) {
+            bucket.clear();
+        }
+    }
+
+    private record Timeout<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.cache.impl;
+
+import com.example.cache.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Самые запрашиваемые ключи. Учитывается одно обращение из SAMPLE_RATE, частота оценивается count-min sketch,
+ * кандидаты в топ хранятся в небольшой карте. Запись в путь get — одна проверка случайного числа
+ * в большинстве вызовов и несколько атомарных инкрементов в выбранных
+ */
+final class HotKeys {
+
+    private static final int SAMPLE_RATE = 8;
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int MAX_CANDIDATES = 128;
+    // После стольких учтённых обращений счётчики делятся пополам (старение)
+    private static final int RESET_SAMPLES = SKETCH_WIDTH * 8;
+
+    private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH);
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger samples = new AtomicInteger();
+    private final ReentrantLock maintenance = new ReentrantLock();
+
+    // Порог входа в кандидаты; читается без блокировки, пересчитывается при обрезке
+    private volatile int threshold;
+
+    void record(String key) {
+        if (ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+            return;
+        }
+        int estimate = sketch.increment(key.hashCode());
+        if (estimate > threshold && candidates.add(key) && candidates.size() > MAX_CANDIDATES) {
+            trim();
+        }
+        if (samples.incrementAndGet() >= RESET_SAMPLES) {
+            age();
+        }
+    }
+
+    /**
+     * @return до limit ключей по убыванию оценки частоты (в пересчёте на все обращения)
+     */
+    List<CacheStats.HotKey> top(int limit) {
+        List<CacheStats.HotKey> result = new ArrayList<>();
+        for (String key : candidates) {
+            result.add(new CacheStats.HotKey(key, (long) sketch.estimate(key.hashCode()) * SAMPLE_RATE));
+        }
+        result.sort(Comparator.comparingLong(CacheStats.HotKey::estimatedHits).reversed());
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    void clear() {
+        candidates.clear();
+        sketch.clear();
+        samples.set(0);
+        threshold = 0;
+    }
+
+    /**
+     * Оставляет половину кандидатов с наибольшей оценкой и поднимает порог входа
+     */
+    private void trim() {
+        if (!maintenance.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, Integer>> ranked = new ArrayList<>();
+            for (String key : candidates) {
+                ranked.add(Map.entry(key, sketch.estimate(key.hashCode())));
+            }
+            ranked.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            int keep = MAX_CANDIDATES / 2;
+            for (int i = keep; i < ranked.size(); i++) {
+                candidates.remove(ranked.get(i).getKey());
+            }
+            threshold = ranked.size() > keep ? ranked.get(keep).getValue() : 0;
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    private void age() {
+        if (!maintenance.tryLock()) {
+            return;
+        }
+        try {
+            samples.set(0);
+            sketch.halve();
+            threshold >>>= 1;
+        } finally {
+            maintenance.unlock();
+        }
+    }
+}
@@ -1,90 +1,317 @@
 package com.example.cache.impl;
 
+import com.example.cache.CacheStats;
 import com.example.cache.CachedResponse;
 import com.example.cache.ResponseCache;
+import com.example.cache.disk.DiskCacheTier;
 import com.example.config.AppConfig;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @ApplicationScoped
 public class InMemoryResponseCache implements ResponseCache {
 
+    private static final int AUTO_SEGMENTS = 0;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
     @Inject
     AppConfig appConfig;
 
+    /**
+     * Дисковый уровень; у кешей отдельных pool (созданных конструктором) его нет, как и сброса на диск
+     * при остановке: они живут только в памяти
+     */
+    @Inject
+    DiskCacheTier diskTier;
+
     private Duration ttl;
-    private int maxSize;
+    private long ttlNanos;
+
+    // Ключ попадает в сегмент по хешу; у каждого сегмента своя доля maxSize и своё вытеснение
+    private CacheSegment[] segments;
+    private int segmentMask;
 
-    private final ConcurrentHashMap<String, CachedResponse> cache = new ConcurrentHashMap<>();
+    // Покрывает записи и в памяти, и на диске: групповая инвалидация не должна оставить устаревший дисковый вариант
+    private final InvalidationIndex index = new InvalidationIndex();
+
+    // Активное истечение: устаревшие записи удаляются, даже если их больше никто не читает
+    private ExpiryWheel<String> expiryWheel;
+
+    private final CacheCounters counters = new CacheCounters();
+    private final HotKeys hotKeys = new HotKeys();
+
+    public InMemoryResponseCache() {
+    }
+
+    /**
+     * Отдельный кеш для upstream pool со своими TTL и размером
+     */
+    public InMemoryResponseCache(Duration ttl, int maxSize) {
+        this(ttl, maxSize, AUTO_SEGMENTS);
+    }
+
+    /**
+     * @param segments число сегментов (округляется до степени двойки) или 0 — по числу ядер
+     */
+    public InMemoryResponseCache(Duration ttl, int maxSize, int segments) {
+        configure(ttl, maxSize, segments);
+    }
 
     @PostConstruct
     void init() {
-        this.ttl = appConfig.cache().ttl();
-        this.maxSize = appConfig.cache().maxSize();
+        configure(appConfig.cache().ttl(), appConfig.cache().maxSize(), appConfig.cache().segments());
+        if (hasDiskTier()) {
+            // Записи, пережившие рестарт на диске, тоже должны находиться по префиксу и тегу.
+            // Индекс строится по keys-файлам сегментов, тела ответов при этом не читаются
+            diskTier.forEachKey(index::add);
+        }
+    }
+
+    private void configure(Duration ttl, int maxSize, int segmentCount) {
+        this.ttl = ttl;
+        this.ttlNanos = ttl.toNanos();
+        this.expiryWheel = ExpiryWheel.forTtl(ttlNanos, System.nanoTime());
+
+        int count = segmentCount > 0 ? segmentCount : Runtime.getRuntime().availableProcessors();
+        // Слишком мелкие сегменты вытесняют рано из-за неравномерного распределения ключей
+        count = Math.min(count, Math.max(1, maxSize / MIN_SEGMENT_CAPACITY));
+        count = Integer.highestOneBit(count);
+        this.segments = new CacheSegment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new CacheSegment(Math.ceilDiv(maxSize, count));
+        }
+        this.segmentMask = count - 1;
     }
 
     @Override
     public Optional<CachedResponse> get(String key) {
-        CachedResponse cachedResponse = cache.get(key);
-        if (cachedResponse == null) {
-            return Optional.empty();
+        hotKeys.record(key);
+        CacheSegment segment = segment(key);
+        CacheSegment.Entry entry = segment.get(key);
+        if (entry == null) {
+            Optional<CachedResponse> promoted = promote(key);
+            if (promoted.isPresent()) {
+                counters.hits.increment();
+                counters.diskHits.increment();
+            } else {
+                counters.misses.increment();
+            }
+            return promoted;
         }
 
-        // Проверяем TTL: если запись устарела — удаляем и возвращаем empty
-        Duration age = Duration.between(cachedResponse.getCachedAt(), Instant.now());
-        if (age.compareTo(ttl) >= 0) {
-            cache.remove(key);
+        // Проверяем TTL по монотонным часам: если запись устарела — удаляем и возвращаем empty
+        if (System.nanoTime() - entry.expiresAt() >= 0) {
+            removeExpired(segment, key, entry);
+            counters.misses.increment();
             return Optional.empty();
         }
 
-        return Optional.of(cachedResponse);
+        counters.hits.increment();
+        return Optional.of(entry.response());
     }
 
     @Override
     public void put(String key, CachedResponse response) {
-        // Если кеш полон — удаляем самую старую запись
-        if (cache.size() >= maxSize) {
-            evictOldest();
-        }
+        long now = System.nanoTime();
+        expiryWheel.advance(now, this::expire);
+
+        // Если сегмент полон — удаляем его самую старую запись
+        CacheSegment segment = segment(key);
+        evictOldest(segment);
 
         response.setCachedAt(Instant.now());
-        cache.put(key, response);
+        store(segment, key, response, now + ttlNanos);
     }
 
     @Override
     public void evict(String key) {
-        cache.remove(key);
+        CacheSegment.Entry removed = segment(key).remove(key);
+        if (removed != null) {
+            counters.invalidations.increment();
+            counters.bytesStored.add(-CacheCounters.weight(removed.response()));
+        }
+        index.remove(key);
+        if (hasDiskTier()) {
+            diskTier.remove(key);
+        }
+    }
+
+    @Override
+    public int evictPath(String path) {
+        return evictAll(index.keysForPath(path));
+    }
+
+    @Override
+    public int evictPrefix(String prefix) {
+        return evictAll(index.keysWithPrefix(prefix));
+    }
+
+    @Override
+    public int evictTag(String tag) {
+        return evictAll(index.keysForTag(tag));
     }
 
     @Override
     public void clear() {
-        cache.clear();
+        for (CacheSegment segment : segments) {
+            counters.invalidations.add(segment.size());
+            segment.clear();
+        }
+        counters.bytesStored.reset();
+        index.clear();
+        expiryWheel.clear();
+        hotKeys.clear();
+        if (hasDiskTier()) {
+            diskTier.clear();
+        }
+    }
+
+    @Override
+    public void recordLoad(long nanos) {
+        counters.loads.increment();
+        counters.loadNanos.add(nanos);
+    }
+
+    @Override
+    public CacheStats stats(int topKeys) {
+        return counters.snapshot(size(), hotKeys.top(topKeys));
+    }
+
+    /**
+     * Число записей в памяти
+     */
+    int size() {
+        int size = 0;
+        for (CacheSegment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    int segmentCount() {
+        return segments.length;
     }
 
     /**
-     * Удаляет самую старую запись из кеша (с минимальным cachedAt)
+     * Продвигает колесо истечения и в отсутствие записей. Срабатывает только у CDI бина;
+     * кеши именованных pool, созданные конструктором, продвигает RouteRegistry
      */
-    private void evictOldest() {
-        String oldestKey = null;
-        Instant oldestTime = null;
-
-        for (Map.Entry<String, CachedResponse> entry : cache.entrySet()) {
-            Instant cachedAt = entry.getValue().getCachedAt();
-            if (cachedAt != null && (oldestTime == null || cachedAt.isBefore(oldestTime))) {
-                oldestTime = cachedAt;
-                oldestKey = entry.getKey();
+    @Override
+    @Scheduled(every = "1s")
+    public void expireEntries() {
+        expiryWheel.advance(System.nanoTime(), this::expire);
+    }
+
+    private int evictAll(List<String> keys) {
+        for (String key : keys) {
+            evict(key);
+        }
+        return keys.size();
+    }
+
+    /**
+     * Срабатывание таймера: запись удаляется, только если она всё ещё устарела —
+     * после перезаписи ключа срок новой записи дальше, и у неё свой таймер
+     */
+    private void expire(String key) {
+        CacheSegment segment = segment(key);
+        CacheSegment.Entry entry = segment.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresAt() >= 0) {
+            removeExpired(segment, key, entry);
+        }
+    }
+
+    /**
+     * Удаляет устаревшую запись; копия на диске с тем же cachedAt тоже устарела
+     */
+    private void removeExpired(CacheSegment segment, String key, CacheSegment.Entry entry) {
+        if (segment.remove(key, entry)) {
+            counters.expirations.increment();
+            counters.bytesStored.add(-CacheCounters.weight(entry.response()));
+            index.remove(key);
+            if (hasDiskTier()) {
+                diskTier.remove(key);
             }
         }
+    }
 
-        if (oldestKey != null) {
-            cache.remove(oldestKey);
+    private void store(CacheSegment segment, String key, CachedResponse response, long expiresAt) {
+        CacheSegment.Entry previous = segment.put(key, new CacheSegment.Entry(response, expiresAt));
+        counters.bytesStored.add(CacheCounters.weight(response)
+                - (previous == null ? 0 : CacheCounters.weight(previous.response())));
+        index.add(key, response.getHeaders());
+        expiryWheel.schedule(key, expiresAt);
+    }
+
+    /**
+     * При остановке живые записи сбрасываются на диск, чтобы следующий запуск стартовал с тёплым кешем
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        if (!hasDiskTier()) {
+            return;
+        }
+        for (CacheSegment segment : segments) {
+            segment.forEach((key, entry) -> diskTier.put(key, entry.response()));
+        }
+        diskTier.close();
+    }
+
+    /**
+     * Промах в памяти — ищем на диске. Найденная запись возвращается в память с исходным cachedAt,
+     * чтобы TTL отсчитывался от момента получения ответа от backend
+     */
+    private Optional<CachedResponse> promote(String key) {
+        if (!hasDiskTier()) {
+            return Optional.empty();
+        }
+        Optional<CachedResponse> fromDisk = diskTier.get(key, ttl);
+        if (fromDisk.isEmpty()) {
+            // Запись устарела или ушла вместе со старым сегментом
+            index.remove(key);
+            return fromDisk;
         }
+        CacheSegment segment = segment(key);
+        evictOldest(segment);
+        long ageNanos = Duration.between(fromDisk.get().getCachedAt(), Instant.now()).toNanos();
+        store(segment, key, fromDisk.get(), System.nanoTime() + ttlNanos - ageNanos);
+        return fromDisk;
+    }
+
+    private boolean hasDiskTier() {
+        return diskTier != null && diskTier.isOpen();
+    }
+
+    /**
+     * Освобождает место в полном сегменте, удаляя его самую раннюю запись; при включённом диске переносит её туда
+     */
+    private void evictOldest(CacheSegment segment) {
+        while (segment.isFull()) {
+            Map.Entry<String, CacheSegment.Entry> oldest = segment.pollOldest();
+            if (oldest == null) {
+                return;
+            }
+            counters.sizeEvictions.increment();
+            counters.bytesStored.add(-CacheCounters.weight(oldest.getValue().response()));
+            if (hasDiskTier()) {
+                diskTier.put(oldest.getKey(), oldest.getValue().response());
+            } else {
+                index.remove(oldest.getKey());
+            }
+        }
+    }
+
+    private CacheSegment segment(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
     }
 }
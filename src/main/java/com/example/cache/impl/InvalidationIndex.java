@@ -0,0 +1,140 @@
+package com.example.cache.impl;
+
+import io.vertx.core.MultiMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Вторичные индексы кеша для групповой инвалидации: путь (без query) -> ключи и тег -> ключи.
+ * Пути лежат в отсортированной карте, поэтому префикс — это диапазон, и очистка стоит
+ * O(log n + затронутые записи), без обхода всего кеша.
+ * Теги приходят от backend в Surrogate-Key (через пробел) и Cache-Tag (через запятую)
+ */
+final class InvalidationIndex {
+
+    static final String SURROGATE_KEY = "Surrogate-Key";
+    static final String CACHE_TAG = "Cache-Tag";
+
+    private final ConcurrentSkipListMap<String, Set<String>> paths = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Set<String>> tags = new ConcurrentHashMap<>();
+    // Обратная карта: ключ -> его теги, чтобы удалять записи без заголовков ответа
+    private final ConcurrentHashMap<String, List<String>> keyTags = new ConcurrentHashMap<>();
+
+    void add(String key, MultiMap headers) {
+        remove(key);
+        addTo(paths, path(key), key);
+        List<String> entryTags = parseTags(headers);
+        if (!entryTags.isEmpty()) {
+            keyTags.put(key, entryTags);
+            for (String tag : entryTags) {
+                addTo(tags, tag, key);
+            }
+        }
+    }
+
+    void remove(String key) {
+        removeFrom(paths, path(key), key);
+        List<String> entryTags = keyTags.remove(key);
+        if (entryTags != null) {
+            for (String tag : entryTags) {
+                removeFrom(tags, tag, key);
+            }
+        }
+    }
+
+    void clear() {
+        paths.clear();
+        tags.clear();
+        keyTags.clear();
+    }
+
+    /**
+     * Ключи с путём, равным path, с любой query string
+     */
+    List<String> keysForPath(String path) {
+        Set<String> keys = paths.get(path);
+        return keys == null ? List.of() : List.copyOf(keys);
+    }
+
+    /**
+     * Ключи, путь которых равен prefix или продолжается после него новым сегментом
+     */
+    List<String> keysWithPrefix(String prefix) {
+        List<String> result = new ArrayList<>();
+        boolean segmentBoundary = prefix.endsWith("/");
+        for (Map.Entry<String, Set<String>> entry : paths.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .entrySet()) {
+            String path = entry.getKey();
+            if (segmentBoundary || path.length() == prefix.length() || path.charAt(prefix.length()) == '/') {
+                result.addAll(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    List<String> keysForTag(String tag) {
+        Set<String> keys = tags.get(tag);
+        return keys == null ? List.of() : List.copyOf(keys);
+    }
+
+    /**
+     * Путь ключа без query string
+     */
+    static String path(String key) {
+        int query = key.indexOf('?');
+        return query < 0 ? key : key.substring(0, query);
+    }
+
+    static List<String> parseTags(MultiMap headers) {
+        if (headers == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>();
+        for (String value : headers.getAll(SURROGATE_KEY)) {
+            split(value, ' ', result);
+        }
+        for (String value : headers.getAll(CACHE_TAG)) {
+            split(value, ',', result);
+        }
+        return result;
+    }
+
+    private static void split(String value, char separator, List<String> result) {
+        int start = 0;
+        while (start <= value.length()) {
+            int end = value.indexOf(separator, start);
+            if (end < 0) {
+                end = value.length();
+            }
+            String tag = value.substring(start, end).strip();
+            if (!tag.isEmpty() && !result.contains(tag)) {
+                result.add(tag);
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Добавление и удаление идут через compute, чтобы не потерять ключ в множестве,
+     * которое параллельно убирается из индекса как пустое
+     */
+    private static void addTo(Map<String, Set<String>> index, String indexKey, String key) {
+        index.compute(indexKey, (k, keys) -> {
+            Set<String> result = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+            result.add(key);
+            return result;
+        });
+    }
+
+    private static void removeFrom(Map<String, Set<String>> index, String indexKey, String key) {
+        index.computeIfPresent(indexKey, (k, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+}
@@ -17,8 +17,18 @@ public interface CircuitBreaker {
      */
     void recordFailure(String serverUrl);
 
+    /**
+     * Считается ли ответ с этим статусом отказом backend
+     */
+    boolean isFailureStatus(int statusCode);
+
     /**
      * Получает текущее состояние сервера
      */
     CircuitState getState(String serverUrl);
+
+    /**
+     * Подписка на переходы между состояниями (один слушатель на экземпляр)
+     */
+    void setTransitionListener(CircuitTransitionListener listener);
 }
@@ -0,0 +1,10 @@
+package com.example.circuitbreaker;
+
+/**
+ * Уведомление о смене состояния circuit для сервера
+ */
+@FunctionalInterface
+public interface CircuitTransitionListener {
+
+    void onTransition(String serverUrl, CircuitState from, CircuitState to);
+}
@@ -2,6 +2,7 @@ package com.example.circuitbreaker.impl;
 
 import com.example.circuitbreaker.CircuitBreaker;
 import com.example.circuitbreaker.CircuitState;
+import com.example.circuitbreaker.CircuitTransitionListener;
 import com.example.config.AppConfig;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -9,6 +10,7 @@ import jakarta.inject.Inject;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @ApplicationScoped
@@ -17,13 +19,38 @@ public class SimpleCircuitBreaker implements CircuitBreaker {
     @Inject
     AppConfig appConfig;
 
+    private static final int MAX_STATUS = 600;
+
     private int failureThreshold;
     private Duration openDuration;
+    // Таблица вместо Set<Integer>: проверка статуса без autoboxing на каждом ответе
+    private final boolean[] failureStatuses = new boolean[MAX_STATUS];
+    private volatile CircuitTransitionListener transitionListener = (serverUrl, from, to) -> { };
+
+    public SimpleCircuitBreaker() {
+    }
+
+    /**
+     * Отдельный circuit breaker для upstream pool со своими порогами
+     */
+    public SimpleCircuitBreaker(int failureThreshold, Duration openDuration, Set<Integer> failureStatuses) {
+        configure(failureThreshold, openDuration, failureStatuses);
+    }
 
     @PostConstruct
     void init() {
-        failureThreshold = appConfig.circuitBreaker().failureThreshold();
-        openDuration = appConfig.circuitBreaker().openDuration();
+        configure(appConfig.circuitBreaker().failureThreshold(), appConfig.circuitBreaker().openDuration(),
+                appConfig.circuitBreaker().failureStatuses());
+    }
+
+    private void configure(int failureThreshold, Duration openDuration, Set<Integer> failureStatuses) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        for (int status : failureStatuses) {
+            if (status >= 0 && status < MAX_STATUS) {
+                this.failureStatuses[status] = true;
+            }
+        }
     }
 
     ConcurrentHashMap<String, ServerCircuitState> serverStates = new ConcurrentHashMap<>();
@@ -42,7 +69,7 @@ public class SimpleCircuitBreaker implements CircuitBreaker {
         if (serverCircuitState.getState() == CircuitState.OPEN) {
             Duration elapsed = Duration.between(serverCircuitState.getLastFailureTime(), LocalDateTime.now());
             if (elapsed.compareTo(openDuration) >= 0) {
-                serverCircuitState.setState(CircuitState.HALF_OPEN);
+                transition(serverUrl, serverCircuitState, CircuitState.HALF_OPEN);
                 return false;
             }
             return true;
@@ -53,7 +80,7 @@ public class SimpleCircuitBreaker implements CircuitBreaker {
     @Override
     public void recordSuccess(String serverUrl) {
         ServerCircuitState serverCircuitState = serverStates.get(serverUrl);
-        serverCircuitState.setState(CircuitState.CLOSED);
+        transition(serverUrl, serverCircuitState, CircuitState.CLOSED);
         serverCircuitState.setFailureCount(0);
         serverStates.put(serverUrl, serverCircuitState);
     }
@@ -66,17 +93,35 @@ public class SimpleCircuitBreaker implements CircuitBreaker {
         serverCircuitState.setFailureCount(failureCount);
         serverCircuitState.setLastFailureTime(LocalDateTime.now());
         if (failureCount >= failureThreshold) {
-            serverCircuitState.setState(CircuitState.OPEN);
+            transition(serverUrl, serverCircuitState, CircuitState.OPEN);
         }
         serverStates.put(serverUrl, serverCircuitState);
     }
 
+    @Override
+    public boolean isFailureStatus(int statusCode) {
+        return statusCode >= 0 && statusCode < MAX_STATUS && failureStatuses[statusCode];
+    }
+
     @Override
     public CircuitState getState(String serverUrl) {
         ServerCircuitState serverCircuitState = serverStates.get(serverUrl);
         return serverCircuitState.getState();
     }
 
+    @Override
+    public void setTransitionListener(CircuitTransitionListener listener) {
+        this.transitionListener = listener;
+    }
+
+    private void transition(String serverUrl, ServerCircuitState serverCircuitState, CircuitState to) {
+        CircuitState from = serverCircuitState.getState();
+        serverCircuitState.setState(to);
+        if (from != to) {
+            transitionListener.onTransition(serverUrl, from, to);
+        }
+    }
+
     private static class ServerCircuitState {
         CircuitState state;
         int failureCount;
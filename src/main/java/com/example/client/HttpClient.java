@@ -1,34 +1,29 @@
 package com.example.client;
 
-import java.util.Map;
+import io.vertx.core.MultiMap;
+
+import java.time.Duration;
 
 public interface HttpClient {
     /**
-     * Выполняет GET запрос на указанный URL
+     * Выполняет запрос любым HTTP методом на указанный URL. Блокирует вызывающий поток до ответа:
+     * вызывать с worker или виртуального потока, не с event loop
+     * @param method HTTP метод (GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS)
      * @param url полный URL (например "http://example.com/api")
-     * @return тело ответа как строка
-     * @throws HttpClientException если запрос не удался
-     */
-    HttpResponse get(String url, Map<String, String> headers) throws HttpClientException;
-
-    /**
-     * Выполняет POST запрос на указанный URL
-     * @return тело ответа как строка
-     * @throws HttpClientException если запрос не удался
+     * @param body тело запроса или null, если его нет
+     * @param timeout сколько осталось до дедлайна запроса
+     * @return ответ backend с любым HTTP статусом; у ответа на HEAD тело пустое
+     * @throws HttpClientException если ответ не получен (сетевая ошибка, таймаут)
      */
-    HttpResponse post(String url, String body, Map<String, String> headers) throws HttpClientException;
+    HttpResponse send(String method, String url, String body, MultiMap headers, Duration timeout)
+            throws HttpClientException;
 
     /**
-     * Выполняет PUT запрос на указанный URL
-     * @return тело ответа как строка
-     * @throws HttpClientException если запрос не удался
-     */
-    HttpResponse put(String url, String body, Map<String, String> headers) throws HttpClientException;
-
-    /**
-     * Выполняет DELETE запрос на указанный URL
-     * @return тело ответа как строка
-     * @throws HttpClientException если запрос не удался
+     * Выполняет GET запрос на указанный URL
+     * @return ответ backend с любым HTTP статусом
+     * @throws HttpClientException если ответ не получен (сетевая ошибка, таймаут)
      */
-    HttpResponse delete(String url, Map<String, String> headers) throws HttpClientException;
+    default HttpResponse get(String url, MultiMap headers, Duration timeout) throws HttpClientException {
+        return send("GET", url, null, headers, timeout);
+    }
 }
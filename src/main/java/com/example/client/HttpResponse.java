@@ -1,11 +1,15 @@
 package com.example.client;
 
-import java.util.Map;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.vertx.core.MultiMap;
 
+@RegisterForReflection
 public class HttpResponse {
     private int statusCode;
     private String body;
-    private Map<String, String> headers;
+    private MultiMap headers;
+    // Backend, вернувший ответ; заполняет конвейер прокси после retry/hedging
+    private String serverUrl;
 
     public int getStatusCode() {
         return statusCode;
@@ -23,14 +27,22 @@ public class HttpResponse {
         this.body = body;
     }
 
-    public Map<String, String> getHeaders() {
+    public MultiMap getHeaders() {
         return headers;
     }
 
-    public void setHeaders(Map<String, String> headers) {
+    public void setHeaders(MultiMap headers) {
         this.headers = headers;
     }
 
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public void setServerUrl(String serverUrl) {
+        this.serverUrl = serverUrl;
+    }
+
     @Override
     public String toString() {
         return "HttpResponse{" +
@@ -0,0 +1,118 @@
+package com.example.client;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Модель заголовков прокси: регистронезависимый MultiMap с сохранением повторяющихся значений.
+ * Копирование отбрасывает hop-by-hop заголовки за один проход без промежуточных map
+ */
+public final class ProxyHeaders {
+
+    // Предвычисленные имена: хеш AsciiString считается один раз, а не на каждый запрос
+    public static final CharSequence X_FORWARDED_FOR = HttpHeaders.createOptimized("X-Forwarded-For");
+    public static final CharSequence CONNECTION = HttpHeaders.createOptimized("Connection");
+    public static final String CONTENT_LENGTH = "Content-Length";
+
+    /**
+     * Заголовки, которые относятся к одному соединению (RFC 9110 7.6.1) либо пересчитываются
+     * клиентом для нового соединения (Host, Content-Length, Expect) и не должны проксироваться
+     */
+    private static final String[] HOP_BY_HOP_HEADERS = {"Connection", "Keep-Alive", "Transfer-Encoding",
+            "Proxy-Authenticate", "Proxy-Authorization", "Proxy-Connection", "TE", "Trailer", "Upgrade",
+            "Host", "Content-Length", "Expect"};
+
+    private ProxyHeaders() {
+    }
+
+    /**
+     * Регистронезависимая проверка без аллокаций
+     */
+    public static boolean isHopByHop(String name) {
+        for (String hopByHop : HOP_BY_HOP_HEADERS) {
+            if (hopByHop.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Копирует end-to-end заголовки в новый MultiMap
+     */
+    public static MultiMap copyEndToEnd(MultiMap source) {
+        MultiMap target = MultiMap.caseInsensitiveMultiMap();
+        String connection = source.get(CONNECTION);
+        for (Map.Entry<String, String> header : source) {
+            if (isEndToEnd(header.getKey(), connection)) {
+                target.add(header.getKey(), header.getValue());
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Копирует end-to-end заголовки из map java.net.http (имя -> список значений) в новый MultiMap
+     */
+    public static MultiMap copyEndToEnd(Map<String, List<String>> source) {
+        MultiMap target = MultiMap.caseInsensitiveMultiMap();
+        List<String> connectionValues = source.get("Connection");
+        String connection = connectionValues == null || connectionValues.isEmpty() ? null : connectionValues.get(0);
+        for (Map.Entry<String, List<String>> header : source.entrySet()) {
+            if (isEndToEnd(header.getKey(), connection)) {
+                target.add(header.getKey(), header.getValue());
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Content-Length ответа на HEAD — длина тела, которое вернул бы GET, а не пустого тела этого ответа (RFC 9110 8.6):
+     * в отличие от остальных ответов, клиент его пересчитать не может, поэтому он передаётся как есть
+     * @param contentLength значение заголовка у backend или null
+     */
+    public static MultiMap keepHeadContentLength(MultiMap headers, String method, String contentLength) {
+        if ("HEAD".equals(method) && contentLength != null) {
+            headers.set(CONTENT_LENGTH, contentLength);
+        }
+        return headers;
+    }
+
+    /**
+     * Заголовок end-to-end, если он не hop-by-hop и не перечислен в Connection
+     */
+    private static boolean isEndToEnd(String name, String connection) {
+        // Псевдо-заголовки HTTP/2 (:status) не являются заголовками ответа
+        if (name.startsWith(":") || isHopByHop(name)) {
+            return false;
+        }
+        return connection == null || !containsToken(connection, name);
+    }
+
+    private static boolean containsToken(String tokens, String name) {
+        int start = 0;
+        int length = tokens.length();
+        while (start < length) {
+            int end = tokens.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int from = start;
+            int to = end;
+            while (from < to && tokens.charAt(from) == ' ') {
+                from++;
+            }
+            while (to > from && tokens.charAt(to - 1) == ' ') {
+                to--;
+            }
+            if (to - from == name.length() && tokens.regionMatches(true, from, name, 0, name.length())) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+}
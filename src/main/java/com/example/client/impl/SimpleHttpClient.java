@@ -2,102 +2,92 @@ package com.example.client.impl;
 
 import com.example.client.HttpClient;
 import com.example.client.HttpClientException;
+import com.example.client.ProxyHeaders;
+import com.example.config.AppConfig;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.vertx.core.MultiMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.HashMap;
-import java.util.List;
+import java.time.Duration;
 import java.util.Map;
-import java.util.Set;
 
 @ApplicationScoped
+@UnlessBuildProperty(name = "app.client.type", stringValue = "vertx", enableIfMissing = true)
 public class SimpleHttpClient implements HttpClient {
 
-    private final java.net.http.HttpClient httpClient = java.net.http.HttpClient.newHttpClient();
+    @Inject
+    AppConfig appConfig;
 
-    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("Connection", "Keep-Alive", "Transfer-Encoding", "Proxy-Authenticate",
-            "Proxy-Authorization", "TE", "Trailer", "Upgrade");
+    private java.net.http.HttpClient httpClient;
 
+    @PostConstruct
+    void init() {
+        configure(appConfig.timeout().connect());
+    }
 
-    @Override
-    public com.example.client.HttpResponse get(String url, Map<String, String> headers) throws HttpClientException {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url));
-        headers.forEach(builder::header);
-        HttpRequest request = builder.GET().build();
-        HttpResponse<String> response = execute(request, "GET", url);
-        return createResponse(response);
+    void configure(Duration connectTimeout) {
+        this.httpClient = java.net.http.HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
     }
 
-    @Override
-    public com.example.client.HttpResponse post(String url, String body, Map<String, String> headers) throws HttpClientException {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url));
-        headers.forEach(builder::header);
-        HttpRequest request = builder.POST(HttpRequest.BodyPublishers.ofString(body)).build();
-        HttpResponse<String> response = execute(request, "POST", url);
-        return createResponse(response);
+    /**
+     * При остановке — после того как начатые запросы доработали: дожидается обменов и закрывает соединения к backend
+     */
+    @PreDestroy
+    void close() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
     }
 
     @Override
-    public com.example.client.HttpResponse put(String url, String body, Map<String, String> headers) throws HttpClientException {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url));
-        headers.forEach(builder::header);
-        HttpRequest request = builder.PUT(HttpRequest.BodyPublishers.ofString(body)).build();
-        HttpResponse<String> response = execute(request, "PUT", url);
-        return createResponse(response);
+    public com.example.client.HttpResponse send(String method, String url, String body, MultiMap headers,
+                                                Duration timeout) throws HttpClientException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body);
+        HttpRequest request = newRequest(url, headers, timeout).method(method, publisher).build();
+        HttpResponse<String> response = execute(request, method, url);
+        return createResponse(method, response);
     }
 
-    @Override
-    public com.example.client.HttpResponse delete(String url, Map<String, String> headers) throws HttpClientException {
+    private HttpRequest.Builder newRequest(String url, MultiMap headers, Duration timeout) {
         HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url));
-        headers.forEach(builder::header);
-        HttpRequest request = builder.DELETE().build();
-        HttpResponse<String> response = execute(request, "DELETE", url);
-        return createResponse(response);
+                .uri(URI.create(url))
+                .timeout(timeout);
+        for (Map.Entry<String, String> header : headers) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        return builder;
     }
 
     private HttpResponse<String> execute(HttpRequest request, String method, String url) throws HttpClientException {
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new HttpClientException("HTTP error: " + response.statusCode());
-            }
-            return response;
-        } catch (IOException | InterruptedException e) {
+            // Любой статус backend — это результат, а не ошибка: решение принимает вызывающий код
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
             throw new HttpClientException("Failed to execute " + method + " request to " + url, e);
+        } catch (InterruptedException e) {
+            // Флаг прерывания восстанавливается: вызывающий код (hedging, остановка) должен его увидеть
+            Thread.currentThread().interrupt();
+            throw new HttpClientException("Interrupted " + method + " request to " + url, e);
         }
     }
 
-    private com.example.client.HttpResponse createResponse(HttpResponse<String> response) {
+    private com.example.client.HttpResponse createResponse(String method, HttpResponse<String> response) {
         com.example.client.HttpResponse httpResponse = new com.example.client.HttpResponse();
         httpResponse.setBody(response.body());
-        HttpHeaders httpHeaders = response.headers();
-        Map <String, List<String>> headersMap = httpHeaders.map();
-        Map<String, String> newHeaders = new HashMap<>();
-        for (String key : headersMap.keySet()) {
-            List<String> values = headersMap.get(key);
-            String value = values.get(0);
-            newHeaders.put(key, value);
-        }
-        httpResponse.setHeaders(filterHeaders(newHeaders));
+        httpResponse.setHeaders(ProxyHeaders.keepHeadContentLength(ProxyHeaders.copyEndToEnd(response.headers().map()),
+                method, response.headers().firstValue(ProxyHeaders.CONTENT_LENGTH).orElse(null)));
         httpResponse.setStatusCode(response.statusCode());
         return httpResponse;
     }
-
-    private Map<String, String> filterHeaders(Map<String, String> headers) {
-        Map<String, String> newHeaders = new HashMap<>();
-        for (String key : headers.keySet()) {
-            String value = headers.get(key);
-            if (!HOP_BY_HOP_HEADERS.contains(key)) {
-                newHeaders.put(key, value);
-            }
-        }
-        return newHeaders;
-    }
 }
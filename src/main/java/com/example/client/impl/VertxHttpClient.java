@@ -0,0 +1,136 @@
+package com.example.client.impl;
+
+import com.example.client.HttpClient;
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.example.client.ProxyHeaders;
+import com.example.config.AppConfig;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.vertx.core.Context;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HTTP клиент на Vert.x/Netty.
+ * Держит пул keep-alive соединений на каждый backend (host:port), буферы берутся из пула Netty.
+ * Обмен идёт на event loop Vert.x, но send() блокирует вызывающий поток до ответа, поэтому вызывать
+ * его можно только с worker или виртуального потока: вызов с event loop заблокировал бы тот самый поток,
+ * который должен доставить ответ, и сразу завершается IllegalStateException
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "app.client.type", stringValue = "vertx")
+public class VertxHttpClient implements HttpClient {
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    AppConfig appConfig;
+
+    io.vertx.core.http.HttpClient client;
+
+    @PostConstruct
+    void init() {
+        configure(appConfig.timeout().connect(), appConfig.client().maxConnectionsPerBackend(),
+                appConfig.client().keepAliveTimeout());
+    }
+
+    /**
+     * Создаёт Vert.x клиент с пулом соединений на каждый backend
+     */
+    void configure(Duration connectTimeout, int maxConnectionsPerBackend, Duration keepAliveTimeout) {
+        HttpClientOptions options = new HttpClientOptions()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setKeepAlive(true)
+                .setKeepAliveTimeout((int) keepAliveTimeout.toSeconds())
+                .setTcpNoDelay(true)
+                .setDecompressionSupported(false);
+        PoolOptions poolOptions = new PoolOptions().setHttp1MaxSize(maxConnectionsPerBackend);
+        this.client = vertx.createHttpClient(options, poolOptions);
+    }
+
+    @PreDestroy
+    void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Override
+    public HttpResponse send(String method, String url, String body, MultiMap headers, Duration timeout)
+            throws HttpClientException {
+        return execute(HttpMethod.valueOf(method), url, body, headers, timeout);
+    }
+
+    private HttpResponse execute(HttpMethod method, String url, String body, MultiMap headers,
+                                 Duration timeout) throws HttpClientException {
+        if (Context.isOnEventLoopThread()) {
+            throw new IllegalStateException("Blocking " + method + " request to " + url
+                    + " from an event loop thread, call it from a worker thread");
+        }
+        long timeoutMillis = Math.max(1, timeout.toMillis());
+        RequestOptions options = new RequestOptions()
+                .setMethod(method)
+                .setAbsoluteURI(url)
+                .setIdleTimeout(timeoutMillis)
+                .setHeaders(headers);
+
+        // Держим ссылку на запрос, чтобы сбросить соединение при таймауте или прерывании потока
+        AtomicReference<HttpClientRequest> inFlight = new AtomicReference<>();
+        CompletableFuture<HttpResponse> result = client.request(options)
+                .compose(request -> {
+                    inFlight.set(request);
+                    return body == null ? request.send() : request.send(body);
+                })
+                .compose(response -> response.body().map(buffer -> createResponse(method, response, buffer)))
+                .toCompletionStage()
+                .toCompletableFuture();
+
+        try {
+            // Любой статус backend — это результат, а не ошибка: решение принимает вызывающий код
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new HttpClientException("Failed to execute " + method + " request to " + url, e.getCause());
+        } catch (TimeoutException e) {
+            reset(inFlight.get());
+            throw new HttpClientException("Timeout executing " + method + " request to " + url, e);
+        } catch (InterruptedException e) {
+            reset(inFlight.get());
+            Thread.currentThread().interrupt();
+            throw new HttpClientException("Interrupted " + method + " request to " + url, e);
+        }
+    }
+
+    private void reset(HttpClientRequest request) {
+        if (request != null) {
+            request.reset();
+        }
+    }
+
+    private HttpResponse createResponse(HttpMethod method, HttpClientResponse response, Buffer body) {
+        HttpResponse httpResponse = new HttpResponse();
+        httpResponse.setStatusCode(response.statusCode());
+        httpResponse.setHeaders(ProxyHeaders.keepHeadContentLength(ProxyHeaders.copyEndToEnd(response.headers()),
+                method.name(), response.getHeader(ProxyHeaders.CONTENT_LENGTH)));
+        httpResponse.setBody(body.toString());
+        return httpResponse;
+    }
+}
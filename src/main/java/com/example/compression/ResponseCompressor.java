@@ -0,0 +1,42 @@
+package com.example.compression;
+
+import io.vertx.core.MultiMap;
+
+public interface ResponseCompressor {
+
+    /**
+     * Принимает ли клиент gzip по заголовку Accept-Encoding
+     * @param acceptEncoding значение заголовка или null
+     */
+    boolean acceptsGzip(String acceptEncoding);
+
+    /**
+     * Стоит ли сжимать ответ: сжатие включено, тип содержимого из списка, тело не меньше порога
+     * и ещё не закодировано backend
+     * @param headers заголовки ответа backend
+     * @param length  длина тела в символах
+     */
+    boolean isCompressible(MultiMap headers, int length);
+
+    /**
+     * Добавляет Accept-Encoding в Vary ответа, который зависит от сжатия; уже перечисленный токен
+     * (или Vary: *) не дублируется
+     */
+    void addVary(MultiMap headers);
+
+    /**
+     * Помечает ответ как сжатый: Content-Encoding: gzip, сильный ETag становится слабым —
+     * байты сжатого представления отличаются от несжатого с тем же ETag
+     */
+    void markCompressed(MultiMap headers);
+
+    /**
+     * Сжимает тело (UTF-8) в gzip
+     */
+    byte[] compress(String body);
+
+    /**
+     * Распаковывает gzip тело для клиента, который не принимает сжатие
+     */
+    String decompress(byte[] compressed);
+}
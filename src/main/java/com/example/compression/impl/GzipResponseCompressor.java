@@ -0,0 +1,172 @@
+package com.example.compression.impl;
+
+import com.example.compression.ResponseCompressor;
+import com.example.config.AppConfig;
+import io.vertx.core.MultiMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip из JDK: brotli и zstd требуют нативных библиотек, чистых Java кодеков в зависимостях нет
+ */
+@ApplicationScoped
+public class GzipResponseCompressor implements ResponseCompressor {
+
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String VARY = "Vary";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String ETAG = "ETag";
+    private static final String WEAK = "W/";
+    private static final String GZIP = "gzip";
+
+    @Inject
+    AppConfig appConfig;
+
+    private boolean enabled;
+    private String[] mimeTypes;
+    private int minSize;
+    private int level;
+
+    @PostConstruct
+    void init() {
+        this.enabled = appConfig.compression().enabled();
+        this.mimeTypes = appConfig.compression().mimeTypes().toArray(String[]::new);
+        this.minSize = appConfig.compression().minSize();
+        this.level = appConfig.compression().level();
+    }
+
+    @Override
+    public boolean acceptsGzip(String acceptEncoding) {
+        if (!enabled || acceptEncoding == null) {
+            return false;
+        }
+        // Токены вида "gzip", "gzip;q=0.8", "*"; q=0 означает явный отказ.
+        // Явный gzip важнее "*" независимо от порядка: "*;q=0, gzip" разрешает gzip
+        Boolean wildcard = null;
+        for (String token : acceptEncoding.split(",")) {
+            String coding = token.trim();
+            int params = coding.indexOf(';');
+            String name = params < 0 ? coding : coding.substring(0, params).trim();
+            boolean accepted = params < 0 || !isZeroQuality(coding.substring(params + 1));
+            if (name.equalsIgnoreCase(GZIP)) {
+                return accepted;
+            }
+            if (name.equals("*") && wildcard == null) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    private static boolean isZeroQuality(String params) {
+        for (String param : params.split(";")) {
+            String p = param.trim();
+            if (p.startsWith("q=") || p.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(p.substring(2)) == 0.0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isCompressible(MultiMap headers, int length) {
+        if (!enabled || length < minSize || headers.contains(CONTENT_ENCODING)) {
+            return false;
+        }
+        String contentType = headers.get(CONTENT_TYPE);
+        if (contentType == null) {
+            return false;
+        }
+        int end = contentType.indexOf(';');
+        if (end < 0) {
+            end = contentType.length();
+        }
+        // Сравнение без учёта регистра и без подстрок: тип стоит в начале заголовка
+        for (String mimeType : mimeTypes) {
+            if (end >= mimeType.length() && contentType.regionMatches(true, 0, mimeType, 0, mimeType.length())
+                    && isBlank(contentType, mimeType.length(), end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlank(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void addVary(MultiMap headers) {
+        List<String> values = headers.getAll(VARY);
+        for (String value : values) {
+            for (String token : value.split(",")) {
+                String name = token.trim();
+                if (name.equals("*") || name.equalsIgnoreCase(ACCEPT_ENCODING)) {
+                    return;
+                }
+            }
+        }
+        // Несколько строк Vary равнозначны одной через запятую: собираем в одну
+        headers.set(VARY, values.isEmpty() ? ACCEPT_ENCODING : String.join(", ", values) + ", " + ACCEPT_ENCODING);
+    }
+
+    @Override
+    public void markCompressed(MultiMap headers) {
+        headers.set(CONTENT_ENCODING, GZIP);
+        String etag = headers.get(ETAG);
+        if (etag != null && !etag.startsWith(WEAK)) {
+            headers.set(ETAG, WEAK + etag);
+        }
+    }
+
+    @Override
+    public byte[] compress(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream gzip = new LevelGzipOutputStream(out, level)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public String decompress(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * GZIPOutputStream не даёт задать уровень сжатия снаружи, только через protected Deflater
+     */
+    private static final class LevelGzipOutputStream extends GZIPOutputStream {
+        LevelGzipOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+}
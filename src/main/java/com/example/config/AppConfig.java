@@ -1,10 +1,15 @@
 package com.example.config;
 
+import com.example.admission.PriorityClass;
+import io.quarkus.runtime.configuration.MemorySize;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @ConfigMapping(prefix = "app")
 public interface AppConfig {
@@ -20,6 +25,189 @@ public interface AppConfig {
 
     Cache cache();
 
+    Client client();
+
+    Hedging hedging();
+
+    Retry retry();
+
+    Routing routing();
+
+    Compression compression();
+
+    interface Compression {
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Сжимаемые типы содержимого (без параметров вроде charset)
+         */
+        @WithDefault("text/html,text/plain,text/css,text/javascript,application/javascript,application/json,"
+                + "application/xml,image/svg+xml")
+        List<String> mimeTypes();
+
+        /**
+         * Ответы короче этого размера (в символах) не сжимаются: выигрыш меньше накладных расходов gzip
+         */
+        @WithDefault("1024")
+        int minSize();
+
+        /**
+         * Уровень gzip от 1 (быстро) до 9 (плотно)
+         */
+        @WithDefault("6")
+        int level();
+    }
+
+    Warmup warmup();
+
+    AccessLog accessLog();
+
+    RuntimeConfig runtimeConfig();
+
+    Discovery discovery();
+
+    Admission admission();
+
+    Admin admin();
+
+    /**
+     * Именованные upstream pools (app.pools.{имя}.*). Пул default — это app.backends
+     */
+    Map<String, Pool> pools();
+
+    /**
+     * Маршруты к пулам по префиксу пути и/или Host; запрос без совпадения уходит в пул default
+     */
+    Optional<List<Route>> routes();
+
+    interface Route {
+        /**
+         * Префикс пути, как location в nginx: побеждает самый длинный совпавший
+         */
+        @WithDefault("/")
+        String prefix();
+
+        /**
+         * Host запроса без порта; не задан — маршрут для любого Host
+         */
+        Optional<String> host();
+
+        String pool();
+
+        /**
+         * Класс приоритета запросов маршрута при перегрузке прокси: high, normal или low
+         */
+        @WithDefault("normal")
+        PriorityClass priority();
+    }
+
+    /**
+     * Настройки пула; не заданные берутся из глобальных app.cache, app.rate-limit и app.circuit-breaker
+     */
+    interface Pool {
+        List<String> urls();
+
+        Optional<Boolean> cacheEnabled();
+
+        Optional<Duration> cacheTtl();
+
+        Optional<Integer> cacheMaxSize();
+
+        Optional<Boolean> rateLimitEnabled();
+
+        Optional<Integer> requestsPerMinute();
+
+        Optional<Integer> failureThreshold();
+
+        Optional<Duration> openDuration();
+    }
+
+    interface Routing {
+        /**
+         * Проксировать любой путь через catch-all route (исходный путь и query без изменений)
+         */
+        @WithDefault("true")
+        boolean catchAll();
+
+        /**
+         * Префиксы путей, которые catch-all route не проксирует: служебные эндпоинты самого прокси
+         */
+        @WithDefault("/q,/proxy,/admin")
+        List<String> excludedPrefixes();
+
+        /**
+         * Максимальный размер тела запроса: тело буферизуется целиком, больший запрос получает 413.
+         * Тело передаётся как текст UTF-8 — бинарные тела пока не поддерживаются
+         */
+        @WithDefault("10M")
+        MemorySize maxBodySize();
+    }
+
+    interface Retry {
+        /**
+         * Максимум попыток на запрос, включая первую
+         */
+        @WithDefault("3")
+        int maxAttempts();
+
+        @WithDefault("50ms")
+        Duration backoffBase();
+
+        @WithDefault("1s")
+        Duration backoffMax();
+
+        /**
+         * Доля ретраев от общего числа запросов, которую разрешает общий бюджет
+         */
+        @WithDefault("0.2")
+        double budgetRatio();
+
+        /**
+         * Статусы ответа backend, после которых идемпотентный запрос можно повторить
+         */
+        @WithDefault("502,503,504")
+        Set<Integer> retryableStatuses();
+    }
+
+    interface Hedging {
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Задержка перед hedge-запросом, пока для backend не накоплена статистика латентности
+         */
+        @WithDefault("100ms")
+        Duration delay();
+
+        /**
+         * Перцентиль латентности backend, после которого отправляется hedge-запрос
+         */
+        @WithDefault("0.95")
+        double percentile();
+
+        /**
+         * Максимальная доля hedge-запросов от общего числа GET запросов
+         */
+        @WithDefault("0.05")
+        double budgetRatio();
+    }
+
+    interface Client {
+        /**
+         * Реализация HTTP клиента: jdk (java.net.http) или vertx (пул соединений Netty).
+         * Читается на этапе сборки, поэтому смена требует пересборки
+         */
+        @WithDefault("jdk")
+        String type();
+
+        @WithDefault("32")
+        int maxConnectionsPerBackend();
+
+        @WithDefault("60s")
+        Duration keepAliveTimeout();
+    }
+
     interface Cache {
         @WithDefault("60s")
         Duration ttl();
@@ -29,6 +217,37 @@ public interface AppConfig {
 
         @WithDefault("true")
         boolean enabled();
+
+        /**
+         * Число сегментов кеша (степень двойки); 0 — по числу ядер. Каждый сегмент получает долю max-size
+         */
+        @WithDefault("0")
+        int segments();
+
+        Disk disk();
+
+        /**
+         * Дисковый уровень кеша: вытесненные из памяти записи переживают рестарт
+         */
+        interface Disk {
+            @WithDefault("false")
+            boolean enabled();
+
+            @WithDefault("data/cache")
+            String path();
+
+            @WithDefault("256M")
+            MemorySize maxSize();
+
+            @WithDefault("64M")
+            MemorySize segmentSize();
+
+            /**
+             * Число слотов индекса (степень двойки); при заполнении новые записи на диск не попадают
+             */
+            @WithDefault("65536")
+            int indexSlots();
+        }
     }
 
     interface RateLimit {
@@ -45,6 +264,12 @@ public interface AppConfig {
 
         @WithDefault("30s")
         Duration openDuration();
+
+        /**
+         * Статусы ответа backend, которые считаются его отказом (остальные проксируются клиенту как есть)
+         */
+        @WithDefault("500,502,503,504")
+        Set<Integer> failureStatuses();
     }
 
     interface Backends {
@@ -57,6 +282,12 @@ public interface AppConfig {
 
         @WithDefault("10s")
         Duration interval();
+
+        /**
+         * Таймаут одной проверки; короче таймаута запроса, чтобы мёртвый backend не задерживал весь цикл
+         */
+        @WithDefault("2s")
+        Duration timeout();
     }
 
     interface Timeout {
@@ -66,4 +297,152 @@ public interface AppConfig {
         @WithDefault("30s")
         Duration request();
     }
+
+    /**
+     * Прогрев при старте: немедленная проверка здоровья backend и загрузка горячих путей в кеш
+     */
+    interface Warmup {
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Пути для прогрева в порядке приоритета
+         */
+        Optional<List<String>> paths();
+
+        /**
+         * Файл с путями: по одному на строку или access log; пути ранжируются по частоте
+         */
+        Optional<String> pathsFile();
+
+        @WithDefault("100")
+        int maxPaths();
+
+        @WithDefault("8")
+        int parallelism();
+
+        /**
+         * После таймаута прокси объявляет готовность, даже если прогрев не завершён
+         */
+        @WithDefault("30s")
+        Duration timeout();
+    }
+
+    /**
+     * Access log: одна запись на запрос, запись на диск в фоновом потоке
+     */
+    interface AccessLog {
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Формат строки: text или json
+         */
+        @WithDefault("text")
+        String format();
+
+        /**
+         * Файл журнала; без него записи уходят в лог приложения (категория access)
+         */
+        Optional<String> path();
+
+        /**
+         * Доля записываемых ответов со статусом ниже 400; ошибки пишутся всегда
+         */
+        @WithDefault("1.0")
+        double sampleRate();
+
+        /**
+         * Ёмкость кольцевого буфера, степень двойки. При переполнении записи отбрасываются
+         */
+        @WithDefault("8192")
+        int bufferSize();
+
+        @WithDefault("256")
+        int batchSize();
+    }
+
+    /**
+     * Перезагрузка backend, пулов, маршрутов и политик без рестарта (см. RuntimeSettings)
+     */
+    interface RuntimeConfig {
+        /**
+         * JSON документ изменений поверх application.properties; без него — только PUT /admin/config
+         */
+        Optional<String> path();
+
+        /**
+         * Как часто проверять время изменения файла
+         */
+        @WithDefault("5s")
+        Duration pollInterval();
+    }
+
+    /**
+     * Обнаружение backend (BackendDiscovery): списки backend пулов приходят извне и заменяют текущие
+     */
+    interface Discovery {
+        /**
+         * Файл со строками "пул url" или "url" (пул default); без него файловое обнаружение выключено
+         */
+        Optional<String> file();
+
+        @WithDefault("10s")
+        Duration interval();
+
+        /**
+         * Таймаут одной проверки; короче таймаута запроса, чтобы мёртвый backend не задерживал весь цикл
+         */
+        @WithDefault("2s")
+        Duration timeout();
+    }
+
+    /**
+     * Защита прокси от перегрузки (AdmissionController): лишние запросы получают 503 с Retry-After,
+     * начиная с низкого приоритета
+     */
+    interface Admission {
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Проксируемых запросов в обработке; меньше пула worker потоков, чтобы служебным эндпоинтам хватало потоков
+         */
+        @WithDefault("150")
+        int maxInFlight();
+
+        /**
+         * Сглаженное ожидание worker потока, выше которого отклоняются LOW (выше двух значений — и NORMAL)
+         */
+        @WithDefault("20ms")
+        Duration targetQueueDelay();
+
+        /**
+         * Запрос, прождавший worker поток дольше, отклоняется (кроме HIGH): клиент скорее всего уже не ждёт
+         */
+        @WithDefault("200ms")
+        Duration maxQueueDelay();
+
+        /**
+         * Значение Retry-After в ответе 503
+         */
+        @WithDefault("1s")
+        Duration retryAfter();
+
+        /**
+         * Заголовок, которым клиент может понизить приоритет своего запроса (повысить — нельзя)
+         */
+        @WithDefault("X-Priority")
+        String priorityHeader();
+    }
+
+    /**
+     * Admin API (/admin/*) на порту проксируемого трафика
+     */
+    interface Admin {
+        /**
+         * Bearer токен для /admin/*; не задан — admin API отвечает 401 на любой запрос
+         */
+        Optional<String> token();
+    }
 }
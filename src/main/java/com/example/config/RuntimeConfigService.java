@@ -0,0 +1,161 @@
+package com.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Текущие RuntimeSettings: application.properties плюс документ изменений из файла или admin API.
+ * Новый снимок проверяется целиком, публикуется одной volatile записью и рассылается CDI событием
+ * RuntimeSettings — подписчики пересобирают свои структуры и тоже подменяют их атомарно.
+ * Backend из discovery лежат слоем поверх документа: перезагрузка файла их не сбрасывает
+ */
+@ApplicationScoped
+public class RuntimeConfigService {
+
+    private static final Logger LOG = Logger.getLogger(RuntimeConfigService.class);
+
+    @Inject
+    AppConfig config;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Event<RuntimeSettings> changed;
+
+    private RuntimeSettings base;
+    private volatile RuntimeSettings current;
+
+    // Последний принятый документ изменений и списки backend из discovery, накладываемые поверх него
+    private RuntimeSettings document = RuntimeSettings.EMPTY;
+    private Map<String, List<String>> discovered = Map.of();
+
+    // Время изменения файла при последнем чтении; 0 — файла нет
+    private long fileModified;
+
+    @PostConstruct
+    void init() {
+        base = RuntimeSettings.from(config).validate();
+        current = base;
+        // Файл, изменённый до старта, применяется сразу: пулы собираются уже по нему, без события
+        Optional<Path> file = file();
+        if (file.isPresent()) {
+            try {
+                fileModified = modified(file.get());
+                RuntimeSettings changes = read(file.get());
+                current = base.with(changes).validate();
+                document = changes;
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.errorf("Runtime config %s rejected, using application.properties: %s", file.get(), e.getMessage());
+            }
+        }
+    }
+
+    public RuntimeSettings current() {
+        return current;
+    }
+
+    /**
+     * Применяет документ изменений поверх application.properties (а не поверх текущих настроек:
+     * документ — полное описание отличий, повторное применение ничего не меняет)
+     * @return новые действующие настройки
+     * @throws IllegalArgumentException если результат некорректен; действующие настройки не меняются
+     */
+    public synchronized RuntimeSettings apply(RuntimeSettings changes) {
+        RuntimeSettings next = withDiscovered(base.with(changes)).validate();
+        document = changes;
+        if (!next.equals(current)) {
+            current = next;
+            changed.fire(next);
+            LOG.infof("Runtime config applied: backends %s, pools %s", next.backends(), next.pools().keySet());
+        }
+        return next;
+    }
+
+    /**
+     * Точечное изменение настроек (admin API). Изменение применяется к application.properties с документом,
+     * без слоя discovery: иначе найденные backend впечатались бы в документ и пережили уход из discovery.
+     * Результат становится документом изменений целиком: следующее изменение файла app.runtime-config.path
+     * заменит и его
+     * @throws IllegalArgumentException если результат некорректен; действующие настройки не меняются
+     */
+    public synchronized RuntimeSettings update(UnaryOperator<RuntimeSettings> change) {
+        return apply(change.apply(base.with(document)));
+    }
+
+    /**
+     * Заменяет списки backend, полученные из discovery. Они накладываются на каждый следующий документ изменений,
+     * поэтому правка файла или admin API не откатывает найденные backend до следующего опроса источников.
+     * Пулы, которых нет в настройках, пропускаются
+     * @throws IllegalArgumentException если результат некорректен; действующие настройки не меняются
+     */
+    public synchronized RuntimeSettings discovered(Map<String, List<String>> pools) {
+        Map<String, List<String>> previous = discovered;
+        discovered = Map.copyOf(pools);
+        try {
+            return apply(document);
+        } catch (IllegalArgumentException e) {
+            discovered = previous;
+            throw e;
+        }
+    }
+
+    private RuntimeSettings withDiscovered(RuntimeSettings settings) {
+        RuntimeSettings result = settings;
+        for (Map.Entry<String, List<String>> pool : discovered.entrySet()) {
+            if (result.urls(pool.getKey()) != null) {
+                result = result.withUrls(pool.getKey(), pool.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Перечитывает файл при изменении; удалённый файл возвращает настройки из application.properties
+     */
+    @Scheduled(every = "{app.runtime-config.poll-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void pollFile() {
+        Optional<Path> file = file();
+        if (file.isEmpty()) {
+            return;
+        }
+        try {
+            long modified = modified(file.get());
+            if (modified == fileModified) {
+                return;
+            }
+            fileModified = modified;
+            apply(read(file.get()));
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.errorf("Runtime config %s rejected, keeping current settings: %s", file.get(), e.getMessage());
+        }
+    }
+
+    private Optional<Path> file() {
+        return config.runtimeConfig().path().map(Path::of);
+    }
+
+    private RuntimeSettings read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return RuntimeSettings.EMPTY;
+        }
+        return objectMapper.readValue(file.toFile(), RuntimeSettings.class);
+    }
+
+    private static long modified(Path file) throws IOException {
+        return Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.config;
+
+import com.example.admission.PriorityClass;
+import com.example.routing.UpstreamPool;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройки, которые меняются без рестарта: backend пула default, именованные пулы, маршруты и политики.
+ * Неизменяемый снимок. В документе изменений (файл app.runtime-config.path или PUT /admin/config)
+ * незаданное поле берётся из application.properties, а pools и routes заменяются целиком.
+ * Статусы отказа, TTL и размер кеша пула default по-прежнему требуют рестарта
+ */
+@RegisterForReflection(targets = {RuntimeSettings.class, RuntimeSettings.Pool.class, RuntimeSettings.Route.class,
+        PriorityClass.class})
+public record RuntimeSettings(List<String> backends,
+                              Boolean cacheEnabled,
+                              Boolean rateLimitEnabled,
+                              Integer requestsPerMinute,
+                              Integer failureThreshold,
+                              Duration openDuration,
+                              Map<String, Pool> pools,
+                              List<Route> routes) {
+
+    /**
+     * Пустой документ изменений: всё из application.properties
+     */
+    public static final RuntimeSettings EMPTY = new RuntimeSettings(null, null, null, null, null, null, null, null);
+
+    /**
+     * Настройки пула; незаданные (null) берутся из настроек верхнего уровня и app.cache
+     */
+    public record Pool(List<String> urls,
+                       Boolean cacheEnabled,
+                       Duration cacheTtl,
+                       Integer cacheMaxSize,
+                       Boolean rateLimitEnabled,
+                       Integer requestsPerMinute,
+                       Integer failureThreshold,
+                       Duration openDuration) {
+    }
+
+    /**
+     * @param host   Host без порта или null для любого Host
+     * @param prefix префикс пути; не задан — "/"
+     * @param priority класс приоритета при перегрузке; не задан — NORMAL
+     */
+    public record Route(String host, String prefix, String pool, PriorityClass priority) {
+
+        public Route {
+            if (prefix == null) {
+                prefix = "/";
+            }
+            if (priority == null) {
+                priority = PriorityClass.NORMAL;
+            }
+        }
+    }
+
+    /**
+     * Снимок из application.properties
+     */
+    public static RuntimeSettings from(AppConfig config) {
+        Map<String, Pool> pools = new HashMap<>();
+        config.pools().forEach((name, pool) -> pools.put(name, new Pool(List.copyOf(pool.urls()),
+                pool.cacheEnabled().orElse(null), pool.cacheTtl().orElse(null), pool.cacheMaxSize().orElse(null),
+                pool.rateLimitEnabled().orElse(null), pool.requestsPerMinute().orElse(null),
+                pool.failureThreshold().orElse(null), pool.openDuration().orElse(null))));
+        List<Route> routes = config.routes().orElse(List.of()).stream()
+                .map(route -> new Route(route.host().orElse(null), route.prefix(), route.pool(),
+                        route.priority()))
+                .toList();
+        return new RuntimeSettings(List.copyOf(config.backends().urls()),
+                config.cache().enabled(),
+                config.rateLimit().enabled(), config.rateLimit().requestsPerMinute(),
+                config.circuitBreaker().failureThreshold(), config.circuitBreaker().openDuration(),
+                Map.copyOf(pools), routes);
+    }
+
+    /**
+     * Накладывает документ изменений: заданные в нём поля заменяют текущие
+     */
+    public RuntimeSettings with(RuntimeSettings changes) {
+        return new RuntimeSettings(
+                changes.backends != null ? copy(changes.backends) : backends,
+                or(changes.cacheEnabled, cacheEnabled),
+                or(changes.rateLimitEnabled, rateLimitEnabled),
+                or(changes.requestsPerMinute, requestsPerMinute),
+                or(changes.failureThreshold, failureThreshold),
+                or(changes.openDuration, openDuration),
+                changes.pools != null ? Collections.unmodifiableMap(new HashMap<>(changes.pools)) : pools,
+                changes.routes != null ? copy(changes.routes) : routes);
+    }
+
+    /**
+     * Backend пула: для default — backends
+     * @return null, если пула нет
+     */
+    public List<String> urls(String pool) {
+        if (UpstreamPool.DEFAULT.equals(pool)) {
+            return backends;
+        }
+        Pool settings = pools.get(pool);
+        return settings == null ? null : settings.urls();
+    }
+
+    /**
+     * Снимок с другим списком backend пула; остальные настройки пула сохраняются
+     * @throws IllegalArgumentException если пула нет
+     */
+    public RuntimeSettings withUrls(String pool, List<String> urls) {
+        if (UpstreamPool.DEFAULT.equals(pool)) {
+            return new RuntimeSettings(copy(urls), cacheEnabled, rateLimitEnabled, requestsPerMinute,
+                    failureThreshold, openDuration, pools, routes);
+        }
+        Pool settings = pools.get(pool);
+        if (settings == null) {
+            throw new IllegalArgumentException("Unknown pool " + pool);
+        }
+        Map<String, Pool> changed = new HashMap<>(pools);
+        changed.put(pool, new Pool(copy(urls), settings.cacheEnabled(), settings.cacheTtl(), settings.cacheMaxSize(),
+                settings.rateLimitEnabled(), settings.requestsPerMinute(), settings.failureThreshold(),
+                settings.openDuration()));
+        return new RuntimeSettings(backends, cacheEnabled, rateLimitEnabled, requestsPerMinute,
+                failureThreshold, openDuration, Collections.unmodifiableMap(changed), routes);
+    }
+
+    /**
+     * Проверяет снимок целиком до применения: некорректный документ не должен оставить прокси
+     * с частью новых настроек
+     * @return этот снимок
+     * @throws IllegalArgumentException с описанием первой найденной ошибки
+     */
+    public RuntimeSettings validate() {
+        requireUrls("backends", backends);
+        requirePositive("requestsPerMinute", requestsPerMinute);
+        requirePositive("failureThreshold", failureThreshold);
+        requirePositive("openDuration", openDuration);
+        pools.forEach((name, pool) -> {
+            if (name.isBlank() || UpstreamPool.DEFAULT.equals(name)) {
+                throw new IllegalArgumentException("Invalid pool name '" + name + "'");
+            }
+            if (pool == null) {
+                throw new IllegalArgumentException("Pool " + name + " has no settings");
+            }
+            requireUrls("pools." + name + ".urls", pool.urls());
+            requirePositive("pools." + name + ".cacheTtl", pool.cacheTtl());
+            requirePositive("pools." + name + ".cacheMaxSize", pool.cacheMaxSize());
+            requirePositive("pools." + name + ".requestsPerMinute", pool.requestsPerMinute());
+            requirePositive("pools." + name + ".failureThreshold", pool.failureThreshold());
+            requirePositive("pools." + name + ".openDuration", pool.openDuration());
+        });
+        for (Route route : routes) {
+            if (route == null || route.pool() == null) {
+                throw new IllegalArgumentException("Route without pool");
+            }
+            if (!route.prefix().startsWith("/")) {
+                throw new IllegalArgumentException("Route prefix must start with '/': " + route.prefix());
+            }
+            if (!UpstreamPool.DEFAULT.equals(route.pool()) && !pools.containsKey(route.pool())) {
+                throw new IllegalArgumentException("Route " + route.prefix() + " refers to unknown pool " + route.pool());
+            }
+        }
+        return this;
+    }
+
+    private static void requireUrls(String field, List<String> urls) {
+        if (urls == null || urls.isEmpty()) {
+            throw new IllegalArgumentException(field + " must not be empty");
+        }
+        for (String url : urls) {
+            if (url == null || !(url.startsWith("http://") || url.startsWith("https://"))) {
+                throw new IllegalArgumentException(field + " contains invalid URL " + url);
+            }
+        }
+    }
+
+    private static void requirePositive(String field, Integer value) {
+        if (value != null && value <= 0) {
+            throw new IllegalArgumentException(field + " must be positive");
+        }
+    }
+
+    private static void requirePositive(String field, Duration value) {
+        if (value != null && (value.isNegative() || value.isZero())) {
+            throw new IllegalArgumentException(field + " must be positive");
+        }
+    }
+
+    // Не List.copyOf: null внутри документа должен дойти до validate и стать понятной ошибкой
+    private static <T> List<T> copy(List<T> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    private static <T> T or(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.discovery;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Источник списков backend (файл, реестр сервисов, DNS). Реализации — CDI бины, DiscoveryService опрашивает
+ * все найденные
+ */
+public interface BackendDiscovery {
+
+    /**
+     * Текущие backend по пулам (default — пул app.backends). Пул, которого нет в ответе, не меняется
+     * @return пусто, если источнику нечего сообщить (не настроен, недоступен)
+     */
+    Optional<Map<String, List<String>>> discover() throws IOException;
+}
@@ -0,0 +1,76 @@
+package com.example.discovery;
+
+import com.example.config.RuntimeConfigService;
+import com.example.config.RuntimeSettings;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Опрашивает все BackendDiscovery и передаёт найденные списки backend в RuntimeConfigService, который держит их
+ * слоем поверх файла настроек: пулы и маршруты пересобираются как при любой перезагрузке. Пулы, которых нет
+ * в настройках, не создаются — у них нет ни маршрутов, ни политик
+ */
+@ApplicationScoped
+public class DiscoveryService {
+
+    private static final Logger LOG = Logger.getLogger(DiscoveryService.class);
+
+    @Inject
+    Instance<BackendDiscovery> discoveries;
+
+    @Inject
+    RuntimeConfigService runtimeConfig;
+
+    // Последний ответ источников — только чтобы не повторять предупреждения; сравнение с действующими настройками
+    // делает RuntimeConfigService, неизменившийся результат событие не порождает
+    private Map<String, List<String>> last = Map.of();
+
+    @Scheduled(every = "{app.discovery.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refresh() {
+        Map<String, List<String>> discovered = new LinkedHashMap<>();
+        for (BackendDiscovery discovery : discoveries) {
+            try {
+                discovery.discover().ifPresent(pools -> pools.forEach((pool, urls) -> merge(discovered, pool, urls)));
+            } catch (IOException | RuntimeException e) {
+                LOG.warnf("Backend discovery %s failed, keeping current backends: %s",
+                        discovery.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        if (discovered.isEmpty()) {
+            return;
+        }
+        boolean changed = !discovered.equals(last);
+        last = discovered;
+        if (changed) {
+            RuntimeSettings current = runtimeConfig.current();
+            discovered.keySet().stream().filter(pool -> current.urls(pool) == null)
+                    .forEach(pool -> LOG.warnf("Discovered backends for unknown pool %s ignored", pool));
+        }
+        try {
+            runtimeConfig.discovered(discovered);
+        } catch (IllegalArgumentException e) {
+            if (changed) {
+                LOG.errorf("Discovered backends rejected: %s", e.getMessage());
+            }
+        }
+    }
+
+    private static void merge(Map<String, List<String>> discovered, String pool, List<String> urls) {
+        List<String> merged = discovered.computeIfAbsent(pool, k -> new ArrayList<>());
+        for (String url : urls) {
+            if (!merged.contains(url)) {
+                merged.add(url);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.discovery.impl;
+
+import com.example.config.AppConfig;
+import com.example.discovery.BackendDiscovery;
+import com.example.routing.UpstreamPool;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Обнаружение из файла app.discovery.file — замена реестру сервисов, которую легко вести скриптом деплоя.
+ * Строка — "пул url" или "url" (пул default); пустые строки и # комментарии пропускаются
+ */
+@ApplicationScoped
+public class FileBackendDiscovery implements BackendDiscovery {
+
+    @Inject
+    AppConfig config;
+
+    @Override
+    public Optional<Map<String, List<String>>> discover() throws IOException {
+        Optional<String> file = config.discovery().file();
+        if (file.isEmpty() || !Files.exists(Path.of(file.get()))) {
+            return Optional.empty();
+        }
+        return Optional.of(parse(Files.readAllLines(Path.of(file.get()))));
+    }
+
+    static Map<String, List<String>> parse(List<String> lines) throws IOException {
+        Map<String, List<String>> pools = new LinkedHashMap<>();
+        for (String line : lines) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            if (parts.length > 2) {
+                throw new IOException("Expected '[pool] url', got: " + line);
+            }
+            String pool = parts.length == 2 ? parts[0] : UpstreamPool.DEFAULT;
+            String url = parts[parts.length - 1];
+            List<String> urls = pools.computeIfAbsent(pool, k -> new ArrayList<>());
+            if (!urls.contains(url)) {
+                urls.add(url);
+            }
+        }
+        return pools;
+    }
+}
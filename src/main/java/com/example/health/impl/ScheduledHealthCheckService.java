@@ -2,15 +2,33 @@ package com.example.health.impl;
 
 import com.example.client.HttpClientException;
 import com.example.config.AppConfig;
+import com.example.config.RuntimeConfigService;
+import com.example.config.RuntimeSettings;
 import com.example.health.HealthChecker;
+import com.example.metrics.ProxyMetrics;
 import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 @ApplicationScoped
 public class ScheduledHealthCheckService {
@@ -22,30 +40,163 @@ public class ScheduledHealthCheckService {
     @Inject
     AppConfig appConfig;
 
+    @Inject
+    RuntimeConfigService runtimeConfig;
+
+    @Inject
+    ProxyMetrics metrics;
+
     private volatile List<String> cachedHealthyServers = new ArrayList<>();
 
+    // Живые серверы именованных пулов; пул default — это cachedHealthyServers
+    private volatile Map<String, List<String>> cachedHealthyPools = Map.of();
+
+    // Результат последней проверки и дренируемые backend; списки выше строятся из них копированием при записи
+    private volatile Set<String> healthyUrls = Set.of();
+    private volatile Set<String> draining = Set.of();
+
+    // Проверки backend идут параллельно, каждая в своём виртуальном потоке
+    private final ExecutorService probes = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Номер последней начатой проверки и последней опубликованной (под монитором): старый результат не затирает новый
+    private final AtomicLong started = new AtomicLong();
+    private long published;
+
     public List<String> getCachedHealthyServers() {
         return cachedHealthyServers;
     }
 
-    @Scheduled(every = "{app.health.interval}")
+    /**
+     * Живые серверы именованного upstream pool
+     */
+    public List<String> getCachedHealthyServers(String pool) {
+        return cachedHealthyPools.getOrDefault(pool, List.of());
+    }
+
+    public boolean isHealthy(String url) {
+        return healthyUrls.contains(url);
+    }
+
+    public Set<String> getDraining() {
+        return draining;
+    }
+
+    /**
+     * Дренаж backend: балансировщики перестают выбирать его сразу, без новой проверки здоровья;
+     * уже начатые запросы к нему дорабатывают
+     */
+    public synchronized void drain(String url) {
+        Set<String> next = new HashSet<>(draining);
+        next.add(url);
+        draining = Set.copyOf(next);
+        publish(runtimeConfig.current());
+    }
+
+    /**
+     * Возвращает backend в балансировку (если он жив)
+     */
+    public synchronized void undrain(String url) {
+        Set<String> next = new HashSet<>(draining);
+        next.remove(url);
+        draining = Set.copyOf(next);
+        publish(runtimeConfig.current());
+    }
+
+    /**
+     * Списки backend берутся из текущих RuntimeSettings. Все backend проверяются параллельно с таймаутом
+     * app.health.timeout, поэтому цикл длится не дольше самой медленной проверки. Монитор берётся только
+     * на публикацию результата: drain и смена настроек не ждут сетевых проверок
+     */
+    @Scheduled(every = "{app.health.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
     public void checkHealth() {
         log.info("Running scheduled health check...");
-        List<String> healthyServers = new ArrayList<>();
-        List<String> backendConfigList = appConfig.backends().urls();
-        for (String url : backendConfigList) {
-            String fullUrl = url + appConfig.health().endpoint();
+        long check = started.incrementAndGet();
+        // Сервер из нескольких пулов проверяется один раз
+        Map<String, Future<Boolean>> results = new LinkedHashMap<>();
+        for (String url : servers(runtimeConfig.current())) {
+            results.put(url, probes.submit(() -> probe(url)));
+        }
+
+        Set<String> healthy = new HashSet<>();
+        for (Map.Entry<String, Future<Boolean>> result : results.entrySet()) {
             try {
-                healthChecker.checkHealth(fullUrl);
-                healthyServers.add(url);
-            } catch (HttpClientException ignored) {
+                if (result.getValue().get()) {
+                    healthy.add(result.getKey());
+                }
+            } catch (ExecutionException e) {
+                log.warn("Health check of {} failed", result.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             }
+            metrics.backendHealth(result.getKey(), healthy.contains(result.getKey()));
         }
-        if(healthyServers.isEmpty()) {
+
+        synchronized (this) {
+            if (check < published) {
+                // Пока шли проверки, успела завершиться более поздняя
+                return;
+            }
+            published = check;
+            healthyUrls = Set.copyOf(healthy);
+            publish(runtimeConfig.current());
+        }
+        if(cachedHealthyServers.isEmpty()) {
             log.warn("No live servers found");
         } else {
-            log.info("Healthy servers: {}", healthyServers);
+            log.info("Healthy servers: {}", cachedHealthyServers);
+        }
+    }
+
+    private boolean probe(String url) {
+        try {
+            healthChecker.checkHealth(url + appConfig.health().endpoint());
+            return true;
+        } catch (HttpClientException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Пересобирает списки, из которых выбирают балансировщики: живые и не дренируемые backend
+     */
+    private void publish(RuntimeSettings settings) {
+        Set<String> servers = servers(settings);
+        // Удалённый из настроек backend больше не дренируется: вернувшись, он начнёт с чистого листа
+        this.draining = Set.copyOf(this.draining.stream().filter(servers::contains).toList());
+        Set<String> healthy = healthyUrls;
+        Set<String> draining = this.draining;
+        Predicate<String> available = url -> healthy.contains(url) && !draining.contains(url);
+        Map<String, List<String>> healthyPools = new HashMap<>();
+        settings.pools().forEach((name, pool) -> healthyPools.put(name, filter(pool.urls(), available)));
+        cachedHealthyServers = filter(settings.backends(), available);
+        cachedHealthyPools = Map.copyOf(healthyPools);
+    }
+
+    /**
+     * Наблюдатель вызывается под блокировкой RuntimeConfigService, поэтому сетевых проверок здесь нет:
+     * удалённые backend сразу уходят из списков, а новые проверяются в фоне и входят в ротацию,
+     * как только ответят
+     */
+    void onSettingsChanged(@Observes @Priority(1) RuntimeSettings settings) {
+        synchronized (this) {
+            publish(settings);
         }
-        cachedHealthyServers = List.copyOf(healthyServers);
+        probes.submit(this::checkHealth);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        probes.shutdownNow();
+    }
+
+    private static Set<String> servers(RuntimeSettings settings) {
+        Set<String> servers = new LinkedHashSet<>(settings.backends());
+        settings.pools().values().forEach(pool -> servers.addAll(pool.urls()));
+        return servers;
+    }
+
+    private static List<String> filter(List<String> urls, Predicate<String> available) {
+        return urls.stream().filter(available).toList();
     }
 }
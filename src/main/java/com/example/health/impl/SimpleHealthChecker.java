@@ -4,6 +4,7 @@ import com.example.client.HttpClientException;
 import com.example.client.HttpResponse;
 import com.example.config.AppConfig;
 import com.example.health.HealthChecker;
+import io.vertx.core.MultiMap;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -39,7 +40,11 @@ public class SimpleHealthChecker implements HealthChecker {
 
     @Override
     public HttpResponse checkHealth(String serverUrl) throws HttpClientException {
-        return httpClient.get(serverUrl, Map.of());
+        HttpResponse response = httpClient.get(serverUrl, MultiMap.caseInsensitiveMultiMap(), appConfig.health().timeout());
+        if (response.getStatusCode() < 200 || response.getStatusCode() >= 300) {
+            throw new HttpClientException("Health check failed: HTTP " + response.getStatusCode());
+        }
+        return response;
     }
 
     @Override
@@ -0,0 +1,12 @@
+package com.example.hedging;
+
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+
+@FunctionalInterface
+public interface HedgedCall {
+    /**
+     * Выполняет запрос к указанному backend
+     */
+    HttpResponse execute(String serverUrl) throws HttpClientException;
+}
@@ -0,0 +1,56 @@
+package com.example.hedging;
+
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HedgedResult {
+
+    private String serverUrl;
+    private HttpResponse response;
+    private boolean hedged;
+    private final Map<String, HttpClientException> failures = new LinkedHashMap<>();
+
+    /**
+     * Сервер, чей ответ выбран: первый окончательный, иначе последний полученный; null если ответов нет
+     */
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public void setServerUrl(String serverUrl) {
+        this.serverUrl = serverUrl;
+    }
+
+    public HttpResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(HttpResponse response) {
+        this.response = response;
+    }
+
+    /**
+     * Был ли отправлен дублирующий запрос
+     */
+    public boolean isHedged() {
+        return hedged;
+    }
+
+    public void setHedged(boolean hedged) {
+        this.hedged = hedged;
+    }
+
+    /**
+     * Сетевые ошибки серверов (отменённые запросы сюда не попадают)
+     */
+    public Map<String, HttpClientException> getFailures() {
+        return failures;
+    }
+
+    public void addFailure(String serverUrl, HttpClientException error) {
+        failures.put(serverUrl, error);
+    }
+}
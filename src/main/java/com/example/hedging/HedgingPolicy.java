@@ -0,0 +1,24 @@
+package com.example.hedging;
+
+public interface HedgingPolicy {
+
+    /**
+     * Через сколько наносекунд без ответа от сервера отправлять hedge-запрос
+     */
+    long hedgeDelayNanos(String serverUrl);
+
+    /**
+     * Учитывает обычный запрос в бюджете хеджирования
+     */
+    void recordRequest();
+
+    /**
+     * Пытается получить разрешение на hedge-запрос из бюджета
+     */
+    boolean tryAcquireHedge();
+
+    /**
+     * Записывает латентность успешного ответа сервера, для отменённой попытки — время до отмены
+     */
+    void recordLatency(String serverUrl, long latencyNanos);
+}
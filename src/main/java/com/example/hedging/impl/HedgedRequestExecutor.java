@@ -0,0 +1,123 @@
+package com.example.hedging.impl;
+
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.example.hedging.HedgedCall;
+import com.example.hedging.HedgedResult;
+import com.example.hedging.HedgingPolicy;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет идемпотентный запрос с хеджированием: если основной backend не ответил за hedge delay,
+ * тот же запрос уходит на запасной backend, побеждает первый окончательный ответ, проигравший отменяется
+ */
+@ApplicationScoped
+public class HedgedRequestExecutor {
+
+    @Inject
+    HedgingPolicy hedgingPolicy;
+
+    // Виртуальные потоки: попытка блокируется на I/O и почти ничего не стоит
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param primaryUrl          основной backend
+     * @param hedgeServerSelector выбирает запасной backend, null если выбрать некого
+     * @param call                запрос к backend
+     * @param isFinal             окончательный ли ответ; неокончательный (например 503) ждёт второй попытки
+     */
+    public HedgedResult execute(String primaryUrl, Supplier<String> hedgeServerSelector, HedgedCall call,
+                                Predicate<HttpResponse> isFinal) {
+        hedgingPolicy.recordRequest();
+
+        HedgedResult result = new HedgedResult();
+        CompletionService<Attempt> completion = new ExecutorCompletionService<>(executor);
+        List<InFlight> inFlight = new ArrayList<>(2);
+        inFlight.add(submit(completion, primaryUrl, call));
+
+        try {
+            Future<Attempt> done = completion.poll(hedgingPolicy.hedgeDelayNanos(primaryUrl), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                String hedgeUrl = hedgingPolicy.tryAcquireHedge() ? hedgeServerSelector.get() : null;
+                if (hedgeUrl != null) {
+                    inFlight.add(submit(completion, hedgeUrl, call));
+                    result.setHedged(true);
+                }
+                done = completion.take();
+            }
+
+            for (int pending = inFlight.size(); pending > 0; pending--) {
+                Attempt attempt = done.get();
+                if (attempt.error() == null) {
+                    hedgingPolicy.recordLatency(attempt.serverUrl(), attempt.latencyNanos());
+                    result.setServerUrl(attempt.serverUrl());
+                    result.setResponse(attempt.response());
+                    if (isFinal.test(attempt.response())) {
+                        return result;
+                    }
+                } else {
+                    result.addFailure(attempt.serverUrl(), attempt.error());
+                }
+                if (pending > 1) {
+                    done = completion.take();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.addFailure(primaryUrl, new HttpClientException("Interrupted while waiting for " + primaryUrl, e));
+        } catch (ExecutionException e) {
+            result.addFailure(primaryUrl, new HttpClientException("Hedged request failed", e.getCause()));
+        } finally {
+            // Отменяем проигравший запрос: прерывание потока обрывает HTTP обмен. Его время до отмены —
+            // цензурированный сэмпл (нижняя граница латентности): без него медленные ответы, которые всегда
+            // проигрывают hedge, выпадают из окна и перцентиль ползёт вниз
+            for (InFlight attempt : inFlight) {
+                if (attempt.future().cancel(true)) {
+                    hedgingPolicy.recordLatency(attempt.serverUrl(), System.nanoTime() - attempt.startNanos());
+                }
+            }
+        }
+        return result;
+    }
+
+    private InFlight submit(CompletionService<Attempt> completion, String serverUrl, HedgedCall call) {
+        return new InFlight(serverUrl, System.nanoTime(), completion.submit(() -> attempt(serverUrl, call)));
+    }
+
+    private Attempt attempt(String serverUrl, HedgedCall call) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse response = call.execute(serverUrl);
+            return new Attempt(serverUrl, response, null, System.nanoTime() - start);
+        } catch (HttpClientException e) {
+            return new Attempt(serverUrl, null, e, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            return new Attempt(serverUrl, null, new HttpClientException(e.getMessage(), e), System.nanoTime() - start);
+        }
+    }
+
+    private record InFlight(String serverUrl, long startNanos, Future<Attempt> future) {
+    }
+
+    private record Attempt(String serverUrl, HttpResponse response, HttpClientException error, long latencyNanos) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.hedging.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Скользящее окно последних латентностей одного backend.
+ * Перцентиль пересчитывается раз в RECOMPUTE_EVERY записей, чтение — одно volatile поле
+ */
+class LatencyWindow {
+
+    static final int SIZE = 256;
+    static final int MIN_SAMPLES = 32;
+    private static final int MASK = SIZE - 1;
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples = new long[SIZE];
+    private final AtomicInteger index = new AtomicInteger();
+    private final double percentile;
+
+    private volatile long percentileNanos = -1;
+
+    LatencyWindow(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long latencyNanos) {
+        int i = index.getAndIncrement();
+        // Гонки на записи в массив допустимы: окно статистическое, потерянный сэмпл не важен
+        samples[i & MASK] = latencyNanos;
+        if ((i + 1) % RECOMPUTE_EVERY == 0 && i + 1 >= MIN_SAMPLES) {
+            recompute(Math.min(i + 1, SIZE));
+        }
+    }
+
+    /**
+     * @return перцентиль в наносекундах или -1, если сэмплов пока недостаточно
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(int count) {
+        long[] copy = Arrays.copyOf(samples, count);
+        Arrays.sort(copy);
+        int rank = (int) Math.ceil(percentile * count) - 1;
+        percentileNanos = copy[Math.max(0, Math.min(rank, count - 1))];
+    }
+}
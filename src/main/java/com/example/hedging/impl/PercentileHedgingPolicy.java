@@ -0,0 +1,61 @@
+package com.example.hedging.impl;
+
+import com.example.budget.RequestBudget;
+import com.example.config.AppConfig;
+import com.example.hedging.HedgingPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хеджирует запрос, если backend не ответил за наблюдаемый перцентиль своей латентности
+ * (по умолчанию p95). Пока статистики нет — используется задержка из конфигурации
+ */
+@ApplicationScoped
+public class PercentileHedgingPolicy implements HedgingPolicy {
+
+    private static final int BUDGET_CAPACITY = 10;
+
+    @Inject
+    AppConfig appConfig;
+
+    private long defaultDelayNanos;
+    private double percentile;
+    private RequestBudget budget;
+
+    private final ConcurrentHashMap<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        this.defaultDelayNanos = appConfig.hedging().delay().toNanos();
+        this.percentile = appConfig.hedging().percentile();
+        this.budget = new RequestBudget(appConfig.hedging().budgetRatio(), BUDGET_CAPACITY);
+    }
+
+    @Override
+    public long hedgeDelayNanos(String serverUrl) {
+        LatencyWindow window = windows.get(serverUrl);
+        if (window == null) {
+            return defaultDelayNanos;
+        }
+        long observed = window.percentileNanos();
+        return observed > 0 ? observed : defaultDelayNanos;
+    }
+
+    @Override
+    public void recordRequest() {
+        budget.deposit();
+    }
+
+    @Override
+    public boolean tryAcquireHedge() {
+        return budget.tryWithdraw();
+    }
+
+    @Override
+    public void recordLatency(String serverUrl, long latencyNanos) {
+        windows.computeIfAbsent(serverUrl, k -> new LatencyWindow(percentile)).record(latencyNanos);
+    }
+}
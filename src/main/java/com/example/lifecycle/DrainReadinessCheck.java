@@ -0,0 +1,25 @@
+package com.example.lifecycle;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * /q/health/ready: DOWN с начала остановки, чтобы балансировщик перестал присылать новые соединения
+ */
+@Readiness
+@ApplicationScoped
+public class DrainReadinessCheck implements HealthCheck {
+
+    @Inject
+    GracefulShutdown gracefulShutdown;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("drain")
+                .status(!gracefulShutdown.isDraining())
+                .build();
+    }
+}
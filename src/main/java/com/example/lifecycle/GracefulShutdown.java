@@ -0,0 +1,43 @@
+package com.example.lifecycle;
+
+import io.quarkus.runtime.ShutdownDelayInitiatedEvent;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.jboss.logging.Logger;
+
+/**
+ * Состояние остановки. По SIGTERM Quarkus выдерживает quarkus.shutdown.delay: прокси ещё обслуживает запросы,
+ * но readiness уже DOWN, а каждый ответ закрывает keep-alive соединение — клиенты и балансировщик уходят
+ * на другие экземпляры. Затем новые запросы получают 503, начатые дорабатывают до quarkus.shutdown.timeout,
+ * и только после этого закрываются клиенты к backend и сбрасывается кеш
+ */
+@ApplicationScoped
+public class GracefulShutdown {
+
+    private static final Logger LOG = Logger.getLogger(GracefulShutdown.class);
+
+    private volatile boolean draining;
+
+    void onShutdownDelay(@Observes ShutdownDelayInitiatedEvent event) {
+        startDraining();
+    }
+
+    /**
+     * Без задержки остановки (quarkus.shutdown.delay не задан) дренаж начинается здесь
+     */
+    void onShutdown(@Observes ShutdownEvent event) {
+        startDraining();
+    }
+
+    void startDraining() {
+        if (!draining) {
+            draining = true;
+            LOG.info("Draining: readiness DOWN, keep-alive connections close after the current response");
+        }
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+}
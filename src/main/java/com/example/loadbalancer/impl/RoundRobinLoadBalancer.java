@@ -3,11 +3,13 @@ package com.example.loadbalancer.impl;
 import com.example.client.HttpClientException;
 import com.example.health.impl.ScheduledHealthCheckService;
 import com.example.loadbalancer.LoadBalancer;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @ApplicationScoped
 public class RoundRobinLoadBalancer implements LoadBalancer {
@@ -17,9 +19,27 @@ public class RoundRobinLoadBalancer implements LoadBalancer {
     @Inject
     ScheduledHealthCheckService scheduledHealthCheckService;
 
+    private Supplier<List<String>> healthyServers;
+
+    public RoundRobinLoadBalancer() {
+    }
+
+    /**
+     * Отдельный балансировщик для upstream pool
+     * @param healthyServers живые серверы пула
+     */
+    public RoundRobinLoadBalancer(Supplier<List<String>> healthyServers) {
+        this.healthyServers = healthyServers;
+    }
+
+    @PostConstruct
+    void init() {
+        this.healthyServers = scheduledHealthCheckService::getCachedHealthyServers;
+    }
+
     @Override
     public String selectServer() throws HttpClientException {
-        List<String> liveServers = scheduledHealthCheckService.getCachedHealthyServers();
+        List<String> liveServers = healthyServers.get();
         if(liveServers.isEmpty()) {
             throw new HttpClientException("No live servers found");
         }
@@ -0,0 +1,259 @@
+package com.example.metrics;
+
+import com.example.circuitbreaker.CircuitState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Метрики прокси в Micrometer (экспорт Prometheus на /q/metrics).
+ * Длительности пишутся в наносекундах в таймеры с publishPercentileHistogram: Prometheus получает
+ * гистограмму с фиксированными корзинами (_bucket), перцентили считаются на его стороне.
+ * Метры создаются один раз на сочетание тегов и кешируются во вложенных картах по тегам, исход — индекс
+ * в массиве: на горячем пути ни склейки строк, ни аллокаций, только поиск в картах и запись.
+ * Теги ограничены по мощности: pool и backend из конфигурации, статус — классом (2xx, 5xx)
+ */
+@ApplicationScoped
+public class ProxyMetrics {
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(60);
+    // Исходы: классы статуса по индексу status / 100 - 1, затем ошибка соединения и нестандартный статус
+    private static final String[] OUTCOMES = {"1xx", "2xx", "3xx", "4xx", "5xx", "error", "other"};
+    private static final int ERROR = 5;
+    private static final int OTHER = 6;
+    private static final String IN_FLIGHT = "proxy.upstream.in.flight";
+
+    @Inject
+    MeterRegistry registry;
+
+    // pool → method и pool → backend; таймеры по исходу внутри OutcomeTimers
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, OutcomeTimers>> requestTimers =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, OutcomeTimers>> upstreamTimers =
+            new ConcurrentHashMap<>();
+    // backend → попытки в полёте
+    private final ConcurrentHashMap<String, AtomicInteger> inFlightGauges = new ConcurrentHashMap<>();
+    // pool → счётчик; для shed — pool → priority → счётчик
+    private final ConcurrentHashMap<String, Counter> retryCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> rateLimitedCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Counter>> shedCounters =
+            new ConcurrentHashMap<>();
+    // Редкие события (переходы circuit, проверки здоровья): ключ склеивается, горячего пути здесь нет
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Полное время обработки запроса прокси: от входа в конвейер до готового ответа
+     */
+    public void recordRequest(String pool, String method, int status, long nanos) {
+        ConcurrentHashMap<String, OutcomeTimers> byMethod = child(requestTimers, pool);
+        OutcomeTimers timers = byMethod.get(method);
+        if (timers == null) {
+            timers = byMethod.computeIfAbsent(method, k -> new OutcomeTimers(outcome -> Timer
+                    .builder("proxy.requests")
+                    .description("End-to-end proxy latency")
+                    .tag("pool", pool)
+                    .tag("method", method)
+                    .tag("status", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED)
+                    .maximumExpectedValue(MAX_EXPECTED)
+                    .register(registry)));
+        }
+        timers.get(outcome(status)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Одна попытка к backend; status < 0 — ошибка соединения или таймаут
+     */
+    public void recordUpstream(String pool, String backend, int status, long nanos) {
+        ConcurrentHashMap<String, OutcomeTimers> byBackend = child(upstreamTimers, pool);
+        OutcomeTimers timers = byBackend.get(backend);
+        if (timers == null) {
+            timers = byBackend.computeIfAbsent(backend, k -> new OutcomeTimers(outcome -> Timer
+                    .builder("proxy.upstream.requests")
+                    .description("Upstream attempt latency per backend")
+                    .tag("pool", pool)
+                    .tag("backend", backend)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED)
+                    .maximumExpectedValue(MAX_EXPECTED)
+                    .register(registry)));
+        }
+        timers.get(status < 0 ? ERROR : outcome(status)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Начало попытки к backend: число запросов в полёте (по нему видно, что дренируемый backend освободился)
+     */
+    public void upstreamStarted(String backend) {
+        inFlightGauge(backend).incrementAndGet();
+    }
+
+    public void upstreamFinished(String backend) {
+        inFlightGauge(backend).decrementAndGet();
+    }
+
+    /**
+     * Попытки к backend, которые сейчас в полёте
+     */
+    public int inFlight(String backend) {
+        AtomicInteger value = inFlightGauges.get(backend);
+        return value == null ? 0 : value.get();
+    }
+
+    public void retry(String pool) {
+        counter(retryCounters, "proxy.retries", "Retries after a failed upstream attempt", pool).increment();
+    }
+
+    public void rateLimited(String pool) {
+        counter(rateLimitedCounters, "proxy.rate.limited", "Requests rejected by the rate limiter", pool).increment();
+    }
+
+    /**
+     * Запрос отклонён admission control: прокси перегружен
+     */
+    public void shed(String pool, String priority) {
+        ConcurrentHashMap<String, Counter> byPriority = child(shedCounters, pool);
+        Counter counter = byPriority.get(priority);
+        if (counter == null) {
+            counter = byPriority.computeIfAbsent(priority, k -> Counter.builder("proxy.shed")
+                    .description("Requests rejected by admission control while the proxy is overloaded")
+                    .tag("pool", pool)
+                    .tag("priority", priority)
+                    .register(registry));
+        }
+        counter.increment();
+    }
+
+    /**
+     * Состояние admission control: запросы в обработке и сглаженное ожидание worker потока
+     */
+    public void admission(IntSupplier inFlight, LongSupplier queueDelayNanos) {
+        // Gauge держит объект слабой ссылкой, а на лямбды больше никто не ссылается
+        Gauge.builder("proxy.admission.in.flight", inFlight, IntSupplier::getAsInt)
+                .description("Proxied requests admitted and not yet completed")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("proxy.admission.queue.delay", queueDelayNanos, delay -> delay.getAsLong() / 1e9)
+                .description("Smoothed wait for a worker thread")
+                .baseUnit("seconds")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * Переход circuit breaker: счётчик переходов и текущее состояние (0 CLOSED, 1 HALF_OPEN, 2 OPEN)
+     */
+    public void circuitTransition(String pool, String backend, CircuitState from, CircuitState to) {
+        counters.computeIfAbsent("transition|" + pool + '|' + backend + '|' + to, k -> Counter
+                        .builder("proxy.circuit.transitions")
+                        .description("Circuit breaker state transitions")
+                        .tag("pool", pool)
+                        .tag("backend", backend)
+                        .tag("to", to.name())
+                        .register(registry))
+                .increment();
+        gauge("proxy.circuit.state", "Circuit breaker state: 0 closed, 1 half-open, 2 open", pool, backend)
+                .set(stateValue(to));
+    }
+
+    /**
+     * Результат проверки здоровья backend: 1 — жив, 0 — нет
+     */
+    public void backendHealth(String backend, boolean healthy) {
+        gauge("proxy.backend.up", "Backend health check result", null, backend).set(healthy ? 1 : 0);
+    }
+
+    /**
+     * Сначала поиск без лямбды: захватывающая лямбда computeIfAbsent аллоцировалась бы на каждый вызов
+     */
+    private Counter counter(ConcurrentHashMap<String, Counter> byPool, String name, String description, String pool) {
+        Counter counter = byPool.get(pool);
+        return counter != null ? counter : byPool.computeIfAbsent(pool, k -> Counter.builder(name)
+                .description(description)
+                .tag("pool", pool)
+                .register(registry));
+    }
+
+    private AtomicInteger inFlightGauge(String backend) {
+        AtomicInteger value = inFlightGauges.get(backend);
+        return value != null ? value : inFlightGauges.computeIfAbsent(backend,
+                k -> register(IN_FLIGHT, "Upstream attempts in flight per backend", null, backend));
+    }
+
+    private AtomicInteger gauge(String name, String description, String pool, String backend) {
+        return gauges.computeIfAbsent(name + '|' + pool + '|' + backend,
+                k -> register(name, description, pool, backend));
+    }
+
+    private AtomicInteger register(String name, String description, String pool, String backend) {
+        AtomicInteger value = new AtomicInteger();
+        Gauge.Builder<AtomicInteger> builder = Gauge.builder(name, value, AtomicInteger::get)
+                .description(description)
+                .tag("backend", backend);
+        if (pool != null) {
+            builder.tag("pool", pool);
+        }
+        builder.register(registry);
+        return value;
+    }
+
+    private static <V> ConcurrentHashMap<String, V> child(ConcurrentHashMap<String, ConcurrentHashMap<String, V>> map,
+                                                          String key) {
+        ConcurrentHashMap<String, V> child = map.get(key);
+        return child != null ? child : map.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Индекс исхода в OUTCOMES по HTTP статусу
+     */
+    private static int outcome(int status) {
+        int index = status / 100 - 1;
+        return index >= 0 && index < ERROR ? index : OTHER;
+    }
+
+    private static int stateValue(CircuitState state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> 1;
+            case OPEN -> 2;
+        };
+    }
+
+    /**
+     * Таймеры одного сочетания тегов по исходу. Создаются лениво; повторная регистрация в Micrometer
+     * возвращает тот же метр, поэтому гонка двух потоков за пустую ячейку безвредна
+     */
+    private static final class OutcomeTimers {
+        private final AtomicReferenceArray<Timer> timers = new AtomicReferenceArray<>(OUTCOMES.length);
+        private final Function<String, Timer> factory;
+
+        OutcomeTimers(Function<String, Timer> factory) {
+            this.factory = factory;
+        }
+
+        Timer get(int outcome) {
+            Timer timer = timers.get(outcome);
+            if (timer == null) {
+                timer = factory.apply(OUTCOMES[outcome]);
+                timers.set(outcome, timer);
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.proxy;
+
+import io.vertx.core.MultiMap;
+
+/**
+ * Ответ прокси клиенту, не зависящий от слоя обработки запроса (JAX-RS ресурс или Vert.x route)
+ */
+public class ProxyResult {
+    private int statusCode;
+    private String body;
+    private byte[] compressedBody;
+    private MultiMap headers;
+    private String backend;
+    private int attempts;
+    private String reason;
+
+    public ProxyResult(int statusCode, MultiMap headers, String body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    /**
+     * Тело в gzip (заголовок Content-Encoding уже выставлен); если задано, body равен null
+     */
+    public byte[] getCompressedBody() {
+        return compressedBody;
+    }
+
+    public void setCompressedBody(byte[] compressedBody) {
+        this.compressedBody = compressedBody;
+    }
+
+    public MultiMap getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(MultiMap headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Backend, вернувший ответ, или null для ответа из кеша и ответов самого прокси
+     */
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Число попыток к backend; 0 для ответа из кеша и ответов самого прокси
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Причина отказа, пропуска backend или отказа от повтора для access log, null если её нет
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.proxy;
+
+import com.example.admission.AdmissionController;
+import com.example.admission.PriorityClass;
+import com.example.config.AppConfig;
+import com.example.lifecycle.GracefulShutdown;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Catch-all route на уровне Vert.x router: проксирует любой путь, минуя JAX-RS.
+ * Путь и query уходят на backend в исходном виде (request.uri()), без разбора и перекодирования.
+ * Тело запроса буферизуется не больше app.routing.max-body-size и передаётся как текст UTF-8
+ */
+@ApplicationScoped
+public class ProxyRouter {
+
+    @Inject
+    ProxyService proxyService;
+
+    @Inject
+    AppConfig config;
+
+    @Inject
+    GracefulShutdown gracefulShutdown;
+
+    @Inject
+    AdmissionController admission;
+
+    private static final BodyTooLargeException BODY_TOO_LARGE = new BodyTooLargeException();
+
+    private String[] excludedPrefixes;
+    private long maxBodySize;
+
+    void init(@Observes Router router) {
+        if (!config.routing().catchAll()) {
+            return;
+        }
+        excludedPrefixes = config.routing().excludedPrefixes().toArray(String[]::new);
+        maxBodySize = config.routing().maxBodySize().asLongValue();
+        router.route().handler(this::handle);
+    }
+
+    void handle(RoutingContext ctx) {
+        HttpServerRequest request = ctx.request();
+        if (isExcluded(request.path())) {
+            ctx.next();
+            return;
+        }
+
+        String method = request.method().name();
+        String uri = request.uri();
+        String clientIp = request.remoteAddress().host();
+        if (declaredLength(request) > maxBodySize) {
+            // Заявленная длина больше лимита: отвечаем сразу, тело не читаем и места в admission не занимаем
+            rejectTooLarge(request, ctx.response(), proxyService.bodyTooLarge(method, uri, clientIp, 0));
+            return;
+        }
+        PriorityClass priority = proxyService.priority(uri, request.headers());
+        if (!admission.tryAcquire(priority)) {
+            // Отказ прямо на event loop: ни буфера тела, ни worker потока; тело запроса читается и отбрасывается
+            request.resume();
+            write(request, ctx.response(), proxyService.shed(method, uri, request.headers(), clientIp, priority, 0));
+            return;
+        }
+        long start = System.nanoTime();
+        readBody(request)
+                .compose(buffer -> {
+                    String body = buffer.length() == 0 ? null : buffer.toString();
+                    long queuedAt = System.nanoTime();
+                    // Конвейер блокирующий (retry, backoff, hedging) — уходит с event loop на worker
+                    return ctx.vertx().executeBlocking(() -> {
+                        long queued = System.nanoTime() - queuedAt;
+                        if (!admission.onStart(priority, queued)) {
+                            return proxyService.shed(method, uri, request.headers(), clientIp, priority, queued);
+                        }
+                        return proxyService.forward(method, uri, body, request.headers(), clientIp);
+                    }, false);
+                })
+                // Место освобождается при любом исходе, включая обрыв соединения до конца тела
+                .onComplete(ignored -> admission.release())
+                .onSuccess(result -> write(request, ctx.response(), result))
+                .onFailure(e -> {
+                    if (e == BODY_TOO_LARGE) {
+                        rejectTooLarge(request, ctx.response(), proxyService.bodyTooLarge(method, uri, clientIp,
+                                System.nanoTime() - start));
+                    } else {
+                        ctx.fail(e);
+                    }
+                });
+        // Router может приостановить запрос до назначения обработчика тела
+        request.resume();
+    }
+
+    /**
+     * Читает тело запроса, пока оно укладывается в лимит; chunked тело без Content-Length проверяется по мере чтения
+     */
+    private Future<Buffer> readBody(HttpServerRequest request) {
+        Promise<Buffer> promise = Promise.promise();
+        Buffer body = Buffer.buffer();
+        request.handler(chunk -> {
+            if (body.length() + chunk.length() > maxBodySize) {
+                promise.tryFail(BODY_TOO_LARGE);
+            } else if (!promise.future().isComplete()) {
+                body.appendBuffer(chunk);
+            }
+        });
+        request.exceptionHandler(promise::tryFail);
+        request.endHandler(ignored -> promise.tryComplete(body));
+        return promise.future();
+    }
+
+    private static long declaredLength(HttpServerRequest request) {
+        String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 413 с закрытием соединения: непрочитанный остаток тела не должен стать следующим запросом
+     */
+    private void rejectTooLarge(HttpServerRequest request, HttpServerResponse response, ProxyResult result) {
+        if (response.closed()) {
+            return;
+        }
+        response.setStatusCode(result.getStatusCode())
+                .putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE)
+                .end(result.getBody())
+                .onComplete(ignored -> request.connection().close());
+    }
+
+    private void write(HttpServerRequest request, HttpServerResponse response, ProxyResult result) {
+        if (response.closed()) {
+            return;
+        }
+        response.setStatusCode(result.getStatusCode());
+        response.headers().addAll(result.getHeaders());
+        boolean closeConnection = gracefulShutdown.isDraining();
+        if (closeConnection) {
+            // Следующий запрос клиент отправит по новому соединению — уже на другой экземпляр
+            response.putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE);
+        }
+        Future<Void> written;
+        if (result.getCompressedBody() != null) {
+            written = response.end(Buffer.buffer(result.getCompressedBody()));
+        } else if (result.getBody() != null) {
+            written = response.end(result.getBody());
+        } else {
+            written = response.end();
+        }
+        if (closeConnection) {
+            written.onComplete(ignored -> request.connection().close());
+        }
+    }
+
+    /**
+     * Путь исключён, если совпадает с префиксом целиком или продолжается после него новым сегментом
+     */
+    boolean isExcluded(String path) {
+        for (String prefix : excludedPrefixes) {
+            if (path.startsWith(prefix)
+                    && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Тело длиннее лимита: чтение прерывается, клиент получает 413. Без stack trace — это не ошибка прокси
+     */
+    private static final class BodyTooLargeException extends RuntimeException {
+        BodyTooLargeException() {
+            super("Request body is too large", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,672 @@
+package com.example.proxy;
+
+import com.example.accesslog.AccessLog;
+import com.example.admission.PriorityClass;
+import com.example.cache.CachedResponse;
+import com.example.client.HttpClient;
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.example.client.ProxyHeaders;
+import com.example.compression.ResponseCompressor;
+import com.example.config.AppConfig;
+import com.example.health.HealthChecker;
+import com.example.hedging.HedgedResult;
+import com.example.hedging.impl.HedgedRequestExecutor;
+import com.example.metrics.ProxyMetrics;
+import com.example.retry.RetryPolicy;
+import com.example.routing.RouteRegistry;
+import com.example.routing.RouteTable;
+import com.example.routing.UpstreamPool;
+import com.example.tracing.ProxyTracer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.vertx.core.MultiMap;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Конвейер проксирования: rate limit, кеш, retry/failover/hedging и сборка ответа клиенту.
+ * Не зависит от слоя, принявшего запрос: его вызывают и JAX-RS ресурс /proxy, и catch-all Vert.x route.
+ * Вызов блокирующий — выполнять на worker потоке
+ */
+@ApplicationScoped
+public class ProxyService {
+
+    @Inject
+    HttpClient httpClient;
+
+    @Inject
+    RouteRegistry routeRegistry;
+
+    @Inject
+    HealthChecker healthChecker;
+
+    @Inject
+    HedgedRequestExecutor hedgedRequestExecutor;
+
+    @Inject
+    ResponseCompressor compressor;
+
+    @Inject
+    RetryPolicy retryPolicy;
+
+    @Inject
+    ProxyMetrics metrics;
+
+    @Inject
+    AccessLog accessLog;
+
+    @Inject
+    ProxyTracer tracer;
+
+    @Inject
+    AppConfig config;
+
+    private static final long MIN_ATTEMPT_TIMEOUT_NANOS = Duration.ofMillis(1).toNanos();
+
+    private static final String HOST = "Host";
+    private static final String X_CACHE = "X-Cache";
+    private static final String AGE = "Age";
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String HIT = "HIT";
+    private static final String MISS = "MISS";
+    private static final String ALLOW = "Allow";
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String X_RATE_LIMIT_LIMIT = "X-RateLimit-Limit";
+    private static final String X_RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    private static final String X_RATE_LIMIT_RESET = "X-RateLimit-Reset";
+
+    private static final String PREFETCH_CLIENT = "127.0.0.1";
+
+    // Причины для access log: вместо строки лога на потоке запроса — поле записи
+    private static final String METHOD_NOT_ALLOWED = "method_not_allowed";
+    private static final String INVALID_TARGET = "invalid_target";
+    private static final String SHED = "shed";
+    private static final String BODY_TOO_LARGE = "body_too_large";
+    private static final String RATE_LIMITED = "rate_limited";
+    private static final String CIRCUIT_OPEN = "circuit_open";
+    private static final String UPSTREAM_FAILURE = "upstream_failure";
+    private static final String NOT_IDEMPOTENT = "not_idempotent";
+    private static final String RETRY_BUDGET_EXHAUSTED = "retry_budget_exhausted";
+    private static final String DEADLINE_EXCEEDED = "deadline_exceeded";
+    private static final String ALL_BACKENDS_FAILED = "all_backends_failed";
+
+    static final String SUPPORTED_METHODS = "GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS";
+
+    /**
+     * Проксирует запрос клиента в upstream pool, выбранный таблицей маршрутов по Host и пути
+     * @param method         HTTP метод
+     * @param uri            путь и query string в исходном виде, как их прислал клиент; ключ кеша
+     * @param body           тело запроса или null
+     * @param requestHeaders заголовки клиента
+     * @param clientIp       IP адрес клиента
+     */
+    public ProxyResult forward(String method, String uri, String body, MultiMap requestHeaders, String clientIp) {
+        long start = System.nanoTime();
+        if (!isSupported(method)) {
+            MultiMap headers = MultiMap.caseInsensitiveMultiMap().add(ALLOW, SUPPORTED_METHODS);
+            ProxyResult result = new ProxyResult(405, headers, "Method " + method + " is not supported");
+            accessLog.log(clientIp, method, uri, 405, System.nanoTime() - start, null, null, null, 0,
+                    METHOD_NOT_ALLOWED);
+            return result;
+        }
+        if (!RequestTarget.isValid(uri)) {
+            // Ошибка клиента: до backend запрос не доходит и его circuit breaker не трогает
+            accessLog.log(clientIp, method, uri, 400, System.nanoTime() - start, null, null, null, 0,
+                    INVALID_TARGET);
+            return new ProxyResult(400, MultiMap.caseInsensitiveMultiMap(), "Invalid request target");
+        }
+
+        UpstreamPool pool = routeRegistry.resolve(requestHeaders.get(HOST), uri);
+        tracer.pool(pool.name());
+        ProxyResult result = forward(pool, method, uri, body, requestHeaders, clientIp);
+        long duration = System.nanoTime() - start;
+        metrics.recordRequest(pool.name(), method, result.getStatusCode(), duration);
+        // Одна запись на запрос: форматирование и запись на диск — в фоновом потоке access log
+        accessLog.log(clientIp, method, uri, result.getStatusCode(), duration, pool.name(), result.getBackend(),
+                result.getHeaders().get(X_CACHE), result.getAttempts(), result.getReason());
+        return result;
+    }
+
+    private ProxyResult forward(UpstreamPool pool, String method, String uri, String body, MultiMap requestHeaders,
+                                String clientIp) {
+        // Проверка rate limit
+        ProxyResult rateLimited = checkRateLimit(pool, clientIp);
+        if (rateLimited != null) {
+            return rateLimited;
+        }
+
+        boolean get = "GET".equals(method);
+        boolean head = "HEAD".equals(method);
+        boolean acceptsGzip = compressor.acceptsGzip(requestHeaders.get(ACCEPT_ENCODING));
+        if (pool.cacheEnabled() && (get || head)) {
+            // HEAD отвечается метаданными закешированного GET без тела
+            Optional<CachedResponse> cached = pool.cache().get(uri);
+            if (cached.isPresent()) {
+                tracer.event("cache.hit", null, null);
+                return buildCachedResult(pool, cached.get(), HIT, head, acceptsGzip, clientIp);
+            }
+        } else if (pool.cacheEnabled() && !isSafe(method)) {
+            // Инвалидация кеша — данные изменились
+            invalidate(pool, uri);
+        }
+
+        boolean cacheable = pool.cacheEnabled() && get;
+        if (cacheable) {
+            tracer.event("cache.miss", null, null);
+        }
+        MultiMap headers = createHeaders(requestHeaders, clientIp);
+        long loadStart = System.nanoTime();
+        Outcome outcome = new Outcome();
+        HttpResponse upstream = executeWithRetry(pool, method, uri, body, headers, outcome);
+        if (cacheable) {
+            pool.cache().recordLoad(System.nanoTime() - loadStart);
+        }
+        if (upstream == null) {
+            return outcome.applyTo(buildUnavailableResult(pool, clientIp));
+        }
+
+        // Сохраняем успешный ответ в кеш и отвечаем из записи: сжатое тело переиспользуется
+        ProxyResult result;
+        if (cacheable && isSuccessful(upstream.getStatusCode())) {
+            CachedResponse cached = cacheResponse(pool, uri, upstream);
+            result = buildCachedResult(pool, cached, MISS, false, acceptsGzip, clientIp);
+        } else {
+            result = buildResult(pool, upstream, cacheable ? MISS : null, acceptsGzip, clientIp);
+        }
+        result.setBackend(upstream.getServerUrl());
+        return outcome.applyTo(result);
+    }
+
+    /**
+     * Класс приоритета запроса: из маршрута; заголовок app.admission.priority-header может только понизить его,
+     * иначе любой клиент объявил бы себя HIGH. Некорректное значение заголовка игнорируется
+     */
+    public PriorityClass priority(String uri, MultiMap requestHeaders) {
+        RouteTable.Target target = routeRegistry.resolveTarget(requestHeaders.get(HOST), uri);
+        String header = requestHeaders.get(config.admission().priorityHeader());
+        if (header == null) {
+            return target.priority();
+        }
+        try {
+            return target.priority().lower(PriorityClass.parse(header));
+        } catch (IllegalArgumentException e) {
+            return target.priority();
+        }
+    }
+
+    /**
+     * Ответ на запрос, отклонённый admission control: 503 с Retry-After, без обращения к backend.
+     * В метрику proxy.requests не попадает — она описывает обслуженные запросы
+     * @param nanos сколько запрос пробыл в прокси до отказа
+     */
+    public ProxyResult shed(String method, String uri, MultiMap requestHeaders, String clientIp,
+                            PriorityClass priority, long nanos) {
+        UpstreamPool pool = routeRegistry.resolve(requestHeaders.get(HOST), uri);
+        metrics.shed(pool.name(), priority.name());
+        accessLog.log(clientIp, method, uri, 503, nanos, pool.name(), null, null, 0, SHED);
+        long retryAfter = Math.max(1, (config.admission().retryAfter().toMillis() + 999) / 1000);
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap().add(RETRY_AFTER, String.valueOf(retryAfter));
+        return new ProxyResult(503, headers, "Proxy is overloaded. Please try again later.");
+    }
+
+    /**
+     * Ответ на запрос с телом больше app.routing.max-body-size: 413 без обращения к backend
+     * @param nanos сколько запрос пробыл в прокси до отказа
+     */
+    public ProxyResult bodyTooLarge(String method, String uri, String clientIp, long nanos) {
+        accessLog.log(clientIp, method, uri, 413, nanos, null, null, null, 0, BODY_TOO_LARGE);
+        return new ProxyResult(413, MultiMap.caseInsensitiveMultiMap(), "Request body is too large");
+    }
+
+    /**
+     * Загружает GET ответ в кеш pool, не проходя rate limit: используется прогревом кеша при старте
+     * @param uri путь и query string, ключ кеша
+     * @return true если ответ уже был в кеше или успешно загружен
+     */
+    public boolean prefetch(String uri) {
+        if (!RequestTarget.isValid(uri)) {
+            return false;
+        }
+        UpstreamPool pool = routeRegistry.resolve(null, uri);
+        if (!pool.cacheEnabled()) {
+            return false;
+        }
+        if (pool.cache().get(uri).isPresent()) {
+            return true;
+        }
+        MultiMap headers = createHeaders(MultiMap.caseInsensitiveMultiMap(), PREFETCH_CLIENT);
+        long loadStart = System.nanoTime();
+        HttpResponse upstream = executeWithRetry(pool, "GET", uri, null, headers, new Outcome());
+        pool.cache().recordLoad(System.nanoTime() - loadStart);
+        if (upstream == null || !isSuccessful(upstream.getStatusCode())) {
+            return false;
+        }
+        cacheResponse(pool, uri, upstream);
+        return true;
+    }
+
+    /**
+     * Изменение ресурса делает устаревшими его самого с подресурсами и любыми query string,
+     * а также родительскую коллекцию: POST /users/1 инвалидирует /users/1/..., /users и /users?page=2.
+     * Изменение корня не сбрасывает весь кеш — только варианты "/"
+     */
+    private static void invalidate(UpstreamPool pool, String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        if (path.isEmpty() || "/".equals(path)) {
+            pool.cache().evictPath("/");
+            return;
+        }
+        pool.cache().evictPrefix(path);
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        int slash = path.lastIndexOf('/', end - 1);
+        if (slash > 0) {
+            pool.cache().evictPath(path.substring(0, slash));
+        }
+    }
+
+    /**
+     * CONNECT (туннель) и TRACE (отражает заголовки клиента, включая cookies) не проксируются
+     */
+    private static boolean isSupported(String method) {
+        return switch (method) {
+            case "GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Безопасные методы не меняют данные на backend и не инвалидируют кеш
+     */
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    /**
+     * Проверяет rate limit для клиента
+     * @param clientIp IP адрес клиента
+     * @return ответ 429 если лимит превышен, иначе null
+     */
+    private ProxyResult checkRateLimit(UpstreamPool pool, String clientIp) {
+        if (!pool.rateLimitEnabled()) {
+            return null;
+        }
+
+        if (!pool.rateLimiter().allowRequest(clientIp)) {
+            metrics.rateLimited(pool.name());
+
+            long resetTime = pool.rateLimiter().getResetTime(clientIp);
+            long retryAfter = resetTime - (System.currentTimeMillis() / 1000);
+
+            MultiMap headers = MultiMap.caseInsensitiveMultiMap()
+                    .add(X_RATE_LIMIT_LIMIT, String.valueOf(pool.requestsPerMinute()))
+                    .add(X_RATE_LIMIT_REMAINING, "0")
+                    .add(X_RATE_LIMIT_RESET, String.valueOf(resetTime))
+                    .add(RETRY_AFTER, String.valueOf(Math.max(1, retryAfter)));
+            ProxyResult result = new ProxyResult(429, headers, "Rate limit exceeded. Please try again later.");
+            result.setReason(RATE_LIMITED);
+            return result;
+        }
+
+        return null;
+    }
+
+    /**
+     * Добавляет заголовки rate limit в ответ клиенту
+     * @param pool upstream pool запроса
+     * @param headers заголовки ответа
+     * @param clientIp IP адрес клиента
+     */
+    private void addRateLimitHeaders(UpstreamPool pool, MultiMap headers, String clientIp) {
+        if (!pool.rateLimitEnabled()) {
+            return;
+        }
+        addRateLimitHeaders(headers, pool.requestsPerMinute(), pool.rateLimiter().getRemaining(clientIp),
+                pool.rateLimiter().getResetTime(clientIp));
+    }
+
+    static void addRateLimitHeaders(MultiMap headers, int limit, long remaining, long resetTime) {
+        headers.add(X_RATE_LIMIT_LIMIT, String.valueOf(limit));
+        headers.add(X_RATE_LIMIT_REMAINING, String.valueOf(remaining));
+        headers.add(X_RATE_LIMIT_RESET, String.valueOf(resetTime));
+    }
+
+    /**
+     * Заголовки ответа клиенту: копия заголовков backend (MultiMap ответа может разделяться с кешем) и X-Cache
+     * @param cacheStatus значение X-Cache или null, если заголовок не нужен
+     */
+    static MultiMap resultHeaders(MultiMap upstream, String cacheStatus) {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap().addAll(upstream);
+        if (cacheStatus != null) {
+            headers.add(X_CACHE, cacheStatus);
+        }
+        return headers;
+    }
+
+    /**
+     * Создает заголовки запроса к backend: end-to-end заголовки клиента за один проход и X-Forwarded-For
+     */
+    private MultiMap createHeaders(MultiMap requestHeaders, String clientIp) {
+        MultiMap headers = ProxyHeaders.copyEndToEnd(requestHeaders);
+        // Тело ответа обрабатывается как текст, поэтому у backend просим identity; сжатием занимается прокси
+        headers.remove(ACCEPT_ENCODING);
+        headers.add(ProxyHeaders.X_FORWARDED_FOR, clientIp);
+        return headers;
+    }
+
+    /**
+     * Выполняет HTTP операцию с retry и failover.
+     * Все попытки укладываются в общий дедлайн запроса, повторы ограничены retry policy и её бюджетом
+     * @param outcome заполняется числом попыток и причиной последнего отказа для access log
+     * @return ответ backend или null, если ни один backend не ответил
+     */
+    private HttpResponse executeWithRetry(UpstreamPool pool, String method, String path, String body,
+                                          MultiMap headers, Outcome outcome) {
+        long deadline = System.nanoTime() + config.timeout().request().toNanos();
+        retryPolicy.recordRequest();
+        // Контекст запроса фиксируется здесь: hedge-попытки выполняются в других потоках
+        Context trace = tracer.current();
+
+        Set<String> triedServers = new HashSet<>();
+        int candidates = pool.healthyServers().get().size();
+        int attempts = 0;
+        HttpResponse lastResponse = null;
+        String lastUrl = null;
+
+        for (int i = 0; i < candidates && attempts < retryPolicy.maxAttempts(); i++) {
+            String url;
+            try {
+                url = pool.loadBalancer().selectServer();
+            } catch (HttpClientException e) {
+                break;  // Нет доступных серверов
+            }
+
+            // Пропускаем уже опробованные
+            if (triedServers.contains(url)) {
+                continue;
+            }
+            triedServers.add(url);
+
+            // Circuit Breaker: пропускаем если circuit открыт
+            if (pool.circuitBreaker().isOpen(url)) {
+                outcome.reason = CIRCUIT_OPEN;
+                tracer.event("circuit.open", url, null);
+                continue;
+            }
+
+            // Повтор: нужен токен из бюджета и пауза, которая укладывается в дедлайн
+            if (attempts > 0 && !awaitRetry(pool, attempts, deadline, outcome)) {
+                break;
+            }
+            int attempt = ++attempts;
+            outcome.attempts = attempt;
+
+            HttpResponse response;
+            if (isHedgeable(method)) {
+                // Hedging: идемпотентный GET дублируется на другой backend, если ответ задерживается
+                HedgedResult hedged = hedgedRequestExecutor.execute(url, () -> selectHedgeServer(pool, triedServers),
+                        target -> send(pool, trace, attempt, method, target, path, body, headers, deadline),
+                        r -> !retryPolicy.isRetryableStatus(method, r.getStatusCode()));
+                hedged.getFailures().forEach((failedUrl, e) -> recordFailure(pool, failedUrl, e.getMessage(), outcome));
+                if (hedged.getResponse() == null) {
+                    continue;
+                }
+                url = hedged.getServerUrl();
+                response = hedged.getResponse();
+            } else {
+                try {
+                    response = send(pool, trace, attempt, method, url, path, body, headers, deadline);
+                } catch (HttpClientException e) {
+                    recordFailure(pool, url, e.getMessage(), outcome);
+                    if (!retryPolicy.isRetryableError(method)) {
+                        outcome.reason = NOT_IDEMPOTENT;
+                        tracer.event("retry.skipped", url, "not idempotent");
+                        break;
+                    }
+                    continue;
+                }
+            }
+
+            // Статус backend — это результат: 4xx и прочие ответы проксируются как есть, без исключений
+            int status = response.getStatusCode();
+            if (pool.circuitBreaker().isFailureStatus(status)) {
+                recordFailure(pool, url, "HTTP " + status, outcome);
+            } else {
+                pool.circuitBreaker().recordSuccess(url);
+            }
+            if (!isSuccessful(status) && retryPolicy.isRetryableStatus(method, status)) {
+                lastResponse = response;
+                lastUrl = url;
+                continue;
+            }
+            return served(url, response);
+        }
+
+        // Повторы исчерпаны: отдаём клиенту последний ответ backend, если он был
+        if (lastResponse != null) {
+            return served(lastUrl, lastResponse);
+        }
+
+        if (outcome.reason == null) {
+            outcome.reason = ALL_BACKENDS_FAILED;
+        }
+        return null;
+    }
+
+    private static boolean isSuccessful(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * Ждёт backoff перед повтором
+     * @return false если бюджет ретраев исчерпан или пауза не укладывается в дедлайн
+     */
+    private boolean awaitRetry(UpstreamPool pool, int retry, long deadline, Outcome outcome) {
+        if (!retryPolicy.tryAcquireRetry()) {
+            outcome.reason = RETRY_BUDGET_EXHAUSTED;
+            tracer.event("retry.skipped", null, "retry budget exhausted");
+            return false;
+        }
+        Duration backoff = retryPolicy.backoff(retry);
+        if (backoff.toNanos() >= deadline - System.nanoTime()) {
+            outcome.reason = DEADLINE_EXCEEDED;
+            tracer.event("retry.skipped", null, "deadline exceeded");
+            return false;
+        }
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        metrics.retry(pool.name());
+        tracer.event("retry", null, null);
+        return true;
+    }
+
+    /**
+     * Одна попытка к backend: свой span с traceparent в заголовках, счётчик запросов в полёте и замер
+     * длительности по backend; ошибка соединения тоже замеряется
+     * @param trace   контекст трассировки запроса
+     * @param attempt номер попытки
+     */
+    private HttpResponse send(UpstreamPool pool, Context trace, int attempt, String method, String url, String path,
+                              String body, MultiMap headers, long deadline) throws HttpClientException {
+        long start = System.nanoTime();
+        int status = -1;
+        Span span = tracer.startAttempt(trace, method, url, path, attempt);
+        metrics.upstreamStarted(url);
+        try {
+            HttpResponse response = httpClient.send(method, url + path, body, tracer.propagate(span, headers),
+                    remaining(deadline));
+            status = response.getStatusCode();
+            tracer.endAttempt(span, status);
+            return response;
+        } catch (HttpClientException | RuntimeException e) {
+            tracer.endAttempt(span, e);
+            throw e;
+        } finally {
+            metrics.upstreamFinished(url);
+            metrics.recordUpstream(pool.name(), url, status, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Сколько времени осталось до дедлайна запроса (не меньше 1ms: нулевой таймаут клиенты не принимают)
+     */
+    private Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(MIN_ATTEMPT_TIMEOUT_NANOS, deadline - System.nanoTime()));
+    }
+
+    private boolean isHedgeable(String method) {
+        return config.hedging().enabled() && ("GET".equals(method) || "HEAD".equals(method));
+    }
+
+    /**
+     * Выбирает запасной backend для hedge-запроса: ещё не опробованный и с закрытым circuit
+     * @return URL сервера или null, если подходящего нет
+     */
+    private String selectHedgeServer(UpstreamPool pool, Set<String> triedServers) {
+        int candidates = pool.healthyServers().get().size();
+        for (int i = 0; i < candidates; i++) {
+            String url;
+            try {
+                url = pool.loadBalancer().selectServer();
+            } catch (HttpClientException e) {
+                return null;
+            }
+            if (!triedServers.contains(url) && !pool.circuitBreaker().isOpen(url)) {
+                triedServers.add(url);
+                return url;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Запоминает backend, вернувший ответ: он попадает в access log
+     */
+    private static HttpResponse served(String url, HttpResponse response) {
+        response.setServerUrl(url);
+        return response;
+    }
+
+    /**
+     * Фиксирует отказ backend: circuit breaker, health checker и причина в access log.
+     * Подробности отказа (backend, сообщение) — в событии трассировки, а не в логе на потоке запроса
+     */
+    private void recordFailure(UpstreamPool pool, String url, String reason, Outcome outcome) {
+        outcome.reason = UPSTREAM_FAILURE;
+        tracer.event("upstream.failure", url, reason);
+
+        // Circuit Breaker: ошибка
+        pool.circuitBreaker().recordFailure(url);
+        healthChecker.markUnhealthy(url);
+    }
+
+    /**
+     * Собирает ответ клиенту из ответа backend: заголовки backend, X-Cache и rate limit
+     * @param cacheStatus значение X-Cache или null, если заголовок не нужен
+     */
+    private ProxyResult buildResult(UpstreamPool pool, HttpResponse upstream, String cacheStatus,
+                                    boolean acceptsGzip, String clientIp) {
+        MultiMap headers = resultHeaders(upstream.getHeaders(), cacheStatus);
+        ProxyResult result = new ProxyResult(upstream.getStatusCode(), headers, upstream.getBody());
+        String body = upstream.getBody();
+        if (body != null && compressor.isCompressible(upstream.getHeaders(), body.length())) {
+            compressor.addVary(headers);
+            if (acceptsGzip) {
+                setCompressedBody(result, compressor.compress(body));
+            }
+        }
+        addRateLimitHeaders(pool, headers, clientIp);
+        return result;
+    }
+
+    /**
+     * Собирает ответ клиенту из кешированного ответа с заголовком X-Cache (и Age для HIT).
+     * Сжатое тело отдаётся как есть, клиенту без gzip — распакованным
+     * @param head ответ на HEAD: без тела, но с Content-Length того тела, которое получил бы GET
+     */
+    private ProxyResult buildCachedResult(UpstreamPool pool, CachedResponse cached, String cacheStatus, boolean head,
+                                          boolean acceptsGzip, String clientIp) {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap().addAll(cached.getHeaders());
+        ProxyResult result = new ProxyResult(cached.getStatusCode(), headers, cached.getBody());
+        if (cached.getCompressedBody() != null) {
+            compressor.addVary(headers);
+            if (acceptsGzip) {
+                setCompressedBody(result, cached.getCompressedBody());
+            } else {
+                result.setBody(compressor.decompress(cached.getCompressedBody()));
+            }
+        }
+        if (head) {
+            int length = result.getCompressedBody() != null ? result.getCompressedBody().length
+                    : result.getBody() == null ? 0 : result.getBody().getBytes(StandardCharsets.UTF_8).length;
+            headers.set(CONTENT_LENGTH, String.valueOf(length));
+            result.setBody(null);
+            result.setCompressedBody(null);
+        }
+        headers.add(X_CACHE, cacheStatus);
+        if (HIT.equals(cacheStatus)) {
+            long ageSeconds = Duration.between(cached.getCachedAt(), Instant.now()).getSeconds();
+            headers.add(AGE, String.valueOf(ageSeconds));
+        }
+        addRateLimitHeaders(pool, headers, clientIp);
+        return result;
+    }
+
+    private void setCompressedBody(ProxyResult result, byte[] compressed) {
+        compressor.markCompressed(result.getHeaders());
+        result.setCompressedBody(compressed);
+        result.setBody(null);
+    }
+
+    private ProxyResult buildUnavailableResult(UpstreamPool pool, String clientIp) {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        addRateLimitHeaders(pool, headers, clientIp);
+        return new ProxyResult(503, headers, "All backend servers are unavailable");
+    }
+
+    /**
+     * Сохраняет ответ в кеш. Сжимаемое тело сжимается один раз и хранится только в gzip.
+     * Заголовки не копируются: MultiMap ответа после проксирования не меняется
+     */
+    private CachedResponse cacheResponse(UpstreamPool pool, String uri, HttpResponse upstream) {
+        CachedResponse cached = new CachedResponse();
+        String body = upstream.getBody();
+        if (body != null && compressor.isCompressible(upstream.getHeaders(), body.length())) {
+            cached.setCompressedBody(compressor.compress(body));
+        } else {
+            cached.setBody(body);
+        }
+        cached.setStatusCode(upstream.getStatusCode());
+        cached.setHeaders(upstream.getHeaders());
+        pool.cache().put(uri, cached);
+        return cached;
+    }
+
+    /**
+     * Итог обращения к backend для access log: число попыток и причина последнего отказа, пропуска backend
+     * или отказа от повтора. Заполняется только потоком запроса
+     */
+    private static final class Outcome {
+        int attempts;
+        String reason;
+
+        ProxyResult applyTo(ProxyResult result) {
+            result.setAttempts(attempts);
+            result.setReason(reason);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.proxy;
+
+/**
+ * Проверка request-target в origin-form (путь и query string) до отправки на backend.
+ * Символ вне RFC 3986 ({@code |}, {@code {}, пробел, не-ASCII) или битый percent-encoding — ошибка клиента:
+ * без проверки URL backend не собирается уже внутри попытки, и отказ засчитывается backend
+ */
+final class RequestTarget {
+
+    // Разрешённые ASCII символы: unreserved, sub-delims, ':', '@', '/', '?' и '%' (проверяется отдельно)
+    private static final boolean[] ALLOWED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c : "-._~!$&'()*+,;=:@/?%".toCharArray()) {
+            ALLOWED[c] = true;
+        }
+    }
+
+    private RequestTarget() {
+    }
+
+    /**
+     * @param uri путь и query string в исходном виде, как их прислал клиент
+     * @return true если из него собирается корректный URL backend
+     */
+    static boolean isValid(String uri) {
+        if (uri == null || uri.isEmpty() || uri.charAt(0) != '/') {
+            return false;
+        }
+        int length = uri.length();
+        for (int i = 0; i < length; i++) {
+            char c = uri.charAt(i);
+            if (c >= ALLOWED.length || !ALLOWED[c]) {
+                return false;
+            }
+            if (c == '%' && (i + 2 >= length || !isHex(uri.charAt(i + 1)) || !isHex(uri.charAt(i + 2)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
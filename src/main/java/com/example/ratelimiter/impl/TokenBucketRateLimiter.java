@@ -17,9 +17,23 @@ public class TokenBucketRateLimiter implements RateLimiter {
     private int requestsPerMinute;
     private double tokensPerSecond;
 
+    public TokenBucketRateLimiter() {
+    }
+
+    /**
+     * Отдельный rate limiter для upstream pool со своим лимитом
+     */
+    public TokenBucketRateLimiter(int requestsPerMinute) {
+        configure(requestsPerMinute);
+    }
+
     @PostConstruct
     void init() {
-        this.requestsPerMinute = config.rateLimit().requestsPerMinute();
+        configure(config.rateLimit().requestsPerMinute());
+    }
+
+    private void configure(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
         this.tokensPerSecond = requestsPerMinute / 60.0;
     }
 
@@ -0,0 +1,37 @@
+package com.example.retry;
+
+import java.time.Duration;
+
+public interface RetryPolicy {
+
+    /**
+     * Максимальное число попыток на один запрос, включая первую
+     */
+    int maxAttempts();
+
+    /**
+     * Учитывает новый запрос: пополняет общий бюджет ретраев
+     */
+    void recordRequest();
+
+    /**
+     * Можно ли повторить запрос после сетевой ошибки (ответа от backend нет)
+     */
+    boolean isRetryableError(String method);
+
+    /**
+     * Можно ли повторить запрос после ответа backend с указанным статусом
+     */
+    boolean isRetryableStatus(String method, int statusCode);
+
+    /**
+     * Пытается взять из общего бюджета разрешение на повтор
+     */
+    boolean tryAcquireRetry();
+
+    /**
+     * Пауза перед повтором
+     * @param retry номер повтора, начиная с 1
+     */
+    Duration backoff(int retry);
+}
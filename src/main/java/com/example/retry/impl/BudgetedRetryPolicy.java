@@ -0,0 +1,91 @@
+package com.example.retry.impl;
+
+import com.example.budget.RequestBudget;
+import com.example.config.AppConfig;
+import com.example.retry.RetryPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry policy с общим бюджетом ретраев, экспоненциальным backoff с full jitter
+ * и учётом идемпотентности метода
+ */
+@ApplicationScoped
+public class BudgetedRetryPolicy implements RetryPolicy {
+
+    private static final int BUDGET_CAPACITY = 10;
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+
+    // 503 означает, что backend отказался обрабатывать запрос, поэтому повтор безопасен и для POST
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private static final int MAX_STATUS = 600;
+
+    @Inject
+    AppConfig appConfig;
+
+    private int maxAttempts;
+    private long backoffBaseMillis;
+    private long backoffMaxMillis;
+    // Таблица вместо Set<Integer>: проверка статуса без autoboxing на каждом ответе
+    private final boolean[] retryableStatuses = new boolean[MAX_STATUS];
+    private RequestBudget budget;
+
+    @PostConstruct
+    void init() {
+        AppConfig.Retry retry = appConfig.retry();
+        this.maxAttempts = retry.maxAttempts();
+        this.backoffBaseMillis = retry.backoffBase().toMillis();
+        this.backoffMaxMillis = retry.backoffMax().toMillis();
+        for (int status : retry.retryableStatuses()) {
+            if (status >= 0 && status < MAX_STATUS) {
+                this.retryableStatuses[status] = true;
+            }
+        }
+        this.budget = new RequestBudget(retry.budgetRatio(), BUDGET_CAPACITY);
+    }
+
+    @Override
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public void recordRequest() {
+        budget.deposit();
+    }
+
+    @Override
+    public boolean isRetryableError(String method) {
+        return IDEMPOTENT_METHODS.contains(method);
+    }
+
+    @Override
+    public boolean isRetryableStatus(String method, int statusCode) {
+        if (statusCode < 0 || statusCode >= MAX_STATUS || !retryableStatuses[statusCode]) {
+            return false;
+        }
+        return IDEMPOTENT_METHODS.contains(method) || statusCode == SERVICE_UNAVAILABLE;
+    }
+
+    @Override
+    public boolean tryAcquireRetry() {
+        return budget.tryWithdraw();
+    }
+
+    @Override
+    public Duration backoff(int retry) {
+        // Full jitter: случайная пауза от 0 до base * 2^(retry-1), но не больше max
+        long ceiling = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(retry - 1, 30));
+        if (ceiling <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+}
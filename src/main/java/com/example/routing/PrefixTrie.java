@@ -0,0 +1,110 @@
+package com.example.routing;
+
+import java.util.Arrays;
+
+/**
+ * Radix trie префиксов пути: поиск самого длинного совпавшего префикса за один проход по пути,
+ * без regex и без аллокаций. Заполняется при старте, после этого только читается
+ */
+final class PrefixTrie<T> {
+
+    private final Node<T> root = new Node<>("");
+
+    void insert(String prefix, T value) {
+        Node<T> node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node<T> child = node.child(prefix.charAt(i));
+            if (child == null) {
+                node.addChild(new Node<>(prefix.substring(i)));
+                node = node.child(prefix.charAt(i));
+                i = prefix.length();
+                continue;
+            }
+            int common = commonPrefixLength(child.label, prefix, i);
+            if (common < child.label.length()) {
+                // Делим ребро: общий кусок становится промежуточным узлом
+                child.split(common);
+            }
+            node = child;
+            i += common;
+        }
+        node.value = value;
+    }
+
+    /**
+     * @param path путь запроса
+     * @param end  граница пути в строке (например позиция '?' перед query)
+     * @return значение самого длинного префикса или null
+     */
+    T longestPrefixMatch(String path, int end) {
+        Node<T> node = root;
+        T best = root.value;
+        int i = 0;
+        while (i < end) {
+            Node<T> child = node.child(path.charAt(i));
+            if (child == null) {
+                break;
+            }
+            String label = child.label;
+            if (end - i < label.length() || !path.regionMatches(i, label, 0, label.length())) {
+                break;
+            }
+            i += label.length();
+            node = child;
+            if (node.value != null) {
+                best = node.value;
+            }
+        }
+        return best;
+    }
+
+    private static int commonPrefixLength(String label, String prefix, int offset) {
+        int max = Math.min(label.length(), prefix.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == prefix.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node<T> {
+        private String label;
+        private T value;
+        // Дочерние узлы различаются первым символом ребра; их мало, линейный поиск быстрее map
+        @SuppressWarnings("unchecked")
+        private Node<T>[] children = new Node[0];
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node<T> child(char first) {
+            for (Node<T> child : children) {
+                if (child.label.charAt(0) == first) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        void addChild(Node<T> child) {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+
+        /**
+         * Оставляет в узле первые length символов ребра, остаток уходит в новый дочерний узел
+         */
+        void split(int length) {
+            Node<T> tail = new Node<>(label.substring(length));
+            tail.value = value;
+            tail.children = children;
+            label = label.substring(0, length);
+            value = null;
+            @SuppressWarnings("unchecked")
+            Node<T>[] single = new Node[]{tail};
+            children = single;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.routing;
+
+import com.example.cache.ResponseCache;
+import com.example.cache.impl.InMemoryResponseCache;
+import com.example.circuitbreaker.CircuitBreaker;
+import com.example.circuitbreaker.impl.SimpleCircuitBreaker;
+import com.example.config.AppConfig;
+import com.example.config.RuntimeConfigService;
+import com.example.config.RuntimeSettings;
+import com.example.health.impl.ScheduledHealthCheckService;
+import com.example.loadbalancer.LoadBalancer;
+import com.example.loadbalancer.impl.RoundRobinLoadBalancer;
+import com.example.metrics.ProxyMetrics;
+import com.example.ratelimiter.RateLimiter;
+import com.example.ratelimiter.impl.TokenBucketRateLimiter;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Собирает upstream pools и таблицу маршрутов из RuntimeSettings при старте и после каждой перезагрузки.
+ * Пул default — это app.backends и общие CDI бины балансировщика, circuit breaker, кеша и rate limiter;
+ * именованные пулы (и default после смены его политик) получают собственные экземпляры
+ */
+@ApplicationScoped
+public class RouteRegistry {
+
+    private static final Logger LOG = Logger.getLogger(RouteRegistry.class);
+
+    @Inject
+    AppConfig config;
+
+    @Inject
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    @Inject
+    LoadBalancer loadBalancer;
+
+    @Inject
+    CircuitBreaker circuitBreaker;
+
+    @Inject
+    ResponseCache responseCache;
+
+    @Inject
+    RateLimiter rateLimiter;
+
+    @Inject
+    ProxyMetrics metrics;
+
+    @Inject
+    RuntimeConfigService runtimeConfig;
+
+    // Таблица маршрутов, пулы и настройки, из которых они собраны, подменяются одной volatile записью:
+    // запрос видит либо прежний снимок целиком, либо новый, без блокировок на чтении
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(RouteTable routeTable, Map<String, UpstreamPool> pools,
+                            Map<String, RuntimeSettings.Pool> settings) {
+    }
+
+    // Настройки, с которыми из application.properties сконфигурированы общие CDI бины пула default
+    private RuntimeSettings.Pool startupDefault;
+
+    @PostConstruct
+    void init() {
+        startupDefault = defaultPoolSettings(RuntimeSettings.from(config));
+        snapshot = build(runtimeConfig.current(), new Snapshot(null, Map.of(), Map.of()));
+    }
+
+    /**
+     * Пересобирает пулы и маршруты после перезагрузки настроек; запросы в полёте дорабатывают на прежнем пуле
+     */
+    void onSettingsChanged(@Observes @Priority(2) RuntimeSettings settings) {
+        snapshot = build(settings, snapshot);
+    }
+
+    private Snapshot build(RuntimeSettings settings, Snapshot previous) {
+        Map<String, RuntimeSettings.Pool> poolSettings = new HashMap<>();
+        poolSettings.put(UpstreamPool.DEFAULT, defaultPoolSettings(settings));
+        settings.pools().forEach((name, pool) -> poolSettings.put(name, namedPoolSettings(settings, pool)));
+
+        Map<String, UpstreamPool> pools = new HashMap<>();
+        poolSettings.forEach((name, pool) -> pools.put(name,
+                createPool(name, pool, previous.pools().get(name), previous.settings().get(name))));
+        pools.forEach((name, pool) -> pool.circuitBreaker().setTransitionListener(
+                (serverUrl, from, to) -> metrics.circuitTransition(name, serverUrl, from, to)));
+
+        RouteTable table = new RouteTable(pools.get(UpstreamPool.DEFAULT));
+        for (RuntimeSettings.Route route : settings.routes()) {
+            UpstreamPool pool = pools.get(route.pool());
+            if (pool == null) {
+                throw new IllegalStateException("Route " + route.prefix() + " refers to unknown pool " + route.pool());
+            }
+            table.add(route.host(), route.prefix(), pool, route.priority());
+            LOG.infof("Route %s%s -> %s (%s)", route.host() != null ? route.host() : "*", route.prefix(), route.pool(),
+                    route.priority());
+        }
+        return new Snapshot(table, Map.copyOf(pools), Map.copyOf(poolSettings));
+    }
+
+    /**
+     * Пул по настройкам. Компоненты, чьи настройки не изменились, переходят из прежнего пула вместе с состоянием:
+     * кеш, открытые circuit и корзины rate limit переживают перезагрузку. Пул default при настройках
+     * из application.properties возвращается к общим CDI бинам
+     */
+    private UpstreamPool createPool(String name, RuntimeSettings.Pool pool,
+                                    UpstreamPool previous, RuntimeSettings.Pool previousPool) {
+        boolean shared = UpstreamPool.DEFAULT.equals(name);
+        Supplier<List<String>> healthyServers = shared
+                ? scheduledHealthCheckService::getCachedHealthyServers
+                : () -> scheduledHealthCheckService.getCachedHealthyServers(name);
+
+        LoadBalancer balancer = shared ? loadBalancer
+                : previous != null ? previous.loadBalancer()
+                : new RoundRobinLoadBalancer(healthyServers);
+
+        CircuitBreaker breaker = sameCircuitBreaker(pool, previousPool) ? previous.circuitBreaker()
+                : shared && sameCircuitBreaker(pool, startupDefault) ? circuitBreaker
+                : new SimpleCircuitBreaker(pool.failureThreshold(), pool.openDuration(),
+                        config.circuitBreaker().failureStatuses());
+
+        // TTL и размер кеша default не перезагружаются: его кеш всегда общий CDI бин
+        ResponseCache cache = shared ? responseCache
+                : sameCache(pool, previousPool) ? previous.cache()
+                : new InMemoryResponseCache(pool.cacheTtl(), pool.cacheMaxSize());
+
+        RateLimiter limiter = sameRateLimiter(pool, previousPool) ? previous.rateLimiter()
+                : shared && sameRateLimiter(pool, startupDefault) ? rateLimiter
+                : new TokenBucketRateLimiter(pool.requestsPerMinute());
+
+        return new UpstreamPool(name, healthyServers, balancer, breaker, cache, pool.cacheEnabled(),
+                limiter, pool.rateLimitEnabled(), pool.requestsPerMinute());
+    }
+
+    /**
+     * Активное истечение кешей именованных pool: они созданы конструктором вне CDI, и их собственный
+     * @Scheduled не срабатывает. Дискового уровня и сброса на диск при остановке у них нет.
+     * Общий кеш default продвигается своим @Scheduled
+     */
+    @Scheduled(every = "1s", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void expireNamedPoolCaches() {
+        for (UpstreamPool pool : snapshot.pools().values()) {
+            if (pool.cache() != responseCache) {
+                pool.cache().expireEntries();
+            }
+        }
+    }
+
+    private static boolean sameCircuitBreaker(RuntimeSettings.Pool pool, RuntimeSettings.Pool other) {
+        return other != null && pool.failureThreshold().equals(other.failureThreshold())
+                && pool.openDuration().equals(other.openDuration());
+    }
+
+    private static boolean sameCache(RuntimeSettings.Pool pool, RuntimeSettings.Pool other) {
+        return other != null && pool.cacheTtl().equals(other.cacheTtl())
+                && pool.cacheMaxSize().equals(other.cacheMaxSize());
+    }
+
+    private static boolean sameRateLimiter(RuntimeSettings.Pool pool, RuntimeSettings.Pool other) {
+        return other != null && pool.requestsPerMinute().equals(other.requestsPerMinute());
+    }
+
+    /**
+     * Пул default: backend и политики верхнего уровня; TTL и размер кеша — только из application.properties,
+     * его кеш (с дисковым уровнем) не пересоздаётся
+     */
+    private RuntimeSettings.Pool defaultPoolSettings(RuntimeSettings settings) {
+        return new RuntimeSettings.Pool(settings.backends(), settings.cacheEnabled(),
+                config.cache().ttl(), config.cache().maxSize(),
+                settings.rateLimitEnabled(), settings.requestsPerMinute(),
+                settings.failureThreshold(), settings.openDuration());
+    }
+
+    /**
+     * Настройки именованного пула с подставленными значениями верхнего уровня
+     */
+    private RuntimeSettings.Pool namedPoolSettings(RuntimeSettings settings, RuntimeSettings.Pool pool) {
+        return new RuntimeSettings.Pool(pool.urls(),
+                or(pool.cacheEnabled(), settings.cacheEnabled()),
+                or(pool.cacheTtl(), config.cache().ttl()),
+                or(pool.cacheMaxSize(), config.cache().maxSize()),
+                or(pool.rateLimitEnabled(), settings.rateLimitEnabled()),
+                or(pool.requestsPerMinute(), settings.requestsPerMinute()),
+                or(pool.failureThreshold(), settings.failureThreshold()),
+                or(pool.openDuration(), settings.openDuration()));
+    }
+
+    private static <T> T or(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Все upstream pools по имени, включая default
+     */
+    public Map<String, UpstreamPool> pools() {
+        return snapshot.pools();
+    }
+
+    /**
+     * Пул для запроса по Host и пути
+     */
+    public UpstreamPool resolve(String host, String uri) {
+        return snapshot.routeTable().resolve(host, uri);
+    }
+
+    /**
+     * Пул и класс приоритета для запроса по Host и пути
+     */
+    public RouteTable.Target resolveTarget(String host, String uri) {
+        return snapshot.routeTable().resolveTarget(host, uri);
+    }
+}
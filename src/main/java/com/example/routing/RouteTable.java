@@ -0,0 +1,116 @@
+package com.example.routing;
+
+import com.example.admission.PriorityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Скомпилированная таблица маршрутов: Host -> radix trie префиксов пути -> upstream pool и класс приоритета.
+ * Неизменяема после сборки, поиск не аллоцирует
+ */
+public final class RouteTable {
+
+    /**
+     * Результат поиска маршрута: пул и класс приоритета его запросов
+     */
+    public record Target(UpstreamPool pool, PriorityClass priority) {
+    }
+
+    private final Target defaultTarget;
+    private final PrefixTrie<Target> anyHost = new PrefixTrie<>();
+    // Маршрутов по Host обычно единицы: линейный проход без нормализации заголовка дешевле map
+    private final List<HostRoutes> hostRoutes = new ArrayList<>();
+
+    public RouteTable(UpstreamPool defaultPool) {
+        this.defaultTarget = new Target(defaultPool, PriorityClass.NORMAL);
+    }
+
+    /**
+     * Добавляет маршрут с приоритетом NORMAL. Вызывается только при сборке таблицы
+     * @param host Host без порта или null для любого Host
+     */
+    public RouteTable add(String host, String prefix, UpstreamPool pool) {
+        return add(host, prefix, pool, PriorityClass.NORMAL);
+    }
+
+    /**
+     * Добавляет маршрут. Вызывается только при сборке таблицы
+     * @param host Host без порта или null для любого Host
+     */
+    public RouteTable add(String host, String prefix, UpstreamPool pool, PriorityClass priority) {
+        Target target = new Target(pool, priority);
+        if (host == null) {
+            anyHost.insert(prefix, target);
+            return this;
+        }
+        HostRoutes routes = null;
+        for (HostRoutes candidate : hostRoutes) {
+            if (candidate.host.equalsIgnoreCase(host)) {
+                routes = candidate;
+            }
+        }
+        if (routes == null) {
+            routes = new HostRoutes(host);
+            hostRoutes.add(routes);
+        }
+        routes.trie.insert(prefix, target);
+        return this;
+    }
+
+    /**
+     * Находит пул для запроса: маршруты его Host, затем маршруты для любого Host, затем default
+     * @param host значение заголовка Host (порт допускается) или null
+     * @param uri  путь запроса, query игнорируется
+     */
+    public UpstreamPool resolve(String host, String uri) {
+        return resolveTarget(host, uri).pool();
+    }
+
+    /**
+     * Как resolve, но вместе с классом приоритета маршрута; без совпадения — пул default и NORMAL
+     */
+    public Target resolveTarget(String host, String uri) {
+        int end = uri.indexOf('?');
+        if (end < 0) {
+            end = uri.length();
+        }
+        if (host != null) {
+            for (HostRoutes routes : hostRoutes) {
+                if (routes.matches(host)) {
+                    Target target = routes.trie.longestPrefixMatch(uri, end);
+                    if (target != null) {
+                        return target;
+                    }
+                }
+            }
+        }
+        Target target = anyHost.longestPrefixMatch(uri, end);
+        return target != null ? target : defaultTarget;
+    }
+
+    public UpstreamPool defaultPool() {
+        return defaultTarget.pool();
+    }
+
+    private static final class HostRoutes {
+        private final String host;
+        private final PrefixTrie<Target> trie = new PrefixTrie<>();
+
+        HostRoutes(String host) {
+            this.host = host;
+        }
+
+        /**
+         * Сравнение без учёта регистра и порта, без создания подстрок
+         */
+        boolean matches(String header) {
+            // IPv6 литерал [::1]:8080 — порт после закрывающей скобки
+            int length = header.startsWith("[") ? header.indexOf(']') + 1 : header.indexOf(':');
+            if (length < 0) {
+                length = header.length();
+            }
+            return length == host.length() && header.regionMatches(true, 0, host, 0, length);
+        }
+    }
+}
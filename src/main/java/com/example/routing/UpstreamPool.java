@@ -0,0 +1,26 @@
+package com.example.routing;
+
+import com.example.cache.ResponseCache;
+import com.example.circuitbreaker.CircuitBreaker;
+import com.example.loadbalancer.LoadBalancer;
+import com.example.ratelimiter.RateLimiter;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Группа backend серверов со своими балансировщиком, circuit breaker, кешем и rate limit
+ * @param healthyServers живые серверы пула по последней проверке здоровья
+ */
+public record UpstreamPool(String name,
+                           Supplier<List<String>> healthyServers,
+                           LoadBalancer loadBalancer,
+                           CircuitBreaker circuitBreaker,
+                           ResponseCache cache,
+                           boolean cacheEnabled,
+                           RateLimiter rateLimiter,
+                           boolean rateLimitEnabled,
+                           int requestsPerMinute) {
+
+    public static final String DEFAULT = "default";
+}
@@ -0,0 +1,131 @@
+package com.example.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import io.vertx.core.MultiMap;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Трассировка прохода через прокси. Серверный span запроса создаёт инструментирование HTTP сервера Quarkus
+ * (оно же принимает traceparent клиента); здесь — дочерний CLIENT span на каждую попытку к backend,
+ * W3C traceparent попытки в заголовках к backend и события конвейера на серверном span.
+ * Для не записываемого span (не попал в выборку) события и атрибуты ничего не стоят
+ */
+@ApplicationScoped
+public class ProxyTracer {
+
+    static final AttributeKey<String> BACKEND = AttributeKey.stringKey("proxy.backend");
+    static final AttributeKey<String> REASON = AttributeKey.stringKey("proxy.reason");
+    static final AttributeKey<String> POOL = AttributeKey.stringKey("proxy.pool");
+    static final AttributeKey<Long> ATTEMPT = AttributeKey.longKey("proxy.attempt");
+    static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+    static final AttributeKey<String> URL_FULL = AttributeKey.stringKey("url.full");
+    static final AttributeKey<String> SERVER_ADDRESS = AttributeKey.stringKey("server.address");
+    static final AttributeKey<Long> HTTP_STATUS = AttributeKey.longKey("http.response.status_code");
+
+    private static final TextMapSetter<MultiMap> HEADER_SETTER = (headers, name, value) -> headers.set(name, value);
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    OpenTelemetry openTelemetry;
+
+    /**
+     * Контекст потока запроса. Фиксируется до ухода попыток в потоки hedging, где текущего контекста нет
+     */
+    public Context current() {
+        return Context.current();
+    }
+
+    /**
+     * Помечает серверный span пулом, в который ушёл запрос
+     */
+    public void pool(String pool) {
+        Span span = Span.current();
+        if (span.isRecording()) {
+            span.setAttribute(POOL, pool);
+        }
+    }
+
+    /**
+     * Событие конвейера на серверном span: попадание в кеш, пропуск по circuit breaker, повтор и его причина
+     * @param backend backend или null
+     * @param reason  причина или null
+     */
+    public void event(String name, String backend, String reason) {
+        Span span = Span.current();
+        if (!span.isRecording()) {
+            return;
+        }
+        if (backend == null && reason == null) {
+            span.addEvent(name);
+            return;
+        }
+        var attributes = Attributes.builder();
+        if (backend != null) {
+            attributes.put(BACKEND, backend);
+        }
+        if (reason != null) {
+            attributes.put(REASON, reason);
+        }
+        span.addEvent(name, attributes.build());
+    }
+
+    /**
+     * Открывает CLIENT span попытки к backend
+     * @param parent  контекст запроса из {@link #current()}
+     * @param attempt номер попытки с 1; hedge-запрос делит номер с основным
+     */
+    public Span startAttempt(Context parent, String method, String serverUrl, String path, int attempt) {
+        return tracer.spanBuilder(method)
+                .setParent(parent)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(HTTP_METHOD, method)
+                .setAttribute(URL_FULL, serverUrl + path)
+                .setAttribute(SERVER_ADDRESS, serverUrl)
+                .setAttribute(ATTEMPT, (long) attempt)
+                .startSpan();
+    }
+
+    /**
+     * Заголовки к backend с traceparent попытки. Копия: hedge-попытки идут параллельно с общими заголовками.
+     * Без трассировки (контекст невалиден) возвращаются исходные заголовки, traceparent клиента проходит как есть
+     */
+    public MultiMap propagate(Span attempt, MultiMap headers) {
+        if (!attempt.getSpanContext().isValid()) {
+            return headers;
+        }
+        MultiMap copy = MultiMap.caseInsensitiveMultiMap().addAll(headers);
+        openTelemetry.getPropagators().getTextMapPropagator().inject(Context.root().with(attempt), copy, HEADER_SETTER);
+        return copy;
+    }
+
+    /**
+     * Закрывает span попытки с ответом backend; 5xx — ошибка попытки
+     */
+    public void endAttempt(Span attempt, int status) {
+        attempt.setAttribute(HTTP_STATUS, (long) status);
+        if (status >= 500) {
+            attempt.setStatus(StatusCode.ERROR);
+        }
+        attempt.end();
+    }
+
+    /**
+     * Закрывает span попытки, на которой backend не ответил
+     */
+    public void endAttempt(Span attempt, Exception error) {
+        attempt.recordException(error);
+        attempt.setStatus(StatusCode.ERROR, error.getMessage());
+        attempt.end();
+    }
+}
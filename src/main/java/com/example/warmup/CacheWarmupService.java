@@ -0,0 +1,120 @@
+package com.example.warmup;
+
+import com.example.config.AppConfig;
+import com.example.health.impl.ScheduledHealthCheckService;
+import com.example.proxy.ProxyService;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Прогрев после старта: сразу проверяет здоровье backend (не дожидаясь первого тика расписания)
+ * и загружает горячие пути в кеш с ограниченным параллелизмом.
+ * Пока прогрев идёт, readiness probe отвечает DOWN — балансировщик перед прокси не шлёт трафик
+ */
+@ApplicationScoped
+public class CacheWarmupService {
+
+    private static final Logger LOG = Logger.getLogger(CacheWarmupService.class);
+
+    @Inject
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    @Inject
+    ProxyService proxyService;
+
+    @Inject
+    AppConfig appConfig;
+
+    private volatile boolean ready;
+    private final AtomicInteger warmed = new AtomicInteger();
+
+    void onStart(@Observes StartupEvent event) {
+        AppConfig.Warmup warmup = appConfig.warmup();
+        if (!warmup.enabled()) {
+            ready = true;
+            return;
+        }
+        // Без этого список живых серверов пуст до первого запуска по расписанию
+        scheduledHealthCheckService.checkHealth();
+
+        List<String> paths = loadPaths(warmup);
+        if (paths.isEmpty()) {
+            ready = true;
+            return;
+        }
+        Thread.ofVirtual().name("cache-warmup").start(() -> prefetch(paths, warmup.parallelism(), warmup.timeout()));
+    }
+
+    /**
+     * Загружает пути в кеш; не больше parallelism запросов одновременно.
+     * По истечении timeout оставшиеся запросы прерываются, а прокси объявляется готовым
+     * @return число путей, оказавшихся в кеше
+     */
+    int prefetch(List<String> paths, int parallelism, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Semaphore permits = new Semaphore(parallelism);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (String path : paths) {
+                if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        if (proxyService.prefetch(path)) {
+                            warmed.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        LOG.warnf("Warm-up of %s failed: %s", path, e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            // Все разрешения вернулись — значит все запущенные запросы завершились
+            permits.tryAcquire(parallelism, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            ready = true;
+            LOG.infof("Cache warm-up finished: %d of %d paths cached", warmed.get(), paths.size());
+        }
+        return warmed.get();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getWarmedCount() {
+        return warmed.get();
+    }
+
+    private static List<String> loadPaths(AppConfig.Warmup warmup) {
+        List<String> lines = List.of();
+        if (warmup.pathsFile().isPresent()) {
+            Path file = Path.of(warmup.pathsFile().get());
+            try {
+                lines = Files.readAllLines(file);
+            } catch (IOException e) {
+                LOG.warnf("Cannot read warm-up paths from %s: %s", file, e.getMessage());
+            }
+        }
+        return HotPaths.rank(warmup.paths().orElse(List.of()), lines, warmup.maxPaths());
+    }
+}
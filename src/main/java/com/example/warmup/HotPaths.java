@@ -0,0 +1,82 @@
+package com.example.warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Разбор списка путей для прогрева. Строка — либо путь ("/api/items?page=1"),
+ * либо строка access log с запросом в кавычках ("GET /api/items HTTP/1.1"); учитываются только GET.
+ * Пути ранжируются по числу вхождений, при равенстве — по первому появлению
+ */
+final class HotPaths {
+
+    private static final String GET = "\"GET ";
+
+    private HotPaths() {
+    }
+
+    /**
+     * @param configured пути из конфигурации: идут первыми в заданном порядке
+     * @param lines      строки файла путей или access log
+     * @param limit      максимальное число путей
+     */
+    static List<String> rank(List<String> configured, List<String> lines, int limit) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String path : configured) {
+            if (result.size() >= limit) {
+                return List.copyOf(result);
+            }
+            result.add(path);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        for (String line : lines) {
+            String path = parse(line);
+            if (path != null && counts.merge(path, 1, Integer::sum) == 1) {
+                order.add(path);
+            }
+        }
+        // Сортировка стабильная: при равной частоте сохраняется порядок появления
+        order.sort((a, b) -> Integer.compare(counts.get(b), counts.get(a)));
+        for (String path : order) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(path);
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * @return путь из строки или null, если строка пустая, комментарий или не GET запрос
+     */
+    static String parse(String line) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        if (trimmed.startsWith("/")) {
+            int end = trimmed.indexOf(' ');
+            return end < 0 ? trimmed : trimmed.substring(0, end);
+        }
+        int start = trimmed.indexOf(GET);
+        if (start < 0) {
+            return null;
+        }
+        start += GET.length();
+        // Путь заканчивается пробелом перед протоколом ("GET /path HTTP/1.1", nginx)
+        // или кавычкой, если протокола нет ("GET /path", text формат access log прокси)
+        int space = trimmed.indexOf(' ', start);
+        int quote = trimmed.indexOf('"', start);
+        int end = space < 0 ? quote : quote < 0 ? space : Math.min(space, quote);
+        if (end <= start || trimmed.charAt(start) != '/') {
+            return null;
+        }
+        return trimmed.substring(start, end);
+    }
+}
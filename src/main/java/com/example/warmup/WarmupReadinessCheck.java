@@ -0,0 +1,26 @@
+package com.example.warmup;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * /q/health/ready: прокси готов принимать трафик, когда прогрев завершён или истёк его таймаут
+ */
+@Readiness
+@ApplicationScoped
+public class WarmupReadinessCheck implements HealthCheck {
+
+    @Inject
+    CacheWarmupService warmupService;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("cache-warmup")
+                .status(warmupService.isReady())
+                .withData("warmed", warmupService.getWarmedCount())
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.proxy;
+
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Полный конвейер в собранном приложении (jar или native image): проксирование, кеш, rate limit,
+ * сжатие и служебные endpoints. Запуск native: ./gradlew testNative
+ */
+@QuarkusIntegrationTest
+@WithTestResource(StubBackendResource.class)
+class ProxyNativeIT {
+
+    @Test
+    void testRequestProxied() {
+        given().when().get("/items/proxied?q=a%20b")
+                .then()
+                .statusCode(200)
+                .header("X-Backend", "stub")
+                .body(equalTo("stub /items/proxied"));
+    }
+
+    @Test
+    void testSecondGetServedFromCache() {
+        given().when().get("/items/cached").then().statusCode(200).header("X-Cache", "MISS");
+        int backendRequests = StubBackendResource.REQUESTS.get();
+
+        given().when().get("/items/cached")
+                .then()
+                .statusCode(200)
+                .header("X-Cache", "HIT")
+                .body(equalTo("stub /items/cached"));
+        assertEquals(backendRequests, StubBackendResource.REQUESTS.get());
+    }
+
+    @Test
+    void testUnsafeMethodInvalidatesCache() {
+        given().when().get("/items/mutable").then().header("X-Cache", "MISS");
+        given().when().get("/items/mutable").then().header("X-Cache", "HIT");
+
+        given().body("{}").when().put("/items/mutable").then().statusCode(200);
+
+        given().when().get("/items/mutable").then().header("X-Cache", "MISS");
+    }
+
+    @Test
+    void testRateLimitRejectsOverLimit() {
+        // Пул limited: 3 запроса в минуту
+        int rejected = 0;
+        for (int i = 0; i < 5; i++) {
+            Response response = given().when().get("/limited/items");
+            if (response.statusCode() == 429) {
+                rejected++;
+                assertTrue(Integer.parseInt(response.header("Retry-After")) >= 1);
+            }
+        }
+        assertTrue(rejected >= 2, "Expected requests over the limit to be rejected, got " + rejected);
+    }
+
+    @Test
+    void testAdminStatsSerialized() {
+        given().when().get("/items/stats").then().statusCode(200);
+
+        given().when().get("/admin/cache/stats").then().statusCode(401);
+        given().header("Authorization", "Bearer " + StubBackendResource.ADMIN_TOKEN)
+                .when().get("/admin/cache/stats")
+                .then()
+                .statusCode(200)
+                .body("default.entries", greaterThanOrEqualTo(1));
+    }
+
+    @Test
+    void testHealthAndMetrics() {
+        given().when().get("/q/health/ready").then().statusCode(200).body(containsString("UP"));
+        given().when().get("/q/metrics").then().statusCode(200).body(containsString("proxy_requests_seconds"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.proxy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backend для интеграционных тестов собранного приложения: моки CDI там недоступны, прокси ходит по сети.
+ * Пул limited с маленьким rate limit — для проверки 429, не мешающей остальным тестам
+ */
+public class StubBackendResource implements QuarkusTestResourceLifecycleManager {
+
+    static final AtomicInteger REQUESTS = new AtomicInteger();
+
+    static final String ADMIN_TOKEN = "native-admin-token";
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @Override
+    public Map<String, String> start() {
+        // Два backend: в application.properties их два, и оба адреса нужно заменить
+        String first = startServer();
+        String second = startServer();
+        return Map.ofEntries(
+                Map.entry("app.backends.urls[0]", first),
+                Map.entry("app.backends.urls[1]", second),
+                Map.entry("app.rate-limit.enabled", "false"),
+                Map.entry("app.pools.limited.urls[0]", first),
+                Map.entry("app.pools.limited.rate-limit-enabled", "true"),
+                Map.entry("app.pools.limited.requests-per-minute", "3"),
+                Map.entry("app.routes[0].prefix", "/limited"),
+                Map.entry("app.routes[0].pool", "limited"),
+                Map.entry("app.admin.token", ADMIN_TOKEN),
+                Map.entry("quarkus.otel.sdk.disabled", "true"));
+    }
+
+    private String startServer() {
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        server.createContext("/", StubBackendResource::handle);
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (!"/health".equals(path)) {
+                REQUESTS.incrementAndGet();
+            }
+            byte[] body = ("stub " + path).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.getResponseHeaders().set("X-Backend", "stub");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        servers.forEach(server -> server.stop(0));
+    }
+}
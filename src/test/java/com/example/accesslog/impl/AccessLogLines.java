@@ -0,0 +1,35 @@
+package com.example.accesslog.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Строки журнала в точности такими, какими их пишет RingBufferAccessLog: для тестов разбора журнала в других пакетах
+ */
+public final class AccessLogLines {
+
+    private AccessLogLines() {
+    }
+
+    /**
+     * Одна запись в формате text или json
+     */
+    public static String line(String format, String clientIp, String method, String uri, int status,
+                              long durationNanos, String pool, String backend, String cacheStatus) {
+        List<String> lines = new ArrayList<>();
+        RingBufferAccessLog log = new RingBufferAccessLog(2, 2, 1.0, AccessLogFormat.of(format),
+                new RingBufferAccessLog.Sink() {
+                    @Override
+                    public void write(CharSequence line) {
+                        lines.add(line.toString());
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+                });
+        log.log(clientIp, method, uri, status, durationNanos, pool, backend, cacheStatus, 1, null);
+        log.drain();
+        return lines.get(0);
+    }
+}
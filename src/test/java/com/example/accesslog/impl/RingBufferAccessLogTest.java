@@ -0,0 +1,103 @@
+package com.example.accesslog.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferAccessLogTest {
+
+    private final List<String> lines = new CopyOnWriteArrayList<>();
+
+    private final RingBufferAccessLog.Sink sink = new RingBufferAccessLog.Sink() {
+        @Override
+        public void write(CharSequence line) {
+            lines.add(line.toString());
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+
+    @Test
+    void testJsonRecord() {
+        RingBufferAccessLog log = new RingBufferAccessLog(8, 8, 1.0, AccessLogFormat.JSON, sink);
+
+        log.log("10.0.0.1", "GET", "/api/\"items\"?q=1", 200, 12_345_678, "default", "http://b1:8080", "MISS", 2,
+                "upstream_failure");
+        assertEquals(1, log.drain());
+
+        String line = lines.get(0);
+        assertTrue(line.startsWith("{\"ts\":\""), line);
+        assertTrue(line.contains(",\"client\":\"10.0.0.1\",\"method\":\"GET\",\"uri\":\"/api/\\\"items\\\"?q=1\""), line);
+        assertTrue(line.contains(",\"status\":200,\"durationMs\":12.345,\"pool\":\"default\""), line);
+        assertTrue(line.endsWith(",\"backend\":\"http://b1:8080\",\"cache\":\"MISS\",\"attempts\":2,"
+                + "\"reason\":\"upstream_failure\"}"), line);
+    }
+
+    @Test
+    void testTextRecordWithoutBackend() {
+        RingBufferAccessLog log = new RingBufferAccessLog(8, 8, 1.0, AccessLogFormat.TEXT, sink);
+
+        log.log("10.0.0.1", "HEAD", "/", 200, 5_000, "default", null, "HIT", 0, null);
+        log.drain();
+
+        assertTrue(lines.get(0).endsWith(
+                " 10.0.0.1 \"HEAD /\" 200 0.005ms pool=default backend=- cache=HIT attempts=0 reason=-"),
+                lines.get(0));
+    }
+
+    @Test
+    void testDropsWhenBufferFull() {
+        // Given: фоновый поток не запущен, буфер на 4 записи
+        RingBufferAccessLog log = new RingBufferAccessLog(4, 16, 1.0, AccessLogFormat.TEXT, sink);
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            log.log("10.0.0.1", "GET", "/" + i, 200, 1_000, "default", null, null, 0, null);
+        }
+
+        // Then: лишние записи отброшены, а не перезаписали непрочитанные
+        assertEquals(2, log.dropped());
+        assertEquals(4, log.drain());
+        assertTrue(lines.get(0).contains("\"GET /0\""));
+        assertTrue(lines.get(3).contains("\"GET /3\""));
+
+        // После чтения место снова свободно
+        log.log("10.0.0.1", "GET", "/6", 200, 1_000, "default", null, null, 0, null);
+        assertEquals(1, log.drain());
+        assertEquals(2, log.dropped());
+    }
+
+    @Test
+    void testSamplingKeepsErrors() {
+        RingBufferAccessLog log = new RingBufferAccessLog(8, 8, 0.0, AccessLogFormat.TEXT, sink);
+
+        log.log("10.0.0.1", "GET", "/ok", 200, 1_000, "default", null, null, 0, null);
+        log.log("10.0.0.1", "GET", "/missing", 404, 1_000, "default", null, null, 0, null);
+        log.log("10.0.0.1", "GET", "/down", 503, 1_000, "default", null, null, 0, null);
+        log.drain();
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("/missing"));
+        assertTrue(lines.get(1).contains("/down"));
+    }
+
+    @Test
+    void testWriterThreadFlushesOnStop() {
+        RingBufferAccessLog log = new RingBufferAccessLog(1024, 64, 1.0, AccessLogFormat.TEXT, sink);
+        log.start();
+
+        for (int i = 0; i < 500; i++) {
+            log.log("10.0.0.1", "GET", "/" + i, 200, 1_000, "default", null, null, 0, null);
+        }
+        log.stop();
+
+        assertEquals(500, lines.size());
+        assertTrue(lines.get(499).contains("\"GET /499\""));
+    }
+}
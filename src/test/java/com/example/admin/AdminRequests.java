@@ -0,0 +1,20 @@
+package com.example.admin;
+
+import io.restassured.specification.RequestSpecification;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Запросы к admin API с токеном app.admin.token из тестовой конфигурации
+ */
+final class AdminRequests {
+
+    static final String TOKEN = "test-admin-token";
+
+    private AdminRequests() {
+    }
+
+    static RequestSpecification admin() {
+        return given().header("Authorization", "Bearer " + TOKEN);
+    }
+}
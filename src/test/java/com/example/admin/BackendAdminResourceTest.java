@@ -0,0 +1,142 @@
+package com.example.admin;
+
+import com.example.config.RuntimeConfigService;
+import com.example.config.RuntimeSettings;
+import com.example.health.HealthChecker;
+import com.example.health.impl.ScheduledHealthCheckService;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.example.admin.AdminRequests.admin;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+class BackendAdminResourceTest {
+
+    private static final String ADDED = "http://localhost:8083";
+
+    @Inject
+    RuntimeConfigService runtimeConfig;
+
+    @Inject
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    // Проверка здоровья без исключения — backend жив
+    @InjectMock
+    HealthChecker healthChecker;
+
+    @AfterEach
+    void tearDown() {
+        scheduledHealthCheckService.getDraining().forEach(scheduledHealthCheckService::undrain);
+        runtimeConfig.apply(RuntimeSettings.EMPTY);
+    }
+
+    @Test
+    void testAddBackendJoinsRotationAfterHealthCheck() {
+        admin().queryParam("url", ADDED)
+                .when().post("/admin/backends")
+                .then()
+                .statusCode(200)
+                .body("url", hasItem(ADDED));
+
+        assertTrue(runtimeConfig.current().backends().contains(ADDED));
+        // Новый backend проверяется в фоне; здесь проверка дожидается явно
+        scheduledHealthCheckService.checkHealth();
+        assertTrue(scheduledHealthCheckService.getCachedHealthyServers().contains(ADDED));
+    }
+
+    @Test
+    void testAdminCallsDoNotWaitForHealthProbes() throws Exception {
+        // Given: backend отвечает на проверку здоровья медленно
+        when(healthChecker.checkHealth(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(3000);
+            return null;
+        });
+        Thread check = Thread.ofVirtual().start(scheduledHealthCheckService::checkHealth);
+
+        // When / Then: ни добавление backend, ни drain не ждут идущей проверки
+        long startedAt = System.nanoTime();
+        admin().queryParam("url", ADDED)
+                .when().post("/admin/backends")
+                .then()
+                .statusCode(200);
+        admin().queryParam("url", "http://localhost:8081")
+                .when().post("/admin/backends/drain")
+                .then()
+                .statusCode(200);
+        assertTrue(Duration.ofNanos(System.nanoTime() - startedAt).compareTo(Duration.ofSeconds(2)) < 0);
+        check.join();
+    }
+
+    @Test
+    void testDrainRemovesBackendFromRotation() {
+        // Given
+        scheduledHealthCheckService.checkHealth();
+        assertTrue(scheduledHealthCheckService.getCachedHealthyServers().contains("http://localhost:8081"));
+
+        // When
+        admin().queryParam("url", "http://localhost:8081")
+                .when().post("/admin/backends/drain")
+                .then()
+                .statusCode(200)
+                .body("[0].draining", equalTo(true))
+                .body("[0].inFlight", equalTo(0));
+
+        // Then: в настройках остаётся, балансировщик не выбирает
+        assertTrue(runtimeConfig.current().backends().contains("http://localhost:8081"));
+        assertEquals(List.of("http://localhost:8082"), scheduledHealthCheckService.getCachedHealthyServers());
+
+        admin().queryParam("url", "http://localhost:8081")
+                .when().delete("/admin/backends/drain")
+                .then()
+                .statusCode(200)
+                .body("[0].draining", equalTo(false));
+        assertTrue(scheduledHealthCheckService.getCachedHealthyServers().contains("http://localhost:8081"));
+    }
+
+    @Test
+    void testRemoveBackend() {
+        admin().queryParam("url", "http://localhost:8082")
+                .when().delete("/admin/backends")
+                .then()
+                .statusCode(200)
+                .body("url", not(hasItem("http://localhost:8082")));
+
+        assertFalse(scheduledHealthCheckService.getCachedHealthyServers().contains("http://localhost:8082"));
+    }
+
+    @Test
+    void testLastBackendOfPoolCannotBeRemoved() {
+        admin().queryParam("pool", "pooled").queryParam("url", "http://pooled:9000")
+                .when().delete("/admin/backends")
+                .then()
+                .statusCode(400)
+                .body("error", containsString("must not be empty"));
+    }
+
+    @Test
+    void testUnknownPoolAndBackend() {
+        admin().queryParam("pool", "missing").queryParam("url", ADDED)
+                .when().post("/admin/backends")
+                .then()
+                .statusCode(404);
+        admin().queryParam("url", "http://unknown:1")
+                .when().post("/admin/backends/drain")
+                .then()
+                .statusCode(404);
+    }
+}
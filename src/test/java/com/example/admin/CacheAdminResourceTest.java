@@ -0,0 +1,100 @@
+package com.example.admin;
+
+import com.example.cache.CachedResponse;
+import com.example.cache.impl.InMemoryResponseCache;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.example.admin.AdminRequests.admin;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class CacheAdminResourceTest {
+
+    @Inject
+    InMemoryResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache.clear();
+    }
+
+    private CachedResponse createCachedResponse(String tags) {
+        CachedResponse response = new CachedResponse();
+        response.setStatusCode(200);
+        response.setBody("body");
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap().add("Surrogate-Key", tags));
+        return response;
+    }
+
+    @Test
+    void testPurgeByTag() {
+        // Given
+        cache.put("/news/1", createCachedResponse("news"));
+        cache.put("/news/2", createCachedResponse("news"));
+        cache.put("/about", createCachedResponse("static"));
+
+        // When / Then
+        admin().queryParam("tag", "news")
+                .when().post("/admin/cache/purge")
+                .then()
+                .statusCode(200)
+                .body("purged", equalTo(2))
+                .body("pools.default", equalTo(2));
+        assertTrue(cache.get("/news/1").isEmpty());
+        assertTrue(cache.get("/about").isPresent());
+    }
+
+    @Test
+    void testPurgeByPrefix() {
+        // Given
+        cache.put("/docs/a", createCachedResponse("docs"));
+        cache.put("/docs/b?lang=en", createCachedResponse("docs"));
+
+        // When / Then
+        admin().queryParam("prefix", "/docs")
+                .when().post("/admin/cache/purge")
+                .then()
+                .statusCode(200)
+                .body("purged", equalTo(2));
+    }
+
+    @Test
+    void testStatsPerPool() {
+        // Given
+        cache.put("/stats", createCachedResponse("stats"));
+        cache.get("/stats");
+
+        // When / Then: пул pooled в тестах без кеша
+        admin().queryParam("top", 5)
+                .when().get("/admin/cache/stats")
+                .then()
+                .statusCode(200)
+                .body("default.entries", equalTo(1))
+                .body("pooled", nullValue());
+    }
+
+    @Test
+    void testPurgeRequiresExactlyOneSelector() {
+        admin().when().post("/admin/cache/purge")
+                .then()
+                .statusCode(400);
+        admin().queryParam("tag", "a").queryParam("prefix", "/b")
+                .when().post("/admin/cache/purge")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testPurgeUnknownPool() {
+        admin().queryParam("tag", "a").queryParam("pool", "missing")
+                .when().post("/admin/cache/purge")
+                .then()
+                .statusCode(404);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.admin;
+
+import com.example.config.RuntimeConfigService;
+import com.example.config.RuntimeSettings;
+import com.example.health.impl.ScheduledHealthCheckService;
+import com.example.routing.RouteRegistry;
+import com.example.routing.UpstreamPool;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.example.admin.AdminRequests.admin;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@QuarkusTest
+class ConfigAdminResourceTest {
+
+    @Inject
+    RouteRegistry routeRegistry;
+
+    @Inject
+    RuntimeConfigService runtimeConfig;
+
+    @InjectMock
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    @AfterEach
+    void tearDown() {
+        runtimeConfig.discovered(Map.of());
+        runtimeConfig.apply(RuntimeSettings.EMPTY);
+    }
+
+    @Test
+    void testDiscoveredBackendsSurviveConfigReload() {
+        // Given
+        runtimeConfig.discovered(Map.of("default", List.of("http://discovered:9000")));
+        assertEquals(List.of("http://discovered:9000"), runtimeConfig.current().backends());
+
+        // When: документ изменений, как после правки файла, перестраивает настройки от application.properties
+        admin().contentType(ContentType.JSON)
+                .body("{\"cacheEnabled\": false}")
+                .when().put("/admin/config")
+                .then()
+                .statusCode(200)
+                .body("backends[0]", equalTo("http://discovered:9000"));
+
+        // Then: слой discovery сохранился, повторный опрос с тем же результатом ничего не меняет
+        assertEquals(List.of("http://discovered:9000"), runtimeConfig.current().backends());
+        RuntimeSettings current = runtimeConfig.current();
+        runtimeConfig.discovered(Map.of("default", List.of("http://discovered:9000")));
+        assertSame(current, runtimeConfig.current());
+    }
+
+    @Test
+    void testAdminChangeDoesNotBakeInDiscoveredBackends() {
+        // Given: discovery подменил backend пула default
+        runtimeConfig.discovered(Map.of("default", List.of("http://discovered:9000")));
+
+        // When: admin добавляет backend, затем discovery перестаёт сообщать о пуле
+        runtimeConfig.update(settings -> settings.withUrls("default",
+                List.of("http://localhost:8081", "http://localhost:8082", "http://added:9000")));
+        assertEquals(List.of("http://discovered:9000"), runtimeConfig.current().backends());
+        runtimeConfig.discovered(Map.of());
+
+        // Then: остаются настроенные backend с добавленным, найденный discovery не впечатан в документ
+        assertEquals(List.of("http://localhost:8081", "http://localhost:8082", "http://added:9000"),
+                runtimeConfig.current().backends());
+    }
+
+    @Test
+    void testAddPoolAndRouteWithoutRestart() {
+        // Given
+        UpstreamPool pooled = routeRegistry.pools().get("pooled");
+
+        // When
+        admin().contentType(ContentType.JSON)
+                .body("""
+                        {"pools": {
+                           "pooled": {"urls": ["http://pooled:9000"], "cacheEnabled": false},
+                           "added": {"urls": ["http://added:9000"], "requestsPerMinute": 600}},
+                         "routes": [{"prefix": "/pooled", "pool": "pooled"}, {"prefix": "/added", "pool": "added"}]}
+                        """)
+                .when().put("/admin/config")
+                .then()
+                .statusCode(200)
+                .body("pools.added.urls[0]", equalTo("http://added:9000"));
+
+        // Then: новый маршрут действует, состояние неизменённого пула сохранено
+        UpstreamPool added = routeRegistry.resolve(null, "/added/items");
+        assertEquals("added", added.name());
+        assertEquals(600, added.requestsPerMinute());
+        assertSame(pooled.circuitBreaker(), routeRegistry.pools().get("pooled").circuitBreaker());
+        assertSame(pooled.rateLimiter(), routeRegistry.pools().get("pooled").rateLimiter());
+    }
+
+    @Test
+    void testChangedPolicyReplacesOnlyAffectedComponent() {
+        // Given
+        UpstreamPool before = routeRegistry.pools().get(UpstreamPool.DEFAULT);
+
+        // When
+        admin().contentType(ContentType.JSON)
+                .body("{\"rateLimitEnabled\": true, \"requestsPerMinute\": 5}")
+                .when().put("/admin/config")
+                .then()
+                .statusCode(200)
+                .body("requestsPerMinute", equalTo(5));
+
+        // Then
+        UpstreamPool after = routeRegistry.resolve(null, "/items");
+        assertEquals(5, after.requestsPerMinute());
+        assertNotSame(before.rateLimiter(), after.rateLimiter());
+        assertSame(before.cache(), after.cache());
+        assertSame(before.circuitBreaker(), after.circuitBreaker());
+    }
+
+    @Test
+    void testInvalidDocumentRejectedAsWhole() {
+        // Given
+        RuntimeSettings before = runtimeConfig.current();
+
+        // When / Then
+        admin().contentType(ContentType.JSON)
+                .body("{\"backends\": [\"http://new:8080\"], \"routes\": [{\"prefix\": \"/x\", \"pool\": \"missing\"}]}")
+                .when().put("/admin/config")
+                .then()
+                .statusCode(400)
+                .body("error", containsString("unknown pool missing"));
+        assertEquals(before, runtimeConfig.current());
+        assertEquals("pooled", routeRegistry.resolve(null, "/pooled/items").name());
+    }
+
+    @Test
+    void testCurrentSettings() {
+        admin().when().get("/admin/config")
+                .then()
+                .statusCode(200)
+                .body("backends[0]", equalTo("http://localhost:8081"))
+                .body("routes[0].pool", equalTo("pooled"));
+    }
+
+    @Test
+    void testUnauthenticatedRequestRejected() {
+        // Без токена документ не применяется
+        given().contentType(ContentType.JSON)
+                .body("{\"backends\": [\"http://attacker:8080\"]}")
+                .when().put("/admin/config")
+                .then()
+                .statusCode(401)
+                .header("WWW-Authenticate", "Bearer");
+        assertEquals(List.of("http://localhost:8081", "http://localhost:8082"), runtimeConfig.current().backends());
+
+        given().queryParam("url", "http://localhost:8081")
+                .when().post("/admin/backends/drain")
+                .then()
+                .statusCode(401);
+        given().when().get("/admin/cache/stats").then().statusCode(401);
+    }
+
+    @Test
+    void testWrongTokenRejected() {
+        given().header("Authorization", "Bearer wrong-token")
+                .when().get("/admin/config")
+                .then()
+                .statusCode(401);
+    }
+}
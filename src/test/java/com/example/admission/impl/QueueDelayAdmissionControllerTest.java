@@ -0,0 +1,80 @@
+package com.example.admission.impl;
+
+import com.example.admission.PriorityClass;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueueDelayAdmissionControllerTest {
+
+    private static final long MS = Duration.ofMillis(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong(1_000 * MS);
+    private final QueueDelayAdmissionController admission = new QueueDelayAdmissionController(10,
+            Duration.ofMillis(20), Duration.ofMillis(200), clock::get);
+
+    @Test
+    void testInFlightLimitsPerPriority() {
+        // LOW занимает не больше половины лимита
+        for (int i = 0; i < 5; i++) {
+            assertTrue(admission.tryAcquire(PriorityClass.LOW));
+        }
+        assertFalse(admission.tryAcquire(PriorityClass.LOW));
+
+        // NORMAL — до 90%, остаток только для HIGH
+        for (int i = 0; i < 4; i++) {
+            assertTrue(admission.tryAcquire(PriorityClass.NORMAL));
+        }
+        assertFalse(admission.tryAcquire(PriorityClass.NORMAL));
+        assertTrue(admission.tryAcquire(PriorityClass.HIGH));
+        assertFalse(admission.tryAcquire(PriorityClass.HIGH));
+        assertEquals(10, admission.inFlight());
+
+        admission.release();
+        assertTrue(admission.tryAcquire(PriorityClass.HIGH));
+    }
+
+    @Test
+    void testQueueDelayShedsLowBeforeNormal() {
+        // Ожидание worker потока ~30ms: выше target для LOW, но ниже двух target для NORMAL
+        for (int i = 0; i < 50; i++) {
+            admission.onStart(PriorityClass.NORMAL, 30 * MS);
+        }
+
+        assertFalse(admission.tryAcquire(PriorityClass.LOW));
+        assertTrue(admission.tryAcquire(PriorityClass.NORMAL));
+
+        // ~60ms: отклоняется и NORMAL, HIGH проходит
+        for (int i = 0; i < 50; i++) {
+            admission.onStart(PriorityClass.HIGH, 60 * MS);
+        }
+        assertFalse(admission.tryAcquire(PriorityClass.NORMAL));
+        assertTrue(admission.tryAcquire(PriorityClass.HIGH));
+    }
+
+    @Test
+    void testStaleQueueDelayForgotten() {
+        for (int i = 0; i < 50; i++) {
+            admission.onStart(PriorityClass.NORMAL, 100 * MS);
+        }
+        assertFalse(admission.tryAcquire(PriorityClass.LOW));
+
+        // Новых замеров нет: после отказа всем, кроме HIGH, оценка не должна застревать
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        assertEquals(0, admission.queueDelayNanos());
+        assertTrue(admission.tryAcquire(PriorityClass.LOW));
+    }
+
+    @Test
+    void testLongQueueWaitShedsAllButHigh() {
+        assertTrue(admission.onStart(PriorityClass.LOW, 150 * MS));
+        assertFalse(admission.onStart(PriorityClass.NORMAL, 250 * MS));
+        assertTrue(admission.onStart(PriorityClass.HIGH, 250 * MS));
+    }
+}
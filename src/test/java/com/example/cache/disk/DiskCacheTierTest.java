@@ -0,0 +1,288 @@
+package com.example.cache.disk;
+
+import com.example.cache.CachedResponse;
+import io.vertx.core.MultiMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskCacheTierTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @TempDir
+    Path directory;
+
+    private final DiskCacheTier tier = new DiskCacheTier();
+
+    @AfterEach
+    void tearDown() {
+        tier.close();
+    }
+
+    private CachedResponse response(String body) {
+        CachedResponse response = new CachedResponse();
+        response.setStatusCode(200);
+        response.setBody(body);
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap()
+                .add("Content-Type", "text/plain")
+                .add("Set-Cookie", "a=1")
+                .add("Set-Cookie", "b=2"));
+        response.setCachedAt(Instant.now());
+        return response;
+    }
+
+    @Test
+    void testPutAndGet() {
+        tier.open(directory, 1 << 20, 1 << 16, 64);
+        tier.put("/api/users", response("users"));
+
+        Optional<CachedResponse> result = tier.get("/api/users", TTL);
+
+        assertTrue(result.isPresent());
+        assertEquals(200, result.get().getStatusCode());
+        assertEquals("users", result.get().getBody());
+        assertEquals(2, result.get().getHeaders().getAll("set-cookie").size());
+        assertTrue(tier.get("/api/other", TTL).isEmpty());
+    }
+
+    @Test
+    void testCompressedBodyPreserved() {
+        tier.open(directory, 1 << 20, 1 << 16, 64);
+        CachedResponse response = response(null);
+        response.setCompressedBody(new byte[]{31, -117, 8, 0});
+        tier.put("/gz", response);
+
+        CachedResponse result = tier.get("/gz", TTL).orElseThrow();
+
+        assertNull(result.getBody());
+        assertArrayEquals(new byte[]{31, -117, 8, 0}, result.getCompressedBody());
+    }
+
+    @Test
+    void testSurvivesReopen() {
+        tier.open(directory, 1 << 20, 1 << 16, 64);
+        tier.put("/warm", response("warm"));
+        tier.close();
+
+        DiskCacheTier reopened = new DiskCacheTier();
+        reopened.open(directory, 1 << 20, 1 << 16, 64);
+        try {
+            assertEquals("warm", reopened.get("/warm", TTL).orElseThrow().getBody());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testExpiredEntryRemoved() {
+        tier.open(directory, 1 << 20, 1 << 16, 64);
+        CachedResponse response = response("old");
+        response.setCachedAt(Instant.now().minus(Duration.ofMinutes(5)));
+        tier.put("/old", response);
+
+        assertTrue(tier.get("/old", TTL).isEmpty());
+        assertTrue(tier.get("/old", Duration.ofHours(1)).isEmpty());
+    }
+
+    @Test
+    void testCorruptedRecordIsMiss() throws IOException {
+        tier.open(directory, 1 << 20, 1 << 16, 64);
+        tier.put("/corrupt", response("payload"));
+        tier.close();
+
+        Path segment = segments().findFirst().orElseThrow();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), channel.size() - 1);
+        }
+
+        DiskCacheTier reopened = new DiskCacheTier();
+        reopened.open(directory, 1 << 20, 1 << 16, 64);
+        try {
+            assertTrue(reopened.get("/corrupt", TTL).isEmpty());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testForEachKeyRebuildsTagsWithoutBodies() throws IOException {
+        tier.open(directory, 1 << 20, 1 << 16, 64);
+        CachedResponse tagged = response("first");
+        tagged.getHeaders().add("Surrogate-Key", "user-1 users");
+        tier.put("/users/1", tagged);
+        tier.put("/users/1", response("second"));
+        CachedResponse product = response("product");
+        product.getHeaders().add("Cache-Tag", "catalog");
+        tier.put("/products/1", product);
+        tier.put("/removed", response("removed"));
+        tier.remove("/removed");
+        tier.close();
+
+        // Тела на диске повреждены — ключи и теги всё равно восстанавливаются, потому что тела не читаются
+        Path segment = segments().findFirst().orElseThrow();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[(int) channel.size()]), 0);
+        }
+
+        DiskCacheTier reopened = new DiskCacheTier();
+        reopened.open(directory, 1 << 20, 1 << 16, 64);
+        try {
+            Map<String, MultiMap> keys = new HashMap<>();
+            reopened.forEachKey(keys::put);
+
+            assertEquals(Set.of("/users/1", "/products/1"), keys.keySet());
+            assertNull(keys.get("/users/1").get("Surrogate-Key"));
+            assertEquals("catalog", keys.get("/products/1").get("Cache-Tag"));
+            assertNull(keys.get("/products/1").get("Content-Type"));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testTornKeysTailIgnored() throws IOException {
+        tier.open(directory, 1 << 20, 1 << 16, 64);
+        tier.put("/a", response("a"));
+        tier.close();
+
+        Path keys = directory.resolve("keys-00000000.bin");
+        try (FileChannel channel = FileChannel.open(keys, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 1}), channel.size());
+        }
+
+        DiskCacheTier reopened = new DiskCacheTier();
+        reopened.open(directory, 1 << 20, 1 << 16, 64);
+        try {
+            reopened.put("/b", response("b"));
+            Set<String> found = new HashSet<>();
+            reopened.forEachKey((key, tagHeaders) -> found.add(key));
+
+            assertEquals(Set.of("/a", "/b"), found);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testConcurrentReadsDuringAppends() throws Exception {
+        tier.open(directory, 1 << 22, 1 << 14, 1024);
+        for (int i = 0; i < 100; i++) {
+            tier.put("/sealed/" + i, response("sealed " + i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    tier.put("/fresh/" + i, response("fresh " + i));
+                }
+            });
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    int hits = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        int n = i % 100;
+                        assertEquals("sealed " + n, tier.get("/sealed/" + n, TTL).orElseThrow().getBody());
+                        hits++;
+                    }
+                    return hits;
+                }));
+            }
+            writer.get(10, TimeUnit.SECONDS);
+            for (Future<Integer> reader : readers) {
+                assertEquals(1000, (int) reader.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("fresh 199", tier.get("/fresh/199", TTL).orElseThrow().getBody());
+    }
+
+    @Test
+    void testOldestSegmentDroppedWhenFull() throws IOException {
+        String body = "x".repeat(400);
+        tier.open(directory, 2048, 1024, 64);
+        for (int i = 0; i < 10; i++) {
+            tier.put("/item/" + i, response(body));
+        }
+
+        assertTrue(tier.get("/item/0", TTL).isEmpty());
+        assertEquals(body, tier.get("/item/9", TTL).orElseThrow().getBody());
+        assertTrue(segments().count() <= 3);
+    }
+
+    @Test
+    void testFullIndexWritesNothing() throws IOException {
+        // Given: индекс на два слота заполнен
+        tier.open(directory, 1 << 20, 1 << 16, 2);
+        tier.put("/a", response("a"));
+        tier.put("/b", response("b"));
+        long written = segmentBytes();
+
+        // When
+        tier.put("/c", response("c"));
+
+        // Then: новая запись не попадает ни в сегмент, ни в keys-файл, перезапись существующей работает
+        assertTrue(tier.get("/c", TTL).isEmpty());
+        assertEquals(written, segmentBytes());
+        List<String> keys = new ArrayList<>();
+        tier.forEachKey((key, tags) -> keys.add(key));
+        assertEquals(List.of("/a", "/b"), keys.stream().sorted().toList());
+        tier.put("/a", response("a2"));
+        assertEquals("a2", tier.get("/a", TTL).orElseThrow().getBody());
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        tier.open(directory, 1 << 20, 1 << 16, 64);
+        tier.put("/a", response("a"));
+        tier.put("/b", response("b"));
+
+        tier.remove("/a");
+        assertTrue(tier.get("/a", TTL).isEmpty());
+        assertTrue(tier.get("/b", TTL).isPresent());
+
+        tier.clear();
+        assertTrue(tier.get("/b", TTL).isEmpty());
+    }
+
+    private long segmentBytes() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            long total = 0;
+            for (Path file : files.filter(f -> !f.getFileName().toString().equals("index.bin")).toList()) {
+                total += Files.size(file);
+            }
+            return total;
+        }
+    }
+
+    private Stream<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).toList().stream();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.cache.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiryWheelTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void testExpiresOnlyDueItems() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(10 * MS, 8, 0);
+        wheel.schedule("a", 15 * MS);
+        wheel.schedule("b", 45 * MS);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(19 * MS, expired::add);
+        assertTrue(expired.isEmpty(), "Deadline rounds up to the next tick");
+
+        wheel.advance(20 * MS, expired::add);
+        assertEquals(List.of("a"), expired);
+
+        wheel.advance(50 * MS, expired::add);
+        assertEquals(List.of("a", "b"), expired);
+    }
+
+    @Test
+    void testDeadlineBeyondOneRotation() {
+        // Оборот 80ms, срок 200ms: корзина посещается раньше, но запись остаётся до своего тика
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(10 * MS, 8, 0);
+        wheel.schedule("far", 200 * MS);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(190 * MS, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(200 * MS, expired::add);
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void testLongIdleExpiresEverything() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(10 * MS, 8, 0);
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule("item" + i, i * 10 * MS);
+        }
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(10_000 * MS, expired::add);
+
+        assertEquals(20, expired.size());
+    }
+
+    @Test
+    void testPastDeadlineScheduledAfterAdvance() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(10 * MS, 8, 0);
+        wheel.advance(100 * MS, item -> { });
+        wheel.schedule("late", 50 * MS);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(110 * MS, expired::add);
+
+        assertEquals(List.of("late"), expired);
+    }
+}
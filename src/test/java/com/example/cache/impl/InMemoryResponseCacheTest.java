@@ -1,12 +1,14 @@
 package com.example.cache.impl;
 
+import com.example.cache.CacheStats;
 import com.example.cache.CachedResponse;
 import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -33,7 +35,7 @@ class InMemoryResponseCacheTest {
         CachedResponse response = new CachedResponse();
         response.setStatusCode(statusCode);
         response.setBody(body);
-        response.setHeaders(Map.of("Content-Type", "text/plain"));
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap().add("Content-Type", "text/plain"));
         return response;
     }
 
@@ -81,6 +83,20 @@ class InMemoryResponseCacheTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testTtlExpired_RemovedWithoutReads() throws InterruptedException {
+        // Given: TTL в тестах = 2s
+        cache.put(uniqueKey(), createCachedResponse(200, "First"));
+        cache.put(uniqueKey(), createCachedResponse(200, "Second"));
+
+        // When: записи больше не читаются, колесо истечения продвигается
+        Thread.sleep(2100);
+        cache.expireEntries();
+
+        // Then: память освобождена без обращений к записям
+        assertEquals(0, cache.size());
+    }
+
     @Test
     void testTtlNotExpired_ReturnsValue() throws InterruptedException {
         // Given: TTL в тестах = 2s
@@ -185,4 +201,126 @@ class InMemoryResponseCacheTest {
         assertTrue(result.isPresent());
         assertEquals("Updated", result.get().getBody());
     }
+
+    @Test
+    void testEvictPath_RemovesAllQueryVariants() {
+        // Given
+        cache.put("/users", createCachedResponse(200, "list"));
+        cache.put("/users?page=2", createCachedResponse(200, "page 2"));
+        cache.put("/users/1", createCachedResponse(200, "user"));
+
+        // When
+        int evicted = cache.evictPath("/users");
+
+        // Then: подресурсы не затронуты
+        assertEquals(2, evicted);
+        assertTrue(cache.get("/users").isEmpty());
+        assertTrue(cache.get("/users?page=2").isEmpty());
+        assertTrue(cache.get("/users/1").isPresent());
+    }
+
+    @Test
+    void testEvictPrefix_RespectsSegmentBoundary() {
+        // Given
+        cache.put("/users/1", createCachedResponse(200, "user"));
+        cache.put("/users/1/posts?sort=new", createCachedResponse(200, "posts"));
+        cache.put("/users/10", createCachedResponse(200, "other user"));
+
+        // When
+        int evicted = cache.evictPrefix("/users/1");
+
+        // Then: /users/10 не подпадает под префикс /users/1
+        assertEquals(2, evicted);
+        assertTrue(cache.get("/users/1/posts?sort=new").isEmpty());
+        assertTrue(cache.get("/users/10").isPresent());
+    }
+
+    @Test
+    void testEvictTag_FromSurrogateKeyAndCacheTag() {
+        // Given
+        CachedResponse product = createCachedResponse(200, "product");
+        product.getHeaders().add("Surrogate-Key", "product-1 catalog");
+        CachedResponse category = createCachedResponse(200, "category");
+        category.getHeaders().add("Cache-Tag", "catalog, category-7");
+        cache.put("/products/1", product);
+        cache.put("/categories/7", category);
+        cache.put("/about", createCachedResponse(200, "about"));
+
+        // When
+        int evicted = cache.evictTag("catalog");
+
+        // Then
+        assertEquals(2, evicted);
+        assertTrue(cache.get("/products/1").isEmpty());
+        assertTrue(cache.get("/categories/7").isEmpty());
+        assertTrue(cache.get("/about").isPresent());
+        assertEquals(0, cache.evictTag("product-1"));
+    }
+
+    @Test
+    void testSegments_EachKeepsItsShareOfMaxSize() {
+        // Given: 4 сегмента по 16 записей
+        InMemoryResponseCache sharded = new InMemoryResponseCache(Duration.ofMinutes(1), 64, 4);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            sharded.put("/sharded/" + i, createCachedResponse(200, "Entry " + i));
+        }
+
+        // Then: общий размер не превышает max-size, последняя запись на месте
+        assertEquals(4, sharded.segmentCount());
+        assertTrue(sharded.size() <= 64);
+        assertTrue(sharded.get("/sharded/999").isPresent());
+        assertTrue(sharded.get("/sharded/0").isEmpty());
+    }
+
+    @Test
+    void testSegments_SmallCacheNotOverSharded() {
+        InMemoryResponseCache small = new InMemoryResponseCache(Duration.ofMinutes(1), 20, 64);
+
+        assertEquals(1, small.segmentCount());
+    }
+
+    @Test
+    void testStats_CountsHitsMissesAndCauses() {
+        // Given: отдельный экземпляр, чтобы счётчики не смешивались с другими тестами
+        InMemoryResponseCache counted = new InMemoryResponseCache(Duration.ofMinutes(1), 100, 1);
+        counted.put("/a", createCachedResponse(200, "12345"));
+        counted.put("/b", createCachedResponse(200, "123"));
+
+        // When
+        counted.get("/a");
+        counted.get("/a");
+        counted.get("/missing");
+        counted.evict("/b");
+        counted.recordLoad(2_000_000);
+
+        // Then
+        CacheStats stats = counted.stats(5);
+        assertEquals(1, stats.entries());
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.invalidations());
+        assertEquals(5, stats.bytesStored());
+        assertEquals(1, stats.loads());
+        assertEquals(2.0, stats.averageLoadMillis(), 0.001);
+    }
+
+    @Test
+    void testStats_HottestKeyFirst() {
+        // Given
+        InMemoryResponseCache counted = new InMemoryResponseCache(Duration.ofMinutes(1), 100, 1);
+        counted.put("/hot", createCachedResponse(200, "hot"));
+
+        // When: учитывается выборка обращений, поэтому разрыв в частоте большой
+        for (int i = 0; i < 2000; i++) {
+            counted.get("/hot");
+        }
+        for (int i = 0; i < 50; i++) {
+            counted.get("/cold/" + i);
+        }
+
+        // Then
+        assertEquals("/hot", counted.stats(3).hotKeys().get(0).key());
+    }
 }
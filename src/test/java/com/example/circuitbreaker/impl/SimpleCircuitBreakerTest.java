@@ -5,6 +5,10 @@ import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -163,4 +167,38 @@ class SimpleCircuitBreakerTest {
         circuitBreaker.recordFailure(url);
         assertEquals(CircuitState.OPEN, circuitBreaker.getState(url));
     }
+
+    @Test
+    void testFailureStatuses() {
+        // Given: app.circuit-breaker.failure-statuses по умолчанию = 500,502,503,504
+
+        // Then: 5xx из списка — отказ backend, 4xx и 2xx — нет
+        assertTrue(circuitBreaker.isFailureStatus(503));
+        assertTrue(circuitBreaker.isFailureStatus(500));
+        assertFalse(circuitBreaker.isFailureStatus(501));
+        assertFalse(circuitBreaker.isFailureStatus(404));
+        assertFalse(circuitBreaker.isFailureStatus(200));
+    }
+
+    @Test
+    void testTransitionListenerSeesStateChanges() throws InterruptedException {
+        // Given: отдельный экземпляр, чтобы не заменить слушатель метрик у общего бина
+        SimpleCircuitBreaker breaker = new SimpleCircuitBreaker(2, Duration.ofMillis(20), Set.of(503));
+        List<String> transitions = new ArrayList<>();
+        breaker.setTransitionListener((serverUrl, from, to) -> transitions.add(from + "->" + to));
+        String url = uniqueUrl();
+        breaker.isOpen(url);
+
+        // When: открываем circuit, ждём open-duration и закрываем успешным запросом
+        breaker.recordFailure(url);
+        breaker.recordFailure(url);
+        breaker.recordFailure(url);
+        Thread.sleep(30);
+        breaker.isOpen(url);
+        breaker.recordSuccess(url);
+        breaker.recordSuccess(url);
+
+        // Then: каждый переход сообщён один раз, повторы в том же состоянии — нет
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
 }
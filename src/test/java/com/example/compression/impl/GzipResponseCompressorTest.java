@@ -0,0 +1,92 @@
+package com.example.compression.impl;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class GzipResponseCompressorTest {
+
+    @Inject
+    GzipResponseCompressor compressor;
+
+    private static final String LARGE_TEXT = "shondog ".repeat(200);
+
+    @Test
+    void testAcceptEncodingNegotiation() {
+        assertTrue(compressor.acceptsGzip("gzip"));
+        assertTrue(compressor.acceptsGzip("deflate, GZIP;q=0.5, br"));
+        assertTrue(compressor.acceptsGzip("*"));
+        assertFalse(compressor.acceptsGzip("gzip;q=0"));
+        assertFalse(compressor.acceptsGzip("br, deflate"));
+        assertFalse(compressor.acceptsGzip(null));
+    }
+
+    @Test
+    void testExplicitGzipWinsOverWildcard() {
+        assertTrue(compressor.acceptsGzip("*;q=0, gzip"));
+        assertFalse(compressor.acceptsGzip("*, gzip;q=0"));
+        assertFalse(compressor.acceptsGzip("br, *;q=0"));
+    }
+
+    @Test
+    void testVaryMergedWithoutDuplicates() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap().add("Vary", "Origin");
+        compressor.addVary(headers);
+        compressor.addVary(headers);
+        assertEquals(List.of("Origin, Accept-Encoding"), headers.getAll("Vary"));
+
+        MultiMap existing = MultiMap.caseInsensitiveMultiMap().add("Vary", "accept-encoding, Cookie");
+        compressor.addVary(existing);
+        assertEquals(List.of("accept-encoding, Cookie"), existing.getAll("Vary"));
+
+        MultiMap any = MultiMap.caseInsensitiveMultiMap().add("Vary", "*");
+        compressor.addVary(any);
+        assertEquals(List.of("*"), any.getAll("Vary"));
+    }
+
+    @Test
+    void testCompressedVariantGetsWeakETag() {
+        MultiMap strong = MultiMap.caseInsensitiveMultiMap().add("ETag", "\"v1\"");
+        compressor.markCompressed(strong);
+        assertEquals("gzip", strong.get("Content-Encoding"));
+        assertEquals("W/\"v1\"", strong.get("ETag"));
+
+        MultiMap weak = MultiMap.caseInsensitiveMultiMap().add("ETag", "W/\"v1\"");
+        compressor.markCompressed(weak);
+        assertEquals("W/\"v1\"", weak.get("ETag"));
+    }
+
+    @Test
+    void testCompressibleByTypeAndSize() {
+        assertTrue(compressor.isCompressible(headers("application/json; charset=utf-8"), 2048));
+        assertTrue(compressor.isCompressible(headers("TEXT/HTML"), 2048));
+        assertFalse(compressor.isCompressible(headers("image/png"), 2048));
+        assertFalse(compressor.isCompressible(headers("application/jsonp"), 2048));
+        assertFalse(compressor.isCompressible(headers("text/plain"), 100));
+        assertFalse(compressor.isCompressible(MultiMap.caseInsensitiveMultiMap(), 2048));
+    }
+
+    @Test
+    void testAlreadyEncodedNotCompressed() {
+        MultiMap headers = headers("text/plain").add("Content-Encoding", "br");
+        assertFalse(compressor.isCompressible(headers, 2048));
+    }
+
+    @Test
+    void testRoundTrip() {
+        byte[] compressed = compressor.compress(LARGE_TEXT + "привет");
+
+        assertTrue(compressed.length < LARGE_TEXT.length());
+        assertEquals(LARGE_TEXT + "привет", compressor.decompress(compressed));
+    }
+
+    private static MultiMap headers(String contentType) {
+        return MultiMap.caseInsensitiveMultiMap().add("Content-Type", contentType);
+    }
+}
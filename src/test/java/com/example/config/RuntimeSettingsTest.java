@@ -0,0 +1,72 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeSettingsTest {
+
+    private final RuntimeSettings base = new RuntimeSettings(List.of("http://a:8080"), true, true, 60, 3,
+            Duration.ofSeconds(30),
+            Map.of("api", new RuntimeSettings.Pool(List.of("http://api:9000"), null, null, null, null, 600, null, null)),
+            List.of(new RuntimeSettings.Route(null, "/api", "api", null)));
+
+    @Test
+    void testWithReplacesOnlyGivenFields() {
+        RuntimeSettings changes = new RuntimeSettings(List.of("http://b:8080"), null, null, 120,
+                null, null, null, null);
+
+        RuntimeSettings result = base.with(changes).validate();
+
+        assertEquals(List.of("http://b:8080"), result.backends());
+        assertEquals(120, result.requestsPerMinute());
+        assertEquals(3, result.failureThreshold());
+        assertEquals(base.pools(), result.pools());
+        assertEquals(base.routes(), result.routes());
+    }
+
+    @Test
+    void testEmptyChangesKeepBase() {
+        assertEquals(base, base.with(RuntimeSettings.EMPTY));
+    }
+
+    @Test
+    void testPoolsAndRoutesReplacedAsWhole() {
+        RuntimeSettings changes = new RuntimeSettings(null, null, null, null, null, null,
+                Map.of("static", new RuntimeSettings.Pool(List.of("http://static:9000"),
+                        null, null, null, null, null, null, null)),
+                List.of(new RuntimeSettings.Route("cdn.example.com", null, "static", null)));
+
+        RuntimeSettings result = base.with(changes).validate();
+
+        assertEquals(Map.of("static", changes.pools().get("static")), result.pools());
+        assertEquals("/", result.routes().get(0).prefix());
+    }
+
+    @Test
+    void testRouteToUnknownPoolRejected() {
+        RuntimeSettings changes = new RuntimeSettings(null, null, null, null, null, null, Map.of(), null);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> base.with(changes).validate());
+        assertTrue(error.getMessage().contains("unknown pool api"));
+    }
+
+    @Test
+    void testInvalidValuesRejected() {
+        assertThrows(IllegalArgumentException.class, () -> base.with(
+                new RuntimeSettings(List.of(), null, null, null, null, null, null, null)).validate());
+        assertThrows(IllegalArgumentException.class, () -> base.with(
+                new RuntimeSettings(List.of("a:8080"), null, null, null, null, null, null, null)).validate());
+        assertThrows(IllegalArgumentException.class, () -> base.with(
+                new RuntimeSettings(null, null, null, 0, null, null, null, null)).validate());
+        assertThrows(IllegalArgumentException.class, () -> base.with(
+                new RuntimeSettings(null, null, null, null, null, Duration.ZERO, null, null)).validate());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.discovery.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileBackendDiscoveryTest {
+
+    @Test
+    void testParsePoolsAndDefault() throws IOException {
+        Map<String, List<String>> pools = FileBackendDiscovery.parse(List.of(
+                "# deploy 42",
+                "http://localhost:8081",
+                "",
+                "api   http://api-1:9000",
+                "api http://api-2:9000",
+                "api http://api-1:9000",
+                "  http://localhost:8082  "));
+
+        assertEquals(Map.of(
+                "default", List.of("http://localhost:8081", "http://localhost:8082"),
+                "api", List.of("http://api-1:9000", "http://api-2:9000")), pools);
+    }
+
+    @Test
+    void testMalformedLineRejected() {
+        assertThrows(IOException.class, () -> FileBackendDiscovery.parse(List.of("api http://a:1 extra")));
+    }
+}
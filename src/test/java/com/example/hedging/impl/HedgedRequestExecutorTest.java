@@ -0,0 +1,194 @@
+package com.example.hedging.impl;
+
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.example.hedging.HedgedResult;
+import com.example.hedging.HedgingPolicy;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class HedgedRequestExecutorTest {
+
+    @Inject
+    HedgedRequestExecutor executor;
+
+    private static final AtomicInteger counter = new AtomicInteger(0);
+
+    private String uniqueUrl() {
+        return "http://hedge-server-" + counter.incrementAndGet() + ":8080";
+    }
+
+    @Test
+    void testFastPrimary_NoHedge() {
+        // Given: основной сервер отвечает сразу
+        String primary = uniqueUrl();
+
+        // When
+        HedgedResult result = executor.execute(primary, () -> fail("Hedge should not be selected"),
+                url -> createResponse(200, "primary"), this::isFinal);
+
+        // Then
+        assertEquals(primary, result.getServerUrl());
+        assertEquals("primary", result.getResponse().getBody());
+        assertFalse(result.isHedged());
+    }
+
+    @Test
+    void testSlowPrimary_HedgeWinsAndPrimaryCancelled() throws InterruptedException {
+        // Given: основной сервер отвечает дольше hedge delay (в тестах 50ms)
+        String primary = uniqueUrl();
+        String hedge = uniqueUrl();
+        CountDownLatch primaryCancelled = new CountDownLatch(1);
+
+        // When
+        HedgedResult result = executor.execute(primary, () -> hedge, url -> {
+            if (url.equals(primary)) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    primaryCancelled.countDown();
+                    throw new HttpClientException("Interrupted", e);
+                }
+            }
+            return createResponse(200, url);
+        }, this::isFinal);
+
+        // Then: ответ от запасного сервера, основной запрос прерван
+        assertTrue(result.isHedged());
+        assertEquals(hedge, result.getServerUrl());
+        assertEquals(hedge, result.getResponse().getBody());
+        assertTrue(result.getFailures().isEmpty(), "Cancelled loser is not a failure");
+        assertTrue(primaryCancelled.await(1, TimeUnit.SECONDS), "Primary request should be cancelled");
+    }
+
+    @Test
+    void testCancelledPrimary_RecordsElapsedTimeAsLatency() {
+        // Given: политика с фиксированным hedge delay 20ms, записывающая латентности
+        Map<String, Long> recorded = new ConcurrentHashMap<>();
+        HedgedRequestExecutor standalone = new HedgedRequestExecutor();
+        standalone.hedgingPolicy = new HedgingPolicy() {
+            @Override
+            public long hedgeDelayNanos(String serverUrl) {
+                return TimeUnit.MILLISECONDS.toNanos(20);
+            }
+
+            @Override
+            public void recordRequest() {
+            }
+
+            @Override
+            public boolean tryAcquireHedge() {
+                return true;
+            }
+
+            @Override
+            public void recordLatency(String serverUrl, long latencyNanos) {
+                recorded.put(serverUrl, latencyNanos);
+            }
+        };
+        String primary = uniqueUrl();
+        String hedge = uniqueUrl();
+
+        try {
+            // When: основной сервер отвечает дольше hedge delay и проигрывает
+            HedgedResult result = standalone.execute(primary, () -> hedge, url -> {
+                if (url.equals(primary)) {
+                    sleep(5000);
+                }
+                return createResponse(200, url);
+            }, this::isFinal);
+
+            // Then: отменённый основной запрос попадает в окно как минимум с временем до отмены
+            assertEquals(hedge, result.getServerUrl());
+            assertTrue(recorded.containsKey(hedge));
+            assertTrue(recorded.containsKey(primary), "Cancelled primary should be recorded");
+            assertTrue(recorded.get(primary) >= TimeUnit.MILLISECONDS.toNanos(20));
+        } finally {
+            standalone.shutdown();
+        }
+    }
+
+    @Test
+    void testPrimaryFailsFast_ReturnsFailureWithoutHedge() {
+        // Given: основной сервер сразу падает
+        String primary = uniqueUrl();
+
+        // When
+        HedgedResult result = executor.execute(primary, () -> fail("Hedge should not be selected"), url -> {
+            throw new HttpClientException("Connection refused");
+        }, this::isFinal);
+
+        // Then: решение о повторе остаётся за retry логикой
+        assertNull(result.getResponse());
+        assertTrue(result.getFailures().containsKey(primary));
+        assertFalse(result.isHedged());
+    }
+
+    @Test
+    void testNoHedgeServer_WaitsForPrimary() {
+        // Given: основной сервер медленный, запасного нет
+        String primary = uniqueUrl();
+
+        // When
+        HedgedResult result = executor.execute(primary, () -> null, url -> {
+            sleep(100);
+            return createResponse(200, "slow primary");
+        }, this::isFinal);
+
+        // Then
+        assertEquals(primary, result.getServerUrl());
+        assertFalse(result.isHedged());
+    }
+
+    @Test
+    void testFastRetryableStatus_WaitsForHedge() {
+        // Given: основной сервер быстро отвечает 503, но после hedge delay
+        String primary = uniqueUrl();
+        String hedge = uniqueUrl();
+
+        // When
+        HedgedResult result = executor.execute(primary, () -> hedge, url -> {
+            if (url.equals(primary)) {
+                sleep(100);
+                return createResponse(503, "unavailable");
+            }
+            sleep(200);
+            return createResponse(200, "hedge");
+        }, this::isFinal);
+
+        // Then: 503 не окончательный ответ, побеждает запасной сервер
+        assertEquals(hedge, result.getServerUrl());
+        assertEquals(200, result.getResponse().getStatusCode());
+    }
+
+    private boolean isFinal(HttpResponse response) {
+        return response.getStatusCode() != 503;
+    }
+
+    private static void sleep(long millis) throws HttpClientException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new HttpClientException("Interrupted", e);
+        }
+    }
+
+    private HttpResponse createResponse(int statusCode, String body) {
+        HttpResponse response = new HttpResponse();
+        response.setStatusCode(statusCode);
+        response.setBody(body);
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap());
+        return response;
+    }
+}
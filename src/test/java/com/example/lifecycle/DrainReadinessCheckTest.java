@@ -0,0 +1,27 @@
+package com.example.lifecycle;
+
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrainReadinessCheckTest {
+
+    @Test
+    void testReadinessDownOnceDraining() {
+        // Given
+        GracefulShutdown shutdown = new GracefulShutdown();
+        DrainReadinessCheck check = new DrainReadinessCheck();
+        check.gracefulShutdown = shutdown;
+        assertEquals(HealthCheckResponse.Status.UP, check.call().getStatus());
+
+        // When
+        shutdown.startDraining();
+        shutdown.startDraining();
+
+        // Then
+        assertTrue(shutdown.isDraining());
+        assertEquals(HealthCheckResponse.Status.DOWN, check.call().getStatus());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.metrics;
+
+import com.example.client.HttpClient;
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.example.health.impl.ScheduledHealthCheckService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+class ProxyMetricsTest {
+
+    private static final String BACKEND = "http://pooled:9000";
+
+    @InjectMock
+    HttpClient httpClient;
+
+    @InjectMock
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    @Inject
+    MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(httpClient, scheduledHealthCheckService);
+        // Пул pooled без кеша: каждый запрос доходит до backend
+        when(scheduledHealthCheckService.getCachedHealthyServers("pooled")).thenReturn(List.of(BACKEND));
+    }
+
+    @Test
+    void testRequestAndUpstreamLatencyRecorded() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(200));
+        long requests = timerCount("proxy.requests", "pool", "pooled", "method", "GET", "status", "2xx");
+        long upstream = timerCount("proxy.upstream.requests", "backend", BACKEND, "outcome", "2xx");
+
+        // When
+        given().when().get("/pooled/metrics").then().statusCode(200);
+
+        // Then: один запрос клиента и одна попытка к backend
+        assertEquals(requests + 1, timerCount("proxy.requests", "pool", "pooled", "method", "GET", "status", "2xx"));
+        assertEquals(upstream + 1, timerCount("proxy.upstream.requests", "backend", BACKEND, "outcome", "2xx"));
+    }
+
+    @Test
+    void testUpstreamErrorRecorded() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any()))
+                .thenThrow(new HttpClientException("Connection refused"));
+        long errors = timerCount("proxy.upstream.requests", "backend", BACKEND, "outcome", "error");
+
+        // When
+        given().when().get("/pooled/metrics").then().statusCode(503);
+
+        // Then
+        assertEquals(errors + 1, timerCount("proxy.upstream.requests", "backend", BACKEND, "outcome", "error"));
+        // Circuit пула мог открыться: закрываем его, чтобы не влиять на другие тесты
+        closeCircuit();
+    }
+
+    @Test
+    void testCircuitTransitionsExported() throws HttpClientException {
+        // Given: backend отвечает 503 — отказ для circuit breaker (порог 3)
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(503));
+        double opened = counterCount("proxy.circuit.transitions", "pool", "pooled", "backend", BACKEND, "to", "OPEN");
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            given().when().get("/pooled/metrics").then().statusCode(503);
+        }
+
+        // Then: переход в OPEN посчитан, gauge состояния = 2
+        assertEquals(opened + 1, counterCount("proxy.circuit.transitions", "pool", "pooled", "backend", BACKEND,
+                "to", "OPEN"));
+        Gauge state = registry.find("proxy.circuit.state").tags("pool", "pooled", "backend", BACKEND).gauge();
+        assertEquals(2.0, state.value());
+
+        closeCircuit();
+        assertEquals(0.0, state.value());
+    }
+
+    @Test
+    void testPrometheusEndpointExposesHistograms() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(200));
+        given().when().get("/pooled/metrics").then().statusCode(200);
+
+        // When / Then: гистограммы для расчёта перцентилей на стороне Prometheus
+        given().when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("proxy_requests_seconds_bucket"))
+                .body(containsString("proxy_upstream_requests_seconds_bucket"));
+    }
+
+    /**
+     * Ждёт open-duration (100ms в тестах) и закрывает circuit пула успешным запросом
+     */
+    private void closeCircuit() throws HttpClientException {
+        try {
+            Thread.sleep(150);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Mockito.reset(httpClient);
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(200));
+        given().when().get("/pooled/metrics").then().statusCode(200);
+    }
+
+    private long timerCount(String name, String... tags) {
+        Timer timer = registry.find(name).tags(tags).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double counterCount(String name, String... tags) {
+        Counter counter = registry.find(name).tags(tags).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private HttpResponse createResponse(int statusCode) {
+        HttpResponse response = new HttpResponse();
+        response.setStatusCode(statusCode);
+        response.setBody("ok");
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap());
+        return response;
+    }
+}
@@ -12,20 +12,21 @@ import com.example.loadbalancer.LoadBalancer;
 import com.example.ratelimiter.RateLimiter;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.net.SocketAddress;
 import jakarta.inject.Inject;
-import jakarta.ws.rs.core.HttpHeaders;
-import jakarta.ws.rs.core.MultivaluedHashMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -57,25 +58,25 @@ class ProxyResourceRetryTest {
     @Inject
     ProxyResource proxyResource;
 
-    private HttpHeaders mockHeaders;
+    @Inject
+    ProxyService proxyService;
+
     private HttpServerRequest mockRequest;
 
     @BeforeEach
     void setUp() throws HttpClientException {
         Mockito.reset(httpClient, loadBalancer, scheduledHealthCheckService, healthChecker, circuitBreaker, rateLimiter, responseCache);
 
-        // Mock HttpHeaders
-        mockHeaders = mock(HttpHeaders.class);
-        when(mockHeaders.getRequestHeaders()).thenReturn(new MultivaluedHashMap<>());
-
         // Mock HttpServerRequest
         mockRequest = mock(HttpServerRequest.class);
+        when(mockRequest.headers()).thenReturn(MultiMap.caseInsensitiveMultiMap());
         SocketAddress mockAddress = mock(SocketAddress.class);
         when(mockAddress.host()).thenReturn("127.0.0.1");
         when(mockRequest.remoteAddress()).thenReturn(mockAddress);
 
-        // Mock CircuitBreaker - по умолчанию circuit закрыт
+        // Mock CircuitBreaker - по умолчанию circuit закрыт, отказом считаются 5xx
         when(circuitBreaker.isOpen(anyString())).thenReturn(false);
+        when(circuitBreaker.isFailureStatus(anyInt())).thenAnswer(inv -> (int) inv.getArgument(0) >= 500);
 
         // Mock RateLimiter - всегда разрешаем запросы в тестах
         when(rateLimiter.allowRequest(anyString())).thenReturn(true);
@@ -89,10 +90,10 @@ class ProxyResourceRetryTest {
         when(loadBalancer.selectServer()).thenReturn("http://server1:8080");
         when(scheduledHealthCheckService.getCachedHealthyServers())
                 .thenReturn(List.of("http://server1:8080"));
-        when(httpClient.get(anyString(), any())).thenReturn(createResponse(200, "Success"));
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(200, "Success"));
 
         // When
-        var response = proxyResource.proxyGet("", mockHeaders, mockRequest);
+        var response = proxyResource.proxyGet("", mockRequest);
 
         // Then
         assertEquals(200, response.getStatus());
@@ -108,13 +109,13 @@ class ProxyResourceRetryTest {
                 .thenReturn("http://server2:8080");
         when(scheduledHealthCheckService.getCachedHealthyServers())
                 .thenReturn(List.of("http://server1:8080", "http://server2:8080"));
-        when(httpClient.get(eq("http://server1:8080"), any()))
+        when(httpClient.send(eq("GET"), eq("http://server1:8080"), any(), any(), any()))
                 .thenThrow(new HttpClientException("Connection refused"));
-        when(httpClient.get(eq("http://server2:8080"), any()))
+        when(httpClient.send(eq("GET"), eq("http://server2:8080"), any(), any(), any()))
                 .thenReturn(createResponse(200, "Success from server2"));
 
         // When
-        var response = proxyResource.proxyGet("", mockHeaders, mockRequest);
+        var response = proxyResource.proxyGet("", mockRequest);
 
         // Then
         assertEquals(200, response.getStatus());
@@ -130,11 +131,11 @@ class ProxyResourceRetryTest {
                 .thenReturn("http://server2:8080");
         when(scheduledHealthCheckService.getCachedHealthyServers())
                 .thenReturn(List.of("http://server1:8080", "http://server2:8080"));
-        when(httpClient.get(anyString(), any()))
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any()))
                 .thenThrow(new HttpClientException("Connection refused"));
 
         // When
-        var response = proxyResource.proxyGet("", mockHeaders, mockRequest);
+        var response = proxyResource.proxyGet("", mockRequest);
 
         // Then
         assertEquals(503, response.getStatus());
@@ -148,7 +149,7 @@ class ProxyResourceRetryTest {
                 .thenThrow(new HttpClientException("No live servers found"));
 
         // When
-        var response = proxyResource.proxyGet("", mockHeaders, mockRequest);
+        var response = proxyResource.proxyGet("", mockRequest);
 
         // Then
         assertEquals(503, response.getStatus());
@@ -164,26 +165,177 @@ class ProxyResourceRetryTest {
         // maxAttempts должен быть >= 3 чтобы было достаточно итераций
         when(scheduledHealthCheckService.getCachedHealthyServers())
                 .thenReturn(List.of("http://server1:8080", "http://server2:8080", "http://server3:8080"));
-        when(httpClient.get(eq("http://server1:8080"), any()))
+        when(httpClient.send(eq("GET"), eq("http://server1:8080"), any(), any(), any()))
                 .thenThrow(new HttpClientException("Connection refused"));
-        when(httpClient.get(eq("http://server2:8080"), any()))
+        when(httpClient.send(eq("GET"), eq("http://server2:8080"), any(), any(), any()))
                 .thenReturn(createResponse(200, "Success from server2"));
 
         // When
-        var response = proxyResource.proxyGet("", mockHeaders, mockRequest);
+        var response = proxyResource.proxyGet("", mockRequest);
 
         // Then
         assertEquals(200, response.getStatus());
         // server1 вызван 1 раз, не 2
-        verify(httpClient, times(1)).get(eq("http://server1:8080"), any());
-        verify(httpClient, times(1)).get(eq("http://server2:8080"), any());
+        verify(httpClient, times(1)).send(eq("GET"), eq("http://server1:8080"), any(), any(), any());
+        verify(httpClient, times(1)).send(eq("GET"), eq("http://server2:8080"), any(), any(), any());
+    }
+
+    @Test
+    void testPostNotRetriedOnConnectionError() throws HttpClientException {
+        // Given: POST не идемпотентен, первый сервер падает с сетевой ошибкой
+        when(loadBalancer.selectServer())
+                .thenReturn("http://server1:8080")
+                .thenReturn("http://server2:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers())
+                .thenReturn(List.of("http://server1:8080", "http://server2:8080"));
+        when(httpClient.send(eq("POST"), anyString(), anyString(), any(), any()))
+                .thenThrow(new HttpClientException("Connection reset"));
+
+        // When
+        var response = proxyResource.proxyPost("", "{}", mockRequest);
+
+        // Then: повтора нет, второй сервер не вызывался
+        assertEquals(503, response.getStatus());
+        verify(httpClient, times(1)).send(eq("POST"), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void testFailureReasonGoesToAccessLogRecord() throws HttpClientException {
+        // Given: POST падает с сетевой ошибкой и не повторяется
+        when(loadBalancer.selectServer()).thenReturn("http://server1:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers()).thenReturn(List.of("http://server1:8080"));
+        when(httpClient.send(eq("POST"), anyString(), anyString(), any(), any()))
+                .thenThrow(new HttpClientException("Connection reset"));
+
+        // When
+        ProxyResult result = proxyService.forward("POST", "/", "{}", MultiMap.caseInsensitiveMultiMap(), "127.0.0.1");
+
+        // Then: число попыток и причина — в результате для access log, а не в строке лога
+        assertEquals(503, result.getStatusCode());
+        assertEquals(1, result.getAttempts());
+        assertEquals("not_idempotent", result.getReason());
+    }
+
+    @Test
+    void testPostRetriedOnServiceUnavailable() throws HttpClientException {
+        // Given: первый сервер отказал со статусом 503 — запрос не обрабатывался
+        when(loadBalancer.selectServer())
+                .thenReturn("http://server1:8080")
+                .thenReturn("http://server2:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers())
+                .thenReturn(List.of("http://server1:8080", "http://server2:8080"));
+        when(httpClient.send(eq("POST"), eq("http://server1:8080"), anyString(), any(), any()))
+                .thenReturn(createResponse(503, "Service Unavailable"));
+        when(httpClient.send(eq("POST"), eq("http://server2:8080"), anyString(), any(), any()))
+                .thenReturn(createResponse(201, "Created"));
+
+        // When
+        var response = proxyResource.proxyPost("", "{}", mockRequest);
+
+        // Then
+        assertEquals(201, response.getStatus());
+        verify(httpClient, times(1)).send(eq("POST"), eq("http://server2:8080"), anyString(), any(), any());
+    }
+
+    @Test
+    void testGetNotRetriedOnNonRetryableStatus() throws HttpClientException {
+        // Given: 500 не входит в app.retry.retryable-statuses
+        when(loadBalancer.selectServer())
+                .thenReturn("http://server1:8080")
+                .thenReturn("http://server2:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers())
+                .thenReturn(List.of("http://server1:8080", "http://server2:8080"));
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any()))
+                .thenReturn(createResponse(500, "Internal Server Error"));
+
+        // When
+        var response = proxyResource.proxyGet("", mockRequest);
+
+        // Then: ответ backend проксирован как есть, но засчитан как отказ
+        assertEquals(500, response.getStatus());
+        verify(httpClient, times(1)).send(eq("GET"), anyString(), any(), any(), any());
+        verify(circuitBreaker).recordFailure("http://server1:8080");
+    }
+
+    @Test
+    void testNotFoundPassedThroughWithoutFailover() throws HttpClientException {
+        // Given: backend штатно отвечает 404
+        when(loadBalancer.selectServer())
+                .thenReturn("http://server1:8080")
+                .thenReturn("http://server2:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers())
+                .thenReturn(List.of("http://server1:8080", "http://server2:8080"));
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any()))
+                .thenReturn(createResponse(404, "Not Found"));
+
+        // When
+        var response = proxyResource.proxyGet("", mockRequest);
+
+        // Then: 404 отдан клиенту, сервер не помечен упавшим, повтора нет
+        assertEquals(404, response.getStatus());
+        assertEquals("Not Found", response.getEntity());
+        verify(httpClient, times(1)).send(eq("GET"), anyString(), any(), any(), any());
+        verify(circuitBreaker).recordSuccess("http://server1:8080");
+        verify(healthChecker, never()).markUnhealthy(anyString());
+    }
+
+    @Test
+    void testRetryableStatusRetriedThenPassedThrough() throws HttpClientException {
+        // Given: оба сервера отвечают 503
+        when(loadBalancer.selectServer())
+                .thenReturn("http://server1:8080")
+                .thenReturn("http://server2:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers())
+                .thenReturn(List.of("http://server1:8080", "http://server2:8080"));
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any()))
+                .thenReturn(createResponse(503, "Busy"));
+
+        // When
+        var response = proxyResource.proxyGet("", mockRequest);
+
+        // Then: повтор был, клиент получил последний ответ backend
+        assertEquals(503, response.getStatus());
+        assertEquals("Busy", response.getEntity());
+        verify(httpClient, times(2)).send(eq("GET"), anyString(), any(), any(), any());
+        verify(healthChecker, times(2)).markUnhealthy(anyString());
+    }
+
+    @Test
+    void testHeadersForwardedCaseInsensitiveWithoutHopByHop() throws HttpClientException {
+        // Given: клиент прислал повторяющийся заголовок и hop-by-hop заголовки в нижнем регистре
+        MultiMap clientHeaders = MultiMap.caseInsensitiveMultiMap()
+                .add("Accept", "text/plain")
+                .add("Accept", "application/json")
+                .add("connection", "keep-alive, x-internal")
+                .add("x-internal", "secret")
+                .add("host", "proxy:8080");
+        when(mockRequest.headers()).thenReturn(clientHeaders);
+        when(loadBalancer.selectServer()).thenReturn("http://server1:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers())
+                .thenReturn(List.of("http://server1:8080"));
+        HttpResponse backendResponse = createResponse(200, "ok");
+        backendResponse.getHeaders().add("Set-Cookie", "a=1").add("Set-Cookie", "b=2");
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(backendResponse);
+
+        // When
+        var response = proxyResource.proxyGet("", mockRequest);
+
+        // Then: multi-value сохранены, hop-by-hop и перечисленные в Connection отброшены
+        ArgumentCaptor<MultiMap> forwarded = ArgumentCaptor.forClass(MultiMap.class);
+        verify(httpClient).send(eq("GET"), anyString(), any(), forwarded.capture(), any());
+        assertEquals(List.of("text/plain", "application/json"), forwarded.getValue().getAll("ACCEPT"));
+        assertFalse(forwarded.getValue().contains("Connection"));
+        assertFalse(forwarded.getValue().contains("X-Internal"));
+        assertFalse(forwarded.getValue().contains("Host"));
+        assertEquals("127.0.0.1", forwarded.getValue().get("x-forwarded-for"));
+        assertEquals(2, response.getHeaders().get("Set-Cookie").size());
     }
 
     private HttpResponse createResponse(int statusCode, String body) {
         HttpResponse response = new HttpResponse();
         response.setStatusCode(statusCode);
         response.setBody(body);
-        response.setHeaders(Map.of());
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap());
         return response;
     }
 }
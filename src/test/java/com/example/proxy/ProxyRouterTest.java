@@ -0,0 +1,353 @@
+package com.example.proxy;
+
+import com.example.admission.AdmissionController;
+import com.example.admission.PriorityClass;
+import com.example.cache.CachedResponse;
+import com.example.cache.ResponseCache;
+import com.example.circuitbreaker.CircuitBreaker;
+import com.example.client.HttpClient;
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.example.compression.ResponseCompressor;
+import com.example.health.HealthChecker;
+import com.example.health.impl.ScheduledHealthCheckService;
+import com.example.loadbalancer.LoadBalancer;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+class ProxyRouterTest {
+
+    @InjectMock
+    HttpClient httpClient;
+
+    @InjectMock
+    LoadBalancer loadBalancer;
+
+    @InjectMock
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    @InjectMock
+    HealthChecker healthChecker;
+
+    @InjectMock
+    CircuitBreaker circuitBreaker;
+
+    @InjectMock
+    ResponseCache responseCache;
+
+    @InjectMock
+    AdmissionController admission;
+
+    @Inject
+    ResponseCompressor compressor;
+
+    @Inject
+    ProxyService proxyService;
+
+    @BeforeEach
+    void setUp() throws HttpClientException {
+        Mockito.reset(httpClient, loadBalancer, scheduledHealthCheckService, healthChecker, circuitBreaker, responseCache,
+                admission);
+        when(admission.tryAcquire(any())).thenReturn(true);
+        when(admission.onStart(any(), anyLong())).thenReturn(true);
+        when(loadBalancer.selectServer()).thenReturn("http://server1:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers()).thenReturn(List.of("http://server1:8080"));
+        when(circuitBreaker.isOpen(anyString())).thenReturn(false);
+        when(circuitBreaker.isFailureStatus(anyInt())).thenAnswer(inv -> (int) inv.getArgument(0) >= 500);
+    }
+
+    @Test
+    void testPathAndRawQueryForwardedUnchanged() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("GET"), eq("http://server1:8080/api/items?id=1&q=a%20b"), any(), any(), any()))
+                .thenReturn(createResponse(200, "items"));
+
+        // When / Then
+        given().urlEncodingEnabled(false)
+                .when().get("/api/items?id=1&q=a%20b")
+                .then()
+                .statusCode(200)
+                .header("X-Backend", "server1")
+                .body(equalTo("items"));
+    }
+
+    @Test
+    void testPostBodyForwarded() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("POST"), eq("http://server1:8080/api/items"), eq("{\"id\":1}"), any(), any()))
+                .thenReturn(createResponse(201, "created"));
+
+        // When / Then
+        given().body("{\"id\":1}")
+                .when().post("/api/items")
+                .then()
+                .statusCode(201)
+                .body(equalTo("created"));
+    }
+
+    @Test
+    void testBodyOverLimitRejectedWithoutCallingBackend() throws HttpClientException {
+        // Given: лимит тела в тестах 1K
+
+        // When / Then
+        given().body("x".repeat(2048))
+                .when().post("/api/items")
+                .then()
+                .statusCode(413);
+        verify(httpClient, never()).send(anyString(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void testBackendStatusPassedThrough() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(404, "not found"));
+
+        // When / Then
+        given().when().get("/missing")
+                .then()
+                .statusCode(404)
+                .body(equalTo("not found"));
+    }
+
+    @Test
+    void testPrefixRoutedToNamedPool() throws HttpClientException {
+        // Given: /pooled ведёт в пул pooled со своим балансировщиком
+        when(scheduledHealthCheckService.getCachedHealthyServers("pooled")).thenReturn(List.of("http://pooled:9000"));
+        when(httpClient.send(eq("GET"), eq("http://pooled:9000/pooled/items"), any(), any(), any()))
+                .thenReturn(createResponse(200, "pooled"));
+
+        // When / Then
+        given().when().get("/pooled/items")
+                .then()
+                .statusCode(200)
+                .body(equalTo("pooled"));
+        verify(loadBalancer, never()).selectServer();
+    }
+
+    @Test
+    void testHeadServedFromCacheWithoutBody() throws HttpClientException {
+        // Given: GET ответ уже в кеше
+        CachedResponse cached = new CachedResponse();
+        cached.setStatusCode(200);
+        cached.setBody("cached body");
+        cached.setHeaders(MultiMap.caseInsensitiveMultiMap().add("Content-Type", "text/plain"));
+        cached.setCachedAt(Instant.now());
+        when(responseCache.get("/cached")).thenReturn(Optional.of(cached));
+
+        // When / Then: метаданные из кеша, тело не отдаётся, backend не вызывается
+        given().when().head("/cached")
+                .then()
+                .statusCode(200)
+                .header("X-Cache", "HIT")
+                .header("Content-Length", "11")
+                .body(equalTo(""));
+        verify(httpClient, never()).send(anyString(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void testHeadForwardedOnCacheMissAndNotCached() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("HEAD"), eq("http://server1:8080/uncached"), any(), any(), any()))
+                .thenReturn(createResponse(200, ""));
+
+        // When / Then
+        given().when().head("/uncached")
+                .then()
+                .statusCode(200);
+        verify(responseCache, never()).put(anyString(), any());
+    }
+
+    @Test
+    void testHeadMissKeepsBackendContentLength() throws HttpClientException {
+        // Given: backend отвечает на HEAD длиной тела, которое вернул бы GET
+        HttpResponse response = createResponse(200, "");
+        response.getHeaders().add("Content-Length", "1234");
+        when(responseCache.get("/report")).thenReturn(Optional.empty());
+        when(httpClient.send(eq("HEAD"), eq("http://server1:8080/report"), any(), any(), any())).thenReturn(response);
+
+        // When / Then
+        given().when().head("/report")
+                .then()
+                .statusCode(200)
+                .header("Content-Length", "1234")
+                .body(equalTo(""));
+    }
+
+    @Test
+    void testPatchAndOptionsForwarded() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("PATCH"), eq("http://server1:8080/api/items/1"), eq("{\"name\":\"x\"}"), any(), any()))
+                .thenReturn(createResponse(200, "patched"));
+        when(httpClient.send(eq("OPTIONS"), eq("http://server1:8080/api/items"), any(), any(), any()))
+                .thenReturn(createResponse(204, ""));
+
+        // When / Then
+        given().body("{\"name\":\"x\"}")
+                .when().patch("/api/items/1")
+                .then()
+                .statusCode(200)
+                .body(equalTo("patched"));
+        given().when().options("/api/items")
+                .then()
+                .statusCode(204);
+        // PATCH инвалидирует ресурс с подресурсами и родительскую коллекцию, OPTIONS — ничего
+        verify(responseCache).evictPrefix("/api/items/1");
+        verify(responseCache).evictPath("/api/items");
+        verify(responseCache, never()).evictPrefix("/api/items");
+    }
+
+    @Test
+    void testTraceNotProxied() throws HttpClientException {
+        // When / Then
+        given().when().request("TRACE", "/api/items")
+                .then()
+                .statusCode(405)
+                .header("Allow", containsString("PATCH"));
+        verify(httpClient, never()).send(anyString(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void testInvalidRequestTargetRejectedWithoutChargingBackend() throws HttpClientException {
+        // When
+        List<Integer> statuses = List.of("/api/a|b", "/api/{id}", "/api/a%2", "/api/a b", "api/items").stream()
+                .map(uri -> proxyService.forward("GET", uri, null, MultiMap.caseInsensitiveMultiMap(), "127.0.0.1")
+                        .getStatusCode())
+                .toList();
+
+        // Then: ошибка клиента, backend не вызывается и отказ ему не засчитывается
+        assertEquals(List.of(400, 400, 400, 400, 400), statuses);
+        verify(httpClient, never()).send(anyString(), anyString(), any(), any(), any());
+        verify(circuitBreaker, never()).recordFailure(anyString());
+        verify(healthChecker, never()).markUnhealthy(anyString());
+    }
+
+    @Test
+    void testCompressedOnceAndStoredInCache() throws HttpClientException {
+        // Given: большой JSON ответ
+        String json = "{\"items\":[" + "\"item\",".repeat(300) + "\"last\"]}";
+        HttpResponse backendResponse = createResponse(200, json);
+        backendResponse.getHeaders().add("Content-Type", "application/json; charset=utf-8");
+        when(httpClient.send(eq("GET"), eq("http://server1:8080/big"), any(), any(), any())).thenReturn(backendResponse);
+
+        // When / Then: клиент с gzip получает сжатый ответ
+        given().header("Accept-Encoding", "gzip")
+                .when().get("/big")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .header("Vary", "Accept-Encoding")
+                .body(equalTo(json));
+
+        // Then: в кеше хранится только сжатое тело
+        ArgumentCaptor<CachedResponse> cached = ArgumentCaptor.forClass(CachedResponse.class);
+        verify(responseCache).put(eq("/big"), cached.capture());
+        assertNotNull(cached.getValue().getCompressedBody());
+        assertNull(cached.getValue().getBody());
+    }
+
+    @Test
+    void testCompressedCacheEntryServedPlainWithoutGzip() throws HttpClientException {
+        // Given: в кеше сжатый ответ
+        String json = "{\"items\":[" + "\"item\",".repeat(300) + "\"last\"]}";
+        CachedResponse cached = new CachedResponse();
+        cached.setStatusCode(200);
+        cached.setCompressedBody(compressor.compress(json));
+        cached.setHeaders(MultiMap.caseInsensitiveMultiMap().add("Content-Type", "application/json"));
+        cached.setCachedAt(Instant.now());
+        when(responseCache.get("/big-cached")).thenReturn(Optional.of(cached));
+
+        // When / Then: клиент без gzip получает распакованное тело
+        given().header("Accept-Encoding", "identity")
+                .when().get("/big-cached")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .body(equalTo(json));
+    }
+
+    @Test
+    void testExcludedPrefixNotProxied() throws HttpClientException {
+        // When: служебный путь Quarkus не уходит на backend
+        given().when().get("/q/unknown");
+
+        // Then
+        verify(httpClient, never()).send(anyString(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void testShedWhenOverloaded() throws HttpClientException {
+        // Given: admission control отклоняет запрос
+        when(admission.tryAcquire(any())).thenReturn(false);
+
+        // When / Then: 503 с Retry-After, backend не вызывается
+        given().when().get("/api/items")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", "1");
+        verify(httpClient, never()).send(anyString(), anyString(), any(), any(), any());
+        verify(admission, never()).release();
+    }
+
+    @Test
+    void testLateShedAfterLongQueueWait() throws HttpClientException {
+        // Given: запрос принят, но прождал worker поток слишком долго
+        when(admission.onStart(any(), anyLong())).thenReturn(false);
+
+        // When / Then: отказ без обращения к backend, место освобождено
+        given().when().get("/api/items")
+                .then()
+                .statusCode(503);
+        verify(httpClient, never()).send(anyString(), anyString(), any(), any(), any());
+        verify(admission).release();
+    }
+
+    @Test
+    void testPriorityHeaderOnlyLowers() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(200, "ok"));
+
+        // When: клиент понижает приоритет и пытается повысить
+        given().header("X-Priority", "low").when().get("/api/items").then().statusCode(200);
+        given().header("X-Priority", "high").when().get("/api/items").then().statusCode(200);
+
+        // Then: маршрут без приоритета — NORMAL, повысить его заголовком нельзя
+        verify(admission).tryAcquire(PriorityClass.LOW);
+        verify(admission).tryAcquire(PriorityClass.NORMAL);
+        verify(admission, never()).tryAcquire(PriorityClass.HIGH);
+    }
+
+    private HttpResponse createResponse(int statusCode, String body) {
+        HttpResponse response = new HttpResponse();
+        response.setStatusCode(statusCode);
+        response.setBody(body);
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap().add("X-Backend", "server1"));
+        return response;
+    }
+}
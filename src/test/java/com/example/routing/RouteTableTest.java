@@ -0,0 +1,61 @@
+package com.example.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RouteTableTest {
+
+    private final UpstreamPool defaultPool = pool(UpstreamPool.DEFAULT);
+    private final UpstreamPool api = pool("api");
+    private final UpstreamPool apiV2 = pool("api-v2");
+    private final UpstreamPool assets = pool("assets");
+    private final UpstreamPool admin = pool("admin");
+
+    private final RouteTable table = new RouteTable(defaultPool)
+            .add(null, "/api", api)
+            .add(null, "/api/v2", apiV2)
+            .add(null, "/assets/", assets)
+            .add("admin.example.com", "/", admin);
+
+    @Test
+    void testLongestPrefixWins() {
+        assertSame(api, table.resolve(null, "/api/v1/users"));
+        assertSame(apiV2, table.resolve(null, "/api/v2/users"));
+        assertSame(api, table.resolve(null, "/api/v"));
+    }
+
+    @Test
+    void testQueryIgnored() {
+        assertSame(assets, table.resolve(null, "/assets/app.js?v=3"));
+        assertSame(defaultPool, table.resolve(null, "/assets?/x"));
+    }
+
+    @Test
+    void testNoMatchFallsBackToDefault() {
+        assertSame(defaultPool, table.resolve(null, "/"));
+        assertSame(defaultPool, table.resolve(null, "/ap"));
+        assertSame(defaultPool, table.resolve("other.example.com", "/index.html"));
+    }
+
+    @Test
+    void testHostRouteIgnoresCaseAndPort() {
+        assertSame(admin, table.resolve("Admin.Example.com:8080", "/api/v1"));
+        assertSame(admin, table.resolve("admin.example.com", "/"));
+        assertSame(api, table.resolve("admin.example.com.evil", "/api"));
+    }
+
+    @Test
+    void testSplitEdgeKeepsBothPrefixes() {
+        RouteTable split = new RouteTable(defaultPool)
+                .add(null, "/users/list", api)
+                .add(null, "/users", apiV2);
+
+        assertSame(api, split.resolve(null, "/users/list/1"));
+        assertSame(apiV2, split.resolve(null, "/users/1"));
+    }
+
+    private static UpstreamPool pool(String name) {
+        return new UpstreamPool(name, java.util.List::of, null, null, null, false, null, false, 0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.tracing;
+
+import com.example.client.HttpClient;
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.example.health.impl.ScheduledHealthCheckService;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+class ProxyTracerTest {
+
+    private static final String BACKEND = "http://pooled:9000";
+    private static final String CLIENT_TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @InjectMock
+    HttpClient httpClient;
+
+    @InjectMock
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    @Inject
+    InMemorySpanExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(httpClient, scheduledHealthCheckService);
+        when(scheduledHealthCheckService.getCachedHealthyServers("pooled")).thenReturn(List.of(BACKEND));
+        exporter.reset();
+    }
+
+    @Test
+    void testAttemptSpanIsChildOfServerSpanAndPropagated() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(200));
+
+        // When: клиент присылает свой traceparent
+        given().header("traceparent", "00-" + CLIENT_TRACE_ID + "-00f067aa0ba902b7-01")
+                .when().get("/pooled/traced")
+                .then().statusCode(200);
+
+        // Then: span попытки — потомок серверного span в трассе клиента
+        SpanData server = awaitSpan(span -> span.getKind() == SpanKind.SERVER);
+        SpanData attempt = awaitSpan(span -> span.getKind() == SpanKind.CLIENT);
+        assertEquals(CLIENT_TRACE_ID, server.getTraceId());
+        assertEquals(server.getSpanId(), attempt.getParentSpanId());
+        assertEquals(BACKEND + "/pooled/traced", attempt.getAttributes().get(ProxyTracer.URL_FULL));
+        assertEquals(1L, attempt.getAttributes().get(ProxyTracer.ATTEMPT));
+        assertEquals(200L, attempt.getAttributes().get(ProxyTracer.HTTP_STATUS));
+        assertEquals("pooled", server.getAttributes().get(ProxyTracer.POOL));
+
+        // backend получает traceparent попытки, а не клиента
+        ArgumentCaptor<MultiMap> headers = ArgumentCaptor.forClass(MultiMap.class);
+        verify(httpClient).send(eq("GET"), anyString(), any(), headers.capture(), any());
+        assertEquals("00-" + CLIENT_TRACE_ID + "-" + attempt.getSpanId() + "-01", headers.getValue().get("traceparent"));
+    }
+
+    @Test
+    void testUpstreamFailureRecordedAsEvent() throws HttpClientException {
+        // Given: backend не отвечает
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any()))
+                .thenThrow(new HttpClientException("Connection refused"));
+
+        // When
+        given().when().get("/pooled/failing").then().statusCode(503);
+
+        // Then: отказ попытки — событие на серверном span и ошибка на span попытки
+        SpanData server = awaitSpan(span -> span.getKind() == SpanKind.SERVER);
+        SpanData attempt = awaitSpan(span -> span.getKind() == SpanKind.CLIENT);
+        EventData failure = server.getEvents().stream()
+                .filter(event -> "upstream.failure".equals(event.getName()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(BACKEND, failure.getAttributes().get(ProxyTracer.BACKEND));
+        assertEquals("Connection refused", failure.getAttributes().get(ProxyTracer.REASON));
+        assertTrue(attempt.getEvents().stream().anyMatch(event -> "exception".equals(event.getName())));
+
+        // Успешный запрос сбрасывает счётчик отказов circuit breaker пула для других тестов
+        Mockito.reset(httpClient);
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenReturn(createResponse(200));
+        given().when().get("/pooled/failing").then().statusCode(200);
+    }
+
+    /**
+     * Spans экспортируются пачками в фоне — ждём появления нужного
+     */
+    private SpanData awaitSpan(Predicate<SpanData> filter) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            for (SpanData span : exporter.getFinishedSpanItems()) {
+                if (filter.test(span)) {
+                    return span;
+                }
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("Span not exported: " + exporter.getFinishedSpanItems());
+        return null;
+    }
+
+    private HttpResponse createResponse(int statusCode) {
+        HttpResponse response = new HttpResponse();
+        response.setStatusCode(statusCode);
+        response.setBody("ok");
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap());
+        return response;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.warmup;
+
+import com.example.cache.CachedResponse;
+import com.example.cache.ResponseCache;
+import com.example.circuitbreaker.CircuitBreaker;
+import com.example.client.HttpClient;
+import com.example.client.HttpClientException;
+import com.example.client.HttpResponse;
+import com.example.health.HealthChecker;
+import com.example.health.impl.ScheduledHealthCheckService;
+import com.example.loadbalancer.LoadBalancer;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+class CacheWarmupServiceTest {
+
+    @InjectMock
+    HttpClient httpClient;
+
+    @InjectMock
+    LoadBalancer loadBalancer;
+
+    @InjectMock
+    ScheduledHealthCheckService scheduledHealthCheckService;
+
+    @InjectMock
+    HealthChecker healthChecker;
+
+    @InjectMock
+    CircuitBreaker circuitBreaker;
+
+    @InjectMock
+    ResponseCache responseCache;
+
+    @Inject
+    CacheWarmupService warmupService;
+
+    @BeforeEach
+    void setUp() throws HttpClientException {
+        Mockito.reset(httpClient, loadBalancer, scheduledHealthCheckService, healthChecker, circuitBreaker, responseCache);
+        when(loadBalancer.selectServer()).thenReturn("http://server1:8080");
+        when(scheduledHealthCheckService.getCachedHealthyServers()).thenReturn(List.of("http://server1:8080"));
+        when(circuitBreaker.isOpen(anyString())).thenReturn(false);
+        when(circuitBreaker.isFailureStatus(anyInt())).thenAnswer(inv -> (int) inv.getArgument(0) >= 500);
+    }
+
+    @Test
+    void testSuccessfulResponsesCached() throws HttpClientException {
+        // Given
+        when(httpClient.send(eq("GET"), eq("http://server1:8080/hot"), any(), any(), any()))
+                .thenReturn(createResponse(200, "hot"));
+        when(httpClient.send(eq("GET"), eq("http://server1:8080/missing"), any(), any(), any()))
+                .thenReturn(createResponse(404, "not found"));
+
+        // When
+        int before = warmupService.getWarmedCount();
+        warmupService.prefetch(List.of("/hot", "/missing"), 2, Duration.ofSeconds(5));
+
+        // Then: кешируется только успешный ответ
+        assertEquals(before + 1, warmupService.getWarmedCount());
+        verify(responseCache).put(eq("/hot"), any(CachedResponse.class));
+        verify(responseCache, never()).put(eq("/missing"), any(CachedResponse.class));
+        assertTrue(warmupService.isReady());
+    }
+
+    @Test
+    void testReadyAfterTimeout() throws HttpClientException {
+        // Given: backend отвечает дольше таймаута прогрева
+        when(httpClient.send(eq("GET"), anyString(), any(), any(), any())).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return createResponse(200, "slow");
+        });
+
+        // When
+        long start = System.nanoTime();
+        warmupService.prefetch(List.of("/slow"), 1, Duration.ofMillis(100));
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertTrue(warmupService.isReady());
+    }
+
+    @Test
+    void testReadinessUp() {
+        given().when().get("/q/health/ready")
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("UP"));
+    }
+
+    private HttpResponse createResponse(int statusCode, String body) {
+        HttpResponse response = new HttpResponse();
+        response.setStatusCode(statusCode);
+        response.setBody(body);
+        response.setHeaders(MultiMap.caseInsensitiveMultiMap().add("Content-Type", "text/plain"));
+        return response;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.warmup;
+
+import com.example.accesslog.impl.AccessLogLines;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HotPathsTest {
+
+    @Test
+    void testParsePlainPathAndAccessLogLine() {
+        assertEquals("/api/items?page=1", HotPaths.parse("  /api/items?page=1  "));
+        assertEquals("/api/items", HotPaths.parse(
+                "10.0.0.1 - - [19/Oct/2026:10:00:00 +0000] \"GET /api/items HTTP/1.1\" 200 512"));
+        assertNull(HotPaths.parse("10.0.0.1 - - [19/Oct/2026:10:00:00 +0000] \"POST /api/items HTTP/1.1\" 201 0"));
+        assertNull(HotPaths.parse("# comment"));
+        assertNull(HotPaths.parse(""));
+    }
+
+    @Test
+    void testParseOwnTextAccessLog() {
+        // Строка text формата access log прокси: "METHOD uri" без протокола
+        String get = AccessLogLines.line("text", "10.0.0.1", "GET", "/api/items?page=1", 200, 1_500_000,
+                "default", "http://b1:8080", "MISS");
+        String post = AccessLogLines.line("text", "10.0.0.1", "POST", "/api/items", 201, 1_500_000,
+                "default", "http://b1:8080", null);
+
+        assertEquals("/api/items?page=1", HotPaths.parse(get));
+        assertNull(HotPaths.parse(post));
+    }
+
+    @Test
+    void testRankedByFrequencyAfterConfigured() {
+        List<String> lines = List.of(
+                "/rare",
+                "\"GET /hot HTTP/1.1\"",
+                "/warm",
+                "/hot",
+                "/warm",
+                "/hot");
+
+        assertEquals(List.of("/pinned", "/hot", "/warm", "/rare"),
+                HotPaths.rank(List.of("/pinned"), lines, 10));
+        assertEquals(List.of("/pinned", "/hot"), HotPaths.rank(List.of("/pinned", "/hot"), lines, 2));
+    }
+}